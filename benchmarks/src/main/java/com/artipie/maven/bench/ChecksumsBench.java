@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.bench;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.maven.asto.RepositoryChecksums;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link RepositoryChecksums}: digesting of artifacts of different sizes
+ * and reading of stored checksums, with in-memory storage.
+ * @since 0.12
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@SuppressWarnings("PMD")
+public class ChecksumsBench {
+
+    /**
+     * Artifact key.
+     */
+    private static final Key ARTIFACT = new Key.From("com/artipie/bench/1.0/bench-1.0.jar");
+
+    /**
+     * Artifact size in bytes.
+     */
+    @Param({"1024", "1048576", "67108864"})
+    public int size;
+
+    /**
+     * Storage with the artifact.
+     */
+    private Storage storage;
+
+    /**
+     * Save random artifact and its checksums.
+     */
+    @Setup
+    public void setup() {
+        final byte[] data = new byte[this.size];
+        new Random(this.size).nextBytes(data);
+        this.storage = new InMemoryStorage();
+        this.storage.save(ChecksumsBench.ARTIFACT, new Content.From(data)).join();
+        this.generate();
+    }
+
+    /**
+     * Calculate and save artifact checksums.
+     */
+    @Benchmark
+    public void generate() {
+        new RepositoryChecksums(this.storage).generate(ChecksumsBench.ARTIFACT)
+            .toCompletableFuture().join();
+    }
+
+    /**
+     * Read stored artifact checksums.
+     * @return Checksums by algorithms
+     */
+    @Benchmark
+    public Map<String, String> checksums() {
+        return new RepositoryChecksums(this.storage).checksums(ChecksumsBench.ARTIFACT)
+            .toCompletableFuture().join();
+    }
+}
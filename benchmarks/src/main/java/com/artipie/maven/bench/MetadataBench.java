@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.bench;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.maven.metadata.ArtifactsMetadata;
+import com.artipie.maven.metadata.DeployMetadata;
+import com.artipie.maven.metadata.MavenMetadata;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xembly.Directives;
+
+/**
+ * Benchmark of maven-metadata generation and reading with in-memory storage: metadata
+ * size grows with number of versions.
+ * @since 0.12
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@SuppressWarnings("PMD")
+public class MetadataBench {
+
+    /**
+     * Artifact key.
+     */
+    private static final Key ARTIFACT = new Key.From("com/artipie/bench");
+
+    /**
+     * Number of versions in metadata.
+     */
+    @Param({"10", "1000", "50000"})
+    public int size;
+
+    /**
+     * Versions.
+     */
+    private Set<String> versions;
+
+    /**
+     * Storage with metadata.
+     */
+    private Storage storage;
+
+    /**
+     * Metadata content.
+     */
+    private String xml;
+
+    /**
+     * Generate versions and metadata.
+     */
+    @Setup
+    public void setup() {
+        this.versions = new LinkedHashSet<>(new Versions(this.size).list());
+        this.storage = new InMemoryStorage();
+        final Key key = this.update();
+        this.xml = new String(
+            new BlockingStorage(this.storage).value(key), StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * Generate and save metadata with all versions.
+     * @return Metadata key
+     */
+    @Benchmark
+    public Key update() {
+        return new MavenMetadata(
+            new Directives().add("metadata")
+                .add("groupId").set("com.artipie").up()
+                .add("artifactId").set("bench").up()
+        ).versions(this.versions).save(this.storage, MetadataBench.ARTIFACT)
+            .toCompletableFuture().join();
+    }
+
+    /**
+     * Read max version from stored metadata.
+     * @return Max version
+     */
+    @Benchmark
+    public String maxVersion() {
+        return new ArtifactsMetadata(this.storage).maxVersion(MetadataBench.ARTIFACT)
+            .toCompletableFuture().join();
+    }
+
+    /**
+     * Read release version from deployed metadata.
+     * @return Release version
+     */
+    @Benchmark
+    public String release() {
+        return new DeployMetadata(this.xml).release();
+    }
+
+    /**
+     * Read snapshot versions from deployed metadata.
+     * @return Snapshot versions
+     */
+    @Benchmark
+    public Set<String> snapshots() {
+        return new DeployMetadata(this.xml).snapshots();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated artifact versions: release versions like {@code 3.12.7} and every tenth
+ * version is snapshot. Versions are random but the same for the same size.
+ * @since 0.12
+ */
+final class Versions {
+
+    /**
+     * Number of versions.
+     */
+    private final int size;
+
+    /**
+     * Ctor.
+     * @param size Number of versions
+     */
+    Versions(final int size) {
+        this.size = size;
+    }
+
+    /**
+     * Generate versions.
+     * @return Versions list
+     * @checkstyle MagicNumberCheck (20 lines)
+     */
+    List<String> list() {
+        final Random random = new Random(this.size);
+        final List<String> res = new ArrayList<>(this.size);
+        for (int idx = 0; idx < this.size; idx += 1) {
+            final String version = String.format(
+                "%d.%d.%d", idx / 1000, random.nextInt(100), idx % 1000
+            );
+            if (idx % 10 == 0) {
+                res.add(String.format("%s-SNAPSHOT", version));
+            } else {
+                res.add(version);
+            }
+        }
+        return res;
+    }
+}
@@ -24,6 +24,7 @@
 package com.artipie.maven.asto;
 
 import com.artipie.asto.Copy;
+import com.artipie.asto.FailedCompletionStage;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.SubStorage;
@@ -31,17 +32,36 @@ import com.artipie.asto.ext.KeyLastPart;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.maven.Maven;
 import com.artipie.maven.http.PutMetadataSlice;
+import com.artipie.maven.metadata.ArtifactsMetadata;
+import com.artipie.maven.metadata.GroupMetadata;
 import com.artipie.maven.metadata.MavenMetadata;
+import com.artipie.maven.metadata.PluginPom;
+import com.artipie.maven.metadata.SnapshotMetadata;
 import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.xembly.Directives;
 
 /**
  * Maven front for artipie maven adaptor.
- *
+ * <p>
+ * Uploaded artifacts are copied to the repository first, then package metadata is updated
+ * under the {@link LeaseLock} on the package key, so the lease is held only for metadata
+ * update. On snapshot upload version-level snapshot metadata is updated under the same lease
+ * from the names of uploaded files and, if {@link SnapshotRetention} is configured, old builds
+ * listed in the version metadata are pruned with {@link SnapshotCleanup} without listing
+ * the version. Written metadata is stamped with the
+ * fencing token of the lease and is not overwritten by the holder of an older lease. If uploaded
+ * POM has {@code maven-plugin} packaging, plugin entry is merged into group-level metadata
+ * under the lease on the group key.
+ * </p>
  * @since 0.2
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
@@ -57,81 +77,291 @@ public final class AstoMaven implements Maven {
      */
     private final Storage storage;
 
+    /**
+     * Package metadata update leases.
+     */
+    private final Function<Key, LeaseLock> leases;
+
+    /**
+     * Snapshot builds retention policy.
+     */
+    private final Optional<SnapshotRetention> retention;
+
     /**
      * Constructor.
      * @param storage Storage used by this class.
      */
     public AstoMaven(final Storage storage) {
+        this(storage, key -> new LeaseLock(storage, key));
+    }
+
+    /**
+     * Constructor.
+     * @param storage Storage used by this class.
+     * @param leases Package metadata update leases by package key
+     */
+    public AstoMaven(final Storage storage, final Function<Key, LeaseLock> leases) {
+        this(storage, leases, Optional.empty());
+    }
+
+    /**
+     * Constructor.
+     * @param storage Storage used by this class.
+     * @param leases Package metadata update leases by package key
+     * @param retention Snapshot builds retention policy
+     */
+    public AstoMaven(final Storage storage, final Function<Key, LeaseLock> leases,
+        final Optional<SnapshotRetention> retention) {
         this.storage = storage;
+        this.leases = leases;
+        this.retention = retention;
     }
 
     @Override
     public CompletionStage<Void> update(final Key upload, final Key artifact) {
-        return this.storage.exclusively(
-            artifact,
-            target -> target.list(artifact).thenApply(
-                items -> items.stream()
-                    .map(
-                        item -> item.string()
-                            .replaceAll(String.format("%s/", artifact.string()), "")
-                            .split("/")[0]
-                    )
-                    .filter(item -> !item.startsWith("maven-metadata"))
-                    .collect(Collectors.toSet())
-            ).thenCompose(
-                versions ->
-                    this.storage.value(
-                        new Key.From(upload, PutMetadataSlice.SUB_META, AstoMaven.MAVEN_META)
-                    ).thenCompose(pub -> new PublisherAs(pub).asciiString())
-                        .thenCompose(
-                            str -> {
-                                versions.add(new KeyLastPart(upload).get());
-                                return new MavenMetadata(
-                                    Directives.copyOf(new XMLDocument(str).node())
-                                ).versions(versions).save(
-                                    this.storage, new Key.From(upload, PutMetadataSlice.SUB_META)
-                                );
-                            }
-                        )
+        return this.moveArtifacts(upload, artifact)
+            .thenCompose(
+                nothing -> this.leases.apply(artifact).perform(
+                    lease -> this.updateMetadata(upload, artifact, lease)
+                )
             )
-                .thenCompose(meta -> new RepositoryChecksums(this.storage).generate(meta))
-                .thenCompose(nothing -> this.moveToTheRepository(upload, target, artifact))
-                .thenCompose(nothing -> this.storage.list(upload).thenCompose(this::remove))
+            .thenCompose(nothing -> this.storage.list(upload))
+            .thenCompose(
+                keys -> this.updatePlugin(keys, upload, artifact)
+                    .thenCompose(nothing -> this.remove(keys))
             );
     }
 
     /**
-     * Moves artifacts from temp location to repository.
+     * Merges plugin entry into group-level metadata if uploaded POM is a maven plugin.
+     * @param keys Uploaded files
+     * @param upload Upload temp location
+     * @param artifact Artifact repository location
+     * @return Completion action
+     */
+    private CompletionStage<Void> updatePlugin(
+        final Collection<Key> keys, final Key upload, final Key artifact
+    ) {
+        return keys.stream()
+            .filter(key -> key.string().endsWith(".pom"))
+            .filter(key -> key.parent().map(upload::equals).orElse(false))
+            .findFirst()
+            .filter(pom -> artifact.parent().isPresent())
+            .<CompletionStage<Void>>map(
+                pom -> this.storage.value(pom)
+                    .thenCompose(pub -> new PublisherAs(pub).string(StandardCharsets.UTF_8))
+                    .thenApply(xml -> new PluginPom(new XMLDocument(xml)))
+                    .thenCompose(
+                        plugin -> {
+                            final CompletionStage<Void> res;
+                            if (plugin.plugin()) {
+                                final Key group = artifact.parent().get();
+                                res = this.leases.apply(group).perform(
+                                    lease -> this.groupMetadata(group)
+                                        .thenApply(meta -> meta.plugin(plugin))
+                                        .thenCompose(meta -> meta.save(this.storage, group))
+                                        .thenCompose(
+                                            key -> new RepositoryChecksums(this.storage)
+                                                .generate(key)
+                                        )
+                                );
+                            } else {
+                                res = CompletableFuture.allOf();
+                            }
+                            return res;
+                        }
+                    )
+            ).orElseGet(() -> CompletableFuture.allOf());
+    }
+
+    /**
+     * Reads group-level metadata.
+     * @param group Group key
+     * @return Existing metadata or empty one
+     */
+    private CompletionStage<GroupMetadata> groupMetadata(final Key group) {
+        final Key meta = new Key.From(group, AstoMaven.MAVEN_META);
+        return this.storage.exists(meta).thenCompose(
+            exists -> {
+                final CompletionStage<GroupMetadata> res;
+                if (exists) {
+                    res = this.storage.value(meta)
+                        .thenCompose(pub -> new PublisherAs(pub).string(StandardCharsets.UTF_8))
+                        .thenApply(xml -> new GroupMetadata(new XMLDocument(xml)));
+                } else {
+                    res = CompletableFuture.completedFuture(new GroupMetadata());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Updates package metadata, should be called under the lease.
      * @param upload Upload temp location
-     * @param target Repository
      * @param artifact Artifact repository location
+     * @param lease Package lease
      * @return Completion action
      */
-    private CompletableFuture<Void> moveToTheRepository(
-        final Key upload, final Storage target, final Key artifact
+    private CompletionStage<Void> updateMetadata(
+        final Key upload, final Key artifact, final Lease lease
     ) {
+        return this.storage.list(artifact).thenApply(
+            items -> items.stream()
+                .map(
+                    item -> item.string()
+                        .replaceAll(String.format("%s/", artifact.string()), "")
+                        .split("/")[0]
+                )
+                .filter(item -> !item.startsWith("maven-metadata"))
+                .collect(Collectors.toSet())
+        ).thenCompose(
+            versions ->
+                this.storage.value(
+                    new Key.From(upload, PutMetadataSlice.SUB_META, AstoMaven.MAVEN_META)
+                ).thenCompose(pub -> new PublisherAs(pub).asciiString())
+                    .thenCompose(
+                        str -> {
+                            versions.add(new KeyLastPart(upload).get());
+                            return new MavenMetadata(
+                                Directives.copyOf(new XMLDocument(str).node())
+                            ).versions(versions).fenced(lease.fence()).save(
+                                this.storage, new Key.From(upload, PutMetadataSlice.SUB_META)
+                            );
+                        }
+                    )
+        )
+            .thenCompose(meta -> new RepositoryChecksums(this.storage).generate(meta))
+            .thenCompose(nothing -> this.checkFence(artifact, lease))
+            .thenCompose(nothing -> this.moveMetadata(upload, artifact))
+            .thenCompose(nothing -> this.updateSnapshot(upload, artifact));
+    }
+
+    /**
+     * Updates version-level snapshot metadata with the uploaded builds and prunes old builds
+     * if the upload is a snapshot, should be called under the lease.
+     * @param upload Upload temp location
+     * @param artifact Artifact repository location
+     * @return Completion action
+     */
+    private CompletionStage<Void> updateSnapshot(final Key upload, final Key artifact) {
+        final String version = new KeyLastPart(upload).get();
+        final CompletionStage<Void> res;
+        if (version.endsWith("SNAPSHOT")) {
+            final Key location = new Key.From(artifact, version);
+            final Key meta = new Key.From(location, AstoMaven.MAVEN_META);
+            res = this.storage.exists(meta).thenCompose(
+                exists -> {
+                    final CompletionStage<SnapshotMetadata> existing;
+                    if (exists) {
+                        existing = this.storage.value(meta)
+                            .thenCompose(pub -> new PublisherAs(pub).string(StandardCharsets.UTF_8))
+                            .thenApply(xml -> new SnapshotMetadata(new XMLDocument(xml)));
+                    } else {
+                        existing = new ArtifactsMetadata(this.storage).groupAndArtifact(
+                            new Key.From(upload, PutMetadataSlice.SUB_META)
+                        ).thenApply(
+                            pair -> new SnapshotMetadata(pair.getKey(), pair.getValue(), version)
+                        );
+                    }
+                    return existing;
+                }
+            ).thenCombine(
+                this.storage.list(upload).thenApply(
+                    files -> files.stream().map(key -> new KeyLastPart(key).get())
+                        .collect(Collectors.toList())
+                ),
+                (snapshot, files) -> snapshot.builds(files).save(this.storage, location)
+                    .thenCompose(key -> new RepositoryChecksums(this.storage).generate(key))
+                    .thenCompose(
+                        nothing -> this.retention.map(
+                            policy -> new SnapshotCleanup(
+                                this.storage, policy, this.leases, Duration.ZERO
+                            ).clean(
+                                location,
+                                Stream.concat(snapshot.files().stream(), files.stream())
+                                    .collect(Collectors.toList())
+                            ).thenApply(pruned -> (Void) null)
+                        ).orElseGet(() -> CompletableFuture.allOf())
+                    )
+            ).thenCompose(Function.identity());
+        } else {
+            res = CompletableFuture.allOf();
+        }
+        return res;
+    }
+
+    /**
+     * Checks that repository metadata was not written by the holder of a newer lease and
+     * renews the lease before writing metadata.
+     * @param artifact Artifact repository location
+     * @param lease Package lease
+     * @return Completion action
+     */
+    private CompletionStage<Void> checkFence(final Key artifact, final Lease lease) {
+        return new ArtifactsMetadata(this.storage).fence(artifact).thenCompose(
+            fence -> {
+                final CompletionStage<Void> res;
+                if (fence > lease.fence()) {
+                    res = new FailedCompletionStage<>(
+                        new IllegalStateException(
+                            String.format(
+                                "Metadata of `%s` was updated with fence %d, lease fence is %d",
+                                artifact.string(), fence, lease.fence()
+                            )
+                        )
+                    );
+                } else {
+                    res = lease.renew();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Moves artifacts from temp location to repository. Snapshot metadata sent by client is
+     * skipped, it's generated on update.
+     * @param upload Upload temp location
+     * @param artifact Artifact repository location
+     * @return Completion action
+     */
+    private CompletableFuture<Void> moveArtifacts(final Key upload, final Key artifact) {
+        final Storage subversion = new SubStorage(upload.parent().get(), this.storage);
+        return subversion.list(Key.ROOT).thenCompose(
+            list -> new Copy(
+                subversion,
+                list.stream()
+                    .filter(
+                        key -> !key.string().contains(
+                            String.format("/%s/", PutMetadataSlice.SUB_META)
+                        )
+                    )
+                    .filter(
+                        key -> !new KeyLastPart(key).get().startsWith(AstoMaven.MAVEN_META)
+                            || !key.parent().map(KeyLastPart::new).map(KeyLastPart::get)
+                            .orElse("").endsWith("SNAPSHOT")
+                    ).collect(Collectors.toList())
+            ).copy(new SubStorage(artifact, this.storage))
+        );
+    }
+
+    /**
+     * Moves package metadata from temp location to repository.
+     * @param upload Upload temp location
+     * @param artifact Artifact repository location
+     * @return Completion action
+     */
+    private CompletableFuture<Void> moveMetadata(final Key upload, final Key artifact) {
         final Storage sub = new SubStorage(
             new Key.From(upload, PutMetadataSlice.SUB_META), this.storage
         );
-        final Storage subversion = new SubStorage(upload.parent().get(), this.storage);
         return sub.list(Key.ROOT).thenCompose(
             list -> new Copy(
                 sub,
                 list.stream().filter(key -> key.string().contains(AstoMaven.MAVEN_META))
                     .collect(Collectors.toList())
-            ).copy(new SubStorage(artifact, target))
-        ).thenCompose(
-            nothing -> subversion.list(Key.ROOT).thenCompose(
-                list -> new Copy(
-                    subversion,
-                    list.stream()
-                        .filter(
-                            key -> !key.string().contains(
-                                String.format("/%s/", PutMetadataSlice.SUB_META)
-                            )
-                        ).collect(Collectors.toList())
-                ).copy(new SubStorage(artifact, target))
-            )
+            ).copy(new SubStorage(artifact, this.storage))
         );
     }
 
@@ -0,0 +1,496 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ValueNotFoundException;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.maven.metrics.Metrics;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lease-based lock on a storage key, it works on top of any {@link Storage} and can be shared
+ * by several nodes using the same storage.
+ * <p>
+ * Each contender saves a lease proposal with its expiration time to
+ * {@code .artipie-leases/${target}/${owner}} and checks that no other proposal is alive. Foreign
+ * proposals are considered to be alive until their expiration time plus allowed clock skew, so
+ * a node with a clock running ahead never takes over a lease too early. Expired proposals left
+ * by crashed nodes are removed by the next contender. Contender waits for alive lease with
+ * growing pauses for lease period plus clock skew by default, so a lease held by a slow
+ * or crashed owner is released or expires while the contender is waiting.
+ * </p>
+ * <p>
+ * Every acquired lease gets a fencing token greater than tokens of all previous leases on
+ * the same key, the last token is kept in {@code .artipie-leases/${target}/fence}. Writers are
+ * expected to embed the token into the data they write and refuse to overwrite data written
+ * with greater token.
+ * </p>
+ * @since 0.12
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class LeaseLock {
+
+    /**
+     * Root key for leases.
+     */
+    private static final Key ROOT = new Key.From(".artipie-leases");
+
+    /**
+     * Fencing token file name.
+     */
+    private static final String FENCE = "fence";
+
+    /**
+     * Pause before the second acquire attempt in milliseconds.
+     */
+    private static final long MIN_PAUSE = 10L;
+
+    /**
+     * Max pause between acquire attempts in milliseconds.
+     */
+    private static final long MAX_PAUSE = 1000L;
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Leases location for the target key.
+     */
+    private final Key root;
+
+    /**
+     * Lease owner identifier.
+     */
+    private final String owner;
+
+    /**
+     * Lease period.
+     */
+    private final Duration ttl;
+
+    /**
+     * Allowed clock skew between nodes.
+     */
+    private final Duration skew;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Max time to wait for alive lease of another owner.
+     */
+    private final Duration patience;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Target key
+     */
+    public LeaseLock(final Storage storage, final Key target) {
+        this(storage, target, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Target key
+     * @param metrics Metrics, lease wait time is recorded to {@code maven.lock.wait} timer
+     * @checkstyle MagicNumberCheck (10 lines)
+     */
+    public LeaseLock(final Storage storage, final Key target, final Metrics metrics) {
+        this(
+            storage, target, Duration.ofMinutes(2), Duration.ofSeconds(5), Clock.systemUTC(),
+            UUID.randomUUID().toString(), Duration.ofMinutes(2).plusSeconds(5), metrics
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Target key
+     * @param ttl Lease period
+     * @param skew Allowed clock skew between nodes
+     * @param clock Clock
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public LeaseLock(final Storage storage, final Key target, final Duration ttl,
+        final Duration skew, final Clock clock) {
+        this(storage, target, ttl, skew, clock, UUID.randomUUID().toString(), ttl.plus(skew));
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Target key
+     * @param ttl Lease period
+     * @param skew Allowed clock skew between nodes
+     * @param clock Clock
+     * @param owner Lease owner identifier
+     * @param patience Max time to wait for alive lease of another owner
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public LeaseLock(final Storage storage, final Key target, final Duration ttl,
+        final Duration skew, final Clock clock, final String owner, final Duration patience) {
+        this(storage, target, ttl, skew, clock, owner, patience, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param target Target key
+     * @param ttl Lease period
+     * @param skew Allowed clock skew between nodes
+     * @param clock Clock
+     * @param owner Lease owner identifier
+     * @param patience Max time to wait for alive lease of another owner
+     * @param metrics Metrics, lease wait time is recorded to {@code maven.lock.wait} timer
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public LeaseLock(final Storage storage, final Key target, final Duration ttl,
+        final Duration skew, final Clock clock, final String owner, final Duration patience,
+        final Metrics metrics) {
+        this.storage = storage;
+        this.root = new Key.From(LeaseLock.ROOT, target);
+        this.ttl = ttl;
+        this.skew = skew;
+        this.clock = clock;
+        this.owner = owner;
+        this.patience = patience;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Acquires the lease, retrying with growing random pauses while it's held by another
+     * owner, fails if it's still held after the patience time.
+     * @return Acquired lease
+     */
+    public CompletionStage<Lease> acquire() {
+        final long start = System.nanoTime();
+        return this.attempt(0, start + this.patience.toNanos()).whenComplete(
+            (lease, err) -> {
+                final String result;
+                if (err == null) {
+                    result = "acquired";
+                } else {
+                    result = "failed";
+                }
+                this.metrics.time(
+                    "maven.lock.wait", Duration.ofNanos(System.nanoTime() - start),
+                    "result", result
+                );
+            }
+        );
+    }
+
+    /**
+     * Performs action under the lease and releases it afterwards.
+     * @param action Action to perform
+     * @param <T> Action result type
+     * @return Action result
+     */
+    public <T> CompletionStage<T> perform(final Function<Lease, CompletionStage<T>> action) {
+        return this.acquire().thenCompose(
+            lease -> action.apply(lease).handle(
+                (value, throwable) -> lease.release().handle(
+                    (released, ignored) -> {
+                        final CompletableFuture<T> future = new CompletableFuture<>();
+                        if (throwable == null) {
+                            future.complete(value);
+                        } else {
+                            future.completeExceptionally(throwable);
+                        }
+                        return future;
+                    }
+                ).thenCompose(Function.identity())
+            ).thenCompose(Function.identity())
+        );
+    }
+
+    /**
+     * Single acquire attempt.
+     * @param num Attempt number, starting from zero
+     * @param deadline Time to stop waiting for alive leases, see {@link System#nanoTime()}
+     * @return Acquired lease
+     */
+    private CompletionStage<Lease> attempt(final int num, final long deadline) {
+        final Key own = new Key.From(this.root, this.owner);
+        return this.storage.save(own, LeaseLock.expiration(this.clock.instant().plus(this.ttl)))
+            .thenCompose(nothing -> this.storage.list(this.root))
+            .thenCompose(this::alive)
+            .thenCompose(
+                others -> {
+                    final CompletionStage<Lease> res;
+                    if (others.isEmpty()) {
+                        res = this.nextFence().thenApply(fence -> new Held(own, fence));
+                    } else if (System.nanoTime() < deadline) {
+                        res = this.storage.delete(own).thenCompose(
+                            nothing -> CompletableFuture.runAsync(
+                                () -> { },
+                                CompletableFuture.delayedExecutor(
+                                    LeaseLock.pause(num, deadline), TimeUnit.NANOSECONDS
+                                )
+                            )
+                        ).thenCompose(nothing -> this.attempt(num + 1, deadline));
+                    } else {
+                        res = this.storage.delete(own).thenCompose(
+                            nothing -> new FailedCompletionStage<>(
+                                new IllegalStateException(
+                                    String.format(
+                                        "Failed to acquire lease on `%s`, it is held by %s",
+                                        this.root.string(), others
+                                    )
+                                )
+                            )
+                        );
+                    }
+                    return res;
+                }
+            );
+    }
+
+    /**
+     * Finds alive leases of other owners, removes expired ones.
+     * @param proposals Lease proposals
+     * @return Owners of alive leases
+     */
+    private CompletionStage<Collection<String>> alive(final Collection<Key> proposals) {
+        final Instant now = this.clock.instant();
+        final List<CompletableFuture<Optional<String>>> owners = proposals.stream()
+            .filter(key -> key.parent().map(this.root::equals).orElse(false))
+            .map(key -> new KeyLastPart(key).get())
+            .filter(name -> !name.equals(this.owner) && !name.equals(LeaseLock.FENCE))
+            .map(
+                name -> this.expiration(new Key.From(this.root, name)).thenCompose(
+                    expiration -> {
+                        final CompletionStage<Optional<String>> res;
+                        if (expiration.isPresent()
+                            && now.isBefore(expiration.get().plus(this.skew))) {
+                            res = CompletableFuture.completedFuture(Optional.of(name));
+                        } else if (expiration.isPresent()) {
+                            res = this.storage.delete(new Key.From(this.root, name))
+                                .handle((nothing, ignored) -> Optional.<String>empty());
+                        } else {
+                            res = CompletableFuture.completedFuture(Optional.empty());
+                        }
+                        return res;
+                    }
+                ).toCompletableFuture()
+            ).collect(Collectors.toList());
+        return CompletableFuture.allOf(owners.toArray(new CompletableFuture<?>[0])).thenApply(
+            nothing -> owners.stream().map(CompletableFuture::join)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Reads lease expiration time. Proposal can be released between listing and reading,
+     * so proposal which is not found is treated as missing.
+     * @param key Lease proposal key
+     * @return Expiration time if proposal exists
+     */
+    private CompletionStage<Optional<Instant>> expiration(final Key key) {
+        return this.storage.value(key)
+            .thenCompose(content -> new PublisherAs(content).asciiString())
+            .thenApply(str -> Optional.of(Instant.parse(str.trim())))
+            .handle(
+                (expiration, err) -> {
+                    final CompletionStage<Optional<Instant>> res;
+                    if (err == null) {
+                        res = CompletableFuture.completedFuture(expiration);
+                    } else if (LeaseLock.missing(err)) {
+                        res = CompletableFuture.completedFuture(Optional.empty());
+                    } else {
+                        res = new FailedCompletionStage<>(err);
+                    }
+                    return res;
+                }
+            ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Increments and saves fencing token.
+     * @return Next fencing token
+     */
+    private CompletionStage<Long> nextFence() {
+        final Key key = new Key.From(this.root, LeaseLock.FENCE);
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Long> res;
+                if (exists) {
+                    res = this.storage.value(key)
+                        .thenCompose(content -> new PublisherAs(content).asciiString())
+                        .thenApply(str -> Long.parseLong(str.trim()));
+                } else {
+                    res = CompletableFuture.completedFuture(0L);
+                }
+                return res;
+            }
+        ).thenCompose(
+            last -> this.storage.save(
+                key,
+                new Content.From(
+                    String.valueOf(last + 1).getBytes(StandardCharsets.US_ASCII)
+                )
+            ).thenApply(nothing -> last + 1)
+        );
+    }
+
+    /**
+     * Random pause before next acquire attempt: it grows exponentially with attempt number
+     * up to {@link #MAX_PAUSE} and doesn't exceed the deadline.
+     * @param num Attempt number
+     * @param deadline Time to stop waiting, see {@link System#nanoTime()}
+     * @return Pause in nanoseconds
+     */
+    private static long pause(final int num, final long deadline) {
+        // @checkstyle MagicNumberCheck (1 line)
+        final long max = Math.min(LeaseLock.MAX_PAUSE, LeaseLock.MIN_PAUSE << Math.min(num, 16));
+        final long pause = TimeUnit.MILLISECONDS.toNanos(
+            max / 2 + ThreadLocalRandom.current().nextLong(max / 2 + 1)
+        );
+        return Math.max(0L, Math.min(pause, deadline - System.nanoTime()));
+    }
+
+    /**
+     * Is the error caused by missing value.
+     * @param err Error
+     * @return True if the error or any of its causes is {@link ValueNotFoundException}
+     */
+    private static boolean missing(final Throwable err) {
+        Throwable cause = err;
+        while (cause != null && !(cause instanceof ValueNotFoundException)) {
+            cause = cause.getCause();
+        }
+        return cause != null;
+    }
+
+    /**
+     * Lease proposal content.
+     * @param instant Expiration time
+     * @return Content
+     */
+    private static Content expiration(final Instant instant) {
+        return new Content.From(instant.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Acquired lease.
+     * @since 0.12
+     */
+    private final class Held implements Lease {
+
+        /**
+         * Lease proposal key.
+         */
+        private final Key key;
+
+        /**
+         * Fencing token.
+         */
+        private final long token;
+
+        /**
+         * Ctor.
+         * @param key Lease proposal key
+         * @param token Fencing token
+         */
+        Held(final Key key, final long token) {
+            this.key = key;
+            this.token = token;
+        }
+
+        @Override
+        public long fence() {
+            return this.token;
+        }
+
+        @Override
+        public CompletionStage<Void> renew() {
+            final Instant now = LeaseLock.this.clock.instant();
+            return LeaseLock.this.expiration(this.key).thenCompose(
+                expiration -> {
+                    final CompletionStage<Void> res;
+                    if (expiration.isPresent() && now.isBefore(expiration.get())) {
+                        res = LeaseLock.this.storage.save(
+                            this.key, LeaseLock.expiration(now.plus(LeaseLock.this.ttl))
+                        );
+                    } else {
+                        res = new FailedCompletionStage<>(
+                            new IllegalStateException(
+                                String.format(
+                                    "Lease `%s` with fence %d has expired or was taken over",
+                                    this.key.string(), this.token
+                                )
+                            )
+                        );
+                    }
+                    return res;
+                }
+            );
+        }
+
+        @Override
+        public CompletionStage<Void> release() {
+            return LeaseLock.this.storage.exists(this.key).thenCompose(
+                exists -> {
+                    final CompletionStage<Void> res;
+                    if (exists) {
+                        res = LeaseLock.this.storage.delete(this.key);
+                    } else {
+                        res = CompletableFuture.allOf();
+                    }
+                    return res;
+                }
+            );
+        }
+    }
+}
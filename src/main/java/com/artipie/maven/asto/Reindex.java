@@ -0,0 +1,385 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.maven.metadata.MavenMetadata;
+import com.artipie.maven.metadata.SnapshotMetadata;
+import com.jcabi.log.Logger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.xembly.Directives;
+
+/**
+ * Repository metadata reindex: regenerates package-level and snapshot version-level
+ * maven-metadata.xml with checksums from the artifacts found in the storage, e.g. after
+ * metadata corruption or repository import.
+ * <p>
+ * Storage is listed once, artifacts (directories with versions containing {@code .pom}
+ * files) are processed in sorted order in windows of {@code parallelism} artifacts updated
+ * concurrently, every artifact is updated under its package lease. After each window the last
+ * artifact key is saved to the {@link #CHECKPOINT}, next run continues after the
+ * checkpoint. Checkpoint never passes failed artifact: it stops at the last artifact before
+ * the first failure and is kept after the run, so next run retries failed artifacts.
+ * Checkpoint is removed when reindex is finished without failures.
+ * </p>
+ * @since 0.12
+ */
+public final class Reindex {
+
+    /**
+     * Checkpoint key.
+     */
+    public static final Key CHECKPOINT = new Key.From(".artipie-reindex", "checkpoint");
+
+    /**
+     * Repository storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Package metadata update leases.
+     */
+    private final Function<Key, LeaseLock> leases;
+
+    /**
+     * Number of artifacts reindexed concurrently.
+     */
+    private final int parallelism;
+
+    /**
+     * Reindex progress.
+     */
+    private final Progress progress;
+
+    /**
+     * Ctor.
+     * @param storage Repository storage
+     */
+    public Reindex(final Storage storage) {
+        this(storage, key -> new LeaseLock(storage, key), 16, new Progress());
+    }
+
+    /**
+     * Ctor.
+     * @param storage Repository storage
+     * @param leases Package metadata update leases by package key
+     * @param parallelism Number of artifacts reindexed concurrently
+     * @param progress Reindex progress
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Reindex(final Storage storage, final Function<Key, LeaseLock> leases,
+        final int parallelism, final Progress progress) {
+        this.storage = storage;
+        this.leases = leases;
+        this.parallelism = parallelism;
+        this.progress = progress;
+    }
+
+    /**
+     * Reindex the repository starting after the checkpoint if it exists.
+     * @return Reindex progress on completion
+     */
+    public CompletionStage<Progress> run() {
+        final AtomicBoolean failed = new AtomicBoolean();
+        return this.checkpoint().thenCompose(
+            from -> this.storage.list(Key.ROOT).thenApply(
+                keys -> Reindex.artifacts(keys).tailMap(from, false)
+            )
+        ).thenCompose(
+            artifacts -> {
+                this.progress.total.addAndGet(artifacts.size());
+                final List<Map.Entry<String, Set<String>>> entries =
+                    new ArrayList<>(artifacts.entrySet());
+                CompletableFuture<Void> res = CompletableFuture.allOf();
+                for (int start = 0; start < entries.size(); start += this.parallelism) {
+                    final List<Map.Entry<String, Set<String>>> window = entries.subList(
+                        start, Math.min(start + this.parallelism, entries.size())
+                    );
+                    res = res.thenCompose(
+                        nothing -> {
+                            final List<CompletableFuture<Boolean>> results = window.stream().map(
+                                entry -> this.artifact(
+                                    new Key.From(entry.getKey()), entry.getValue()
+                                ).toCompletableFuture()
+                            ).collect(Collectors.toList());
+                            return CompletableFuture.allOf(
+                                results.toArray(CompletableFuture[]::new)
+                            ).thenApply(
+                                all -> Reindex.reached(
+                                    window, results.stream().map(CompletableFuture::join)
+                                        .collect(Collectors.toList()),
+                                    failed
+                                )
+                            );
+                        }
+                    ).thenCompose(
+                        reached -> reached.map(
+                            key -> this.storage.save(
+                                Reindex.CHECKPOINT,
+                                new Content.From(key.getBytes(StandardCharsets.UTF_8))
+                            )
+                        ).orElseGet(() -> CompletableFuture.allOf())
+                    ).thenRun(() -> Logger.info(this, "Reindex: %s", this.progress));
+                }
+                return res;
+            }
+        ).thenCompose(
+            nothing -> {
+                final CompletionStage<Void> res;
+                if (failed.get()) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.storage.delete(Reindex.CHECKPOINT);
+                }
+                return res;
+            }
+        ).thenApply(nothing -> this.progress);
+    }
+
+    /**
+     * Reindex single artifact under its lease, failure is recorded to the progress.
+     * @param artifact Artifact key
+     * @param versions Artifact versions
+     * @return Completion action with true if artifact was reindexed
+     */
+    private CompletionStage<Boolean> artifact(final Key artifact, final Set<String> versions) {
+        final String name = new KeyLastPart(artifact).get();
+        final String group = artifact.parent().map(Key::string).orElse("").replace('/', '.');
+        return this.leases.apply(artifact).perform(
+            lease -> new MavenMetadata(
+                new Directives().add("metadata")
+                    .add("groupId").set(group).up()
+                    .add("artifactId").set(name).up()
+            ).versions(versions).fenced(lease.fence()).save(this.storage, artifact)
+                .thenCompose(meta -> new RepositoryChecksums(this.storage).generate(meta))
+                .thenCompose(
+                    nothing -> CompletableFuture.allOf(
+                        versions.stream().filter(version -> version.endsWith("SNAPSHOT"))
+                            .map(version -> this.snapshot(group, artifact, version))
+                            .toArray(CompletableFuture[]::new)
+                    )
+                )
+        ).handle(
+            (nothing, err) -> {
+                final boolean res;
+                if (err == null) {
+                    this.progress.done.incrementAndGet();
+                    res = true;
+                } else {
+                    this.progress.failed.add(artifact.string());
+                    Logger.warn(
+                        this, "Failed to reindex %s: %[exception]s", artifact.string(), err
+                    );
+                    res = false;
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Regenerate snapshot version-level metadata from version files.
+     * @param group Group id
+     * @param artifact Artifact key
+     * @param version Snapshot version
+     * @return Completion action
+     */
+    private CompletableFuture<Void> snapshot(final String group, final Key artifact,
+        final String version) {
+        final Key location = new Key.From(artifact, version);
+        return this.storage.list(location).thenApply(
+            keys -> keys.stream().map(key -> new KeyLastPart(key).get())
+                .collect(Collectors.toList())
+        ).thenCompose(
+            files -> new SnapshotMetadata(group, new KeyLastPart(artifact).get(), version)
+                .builds(files).save(this.storage, location)
+        ).thenCompose(meta -> new RepositoryChecksums(this.storage).generate(meta));
+    }
+
+    /**
+     * Read checkpoint.
+     * @return Last reindexed artifact key or empty string
+     */
+    private CompletionStage<String> checkpoint() {
+        return this.storage.exists(Reindex.CHECKPOINT).thenCompose(
+            exists -> {
+                final CompletionStage<String> res;
+                if (exists) {
+                    res = this.storage.value(Reindex.CHECKPOINT)
+                        .thenCompose(pub -> new PublisherAs(pub).string(StandardCharsets.UTF_8));
+                } else {
+                    res = CompletableFuture.completedFuture("");
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Checkpoint reached after the window: the last artifact of the window before the first
+     * failed artifact of the run. Checkpoint is not advanced after the first failure, so
+     * failed artifacts are retried on the next run.
+     * @param window Artifacts of the window
+     * @param results Reindex results of window artifacts
+     * @param failed Some artifact of the run failed
+     * @return Artifact key to save to the checkpoint, empty if checkpoint is not advanced
+     */
+    private static Optional<String> reached(final List<Map.Entry<String, Set<String>>> window,
+        final List<Boolean> results, final AtomicBoolean failed) {
+        Optional<String> res = Optional.empty();
+        for (int idx = 0; idx < window.size() && !failed.get(); ++idx) {
+            if (results.get(idx)) {
+                res = Optional.of(window.get(idx).getKey());
+            } else {
+                failed.set(true);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Find artifacts in the storage: artifact key is a grand parent of {@code .pom} file.
+     * Hidden keys (upload, leases, checkpoint) are skipped.
+     * @param keys Storage keys
+     * @return Versions by artifacts keys sorted by keys
+     */
+    private static TreeMap<String, Set<String>> artifacts(final Collection<Key> keys) {
+        final TreeMap<String, Set<String>> res = new TreeMap<>();
+        keys.stream()
+            .filter(key -> !key.string().startsWith("."))
+            .filter(key -> key.string().endsWith(".pom"))
+            .map(key -> key.parent().get())
+            .filter(version -> version.parent().isPresent())
+            .forEach(
+                version -> res.computeIfAbsent(
+                    version.parent().get().string(), artifact -> new TreeSet<>()
+                ).add(new KeyLastPart(version).get())
+            );
+        return res;
+    }
+
+    /**
+     * Reindex progress, can be read while reindex is running.
+     * @since 0.12
+     */
+    public static final class Progress {
+
+        /**
+         * Start time.
+         */
+        private final Instant start;
+
+        /**
+         * Number of artifacts to reindex in this run.
+         */
+        private final AtomicLong total;
+
+        /**
+         * Number of reindexed artifacts.
+         */
+        private final AtomicLong done;
+
+        /**
+         * Keys of failed artifacts.
+         */
+        private final Collection<String> failed;
+
+        /**
+         * Ctor.
+         */
+        public Progress() {
+            this.start = Instant.now();
+            this.total = new AtomicLong();
+            this.done = new AtomicLong();
+            this.failed = Collections.synchronizedList(new ArrayList<>(0));
+        }
+
+        /**
+         * Number of artifacts to reindex in this run.
+         * @return Artifacts count
+         */
+        public long total() {
+            return this.total.get();
+        }
+
+        /**
+         * Number of reindexed artifacts.
+         * @return Artifacts count
+         */
+        public long done() {
+            return this.done.get();
+        }
+
+        /**
+         * Failed artifacts.
+         * @return Keys of failed artifacts
+         */
+        public Collection<String> failed() {
+            synchronized (this.failed) {
+                return new ArrayList<>(this.failed);
+            }
+        }
+
+        /**
+         * Reindex throughput.
+         * @return Reindexed artifacts per second
+         */
+        public double throughput() {
+            final long millis = Math.max(
+                Duration.between(this.start, Instant.now()).toMillis(), 1
+            );
+            // @checkstyle MagicNumberCheck (1 line)
+            return this.done.get() * 1000.0 / millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%d/%d artifacts reindexed, %d failed, %.2f artifacts/s",
+                this.done(), this.total(), this.failed.size(), this.throughput()
+            );
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.maven.metadata.SnapshotMetadata;
+import com.jcabi.log.Logger;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Snapshot builds cleanup: prunes builds of snapshot versions according to
+ * {@link SnapshotRetention}. Version-level metadata is rewritten without pruned builds
+ * before pruned files are removed, so metadata never refers to missing files. The most
+ * recent build of the version is never pruned.
+ * <p>
+ * Cleanup is performed by {@link AstoMaven} on every snapshot upload under the package lease
+ * without listing the version: only builds listed in version metadata and the uploaded build
+ * are considered. {@link #sweep(Key)} lists and cleans up all snapshot versions of
+ * the repository in background taking the lease of each package and pausing between versions
+ * to limit storage load.
+ * </p>
+ * @since 0.12
+ */
+public final class SnapshotCleanup {
+
+    /**
+     * Snapshot build timestamp format.
+     */
+    private static final DateTimeFormatter FORMAT =
+        DateTimeFormatter.ofPattern("yyyyMMdd.HHmmss").withZone(ZoneOffset.UTC);
+
+    /**
+     * Maven metadata xml name.
+     */
+    private static final String MAVEN_META = "maven-metadata.xml";
+
+    /**
+     * Checksum and signature files pattern.
+     */
+    private static final Pattern SIDECAR =
+        Pattern.compile(".*\\.(sha1|sha256|sha512|md5|asc)$");
+
+    /**
+     * Suffixes of the file itself, its checksums and signature.
+     */
+    private static final List<String> SIDECARS =
+        List.of("", ".md5", ".sha1", ".sha256", ".sha512", ".asc");
+
+    /**
+     * Repository storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Retention policy.
+     */
+    private final SnapshotRetention retention;
+
+    /**
+     * Package metadata update leases.
+     */
+    private final Function<Key, LeaseLock> leases;
+
+    /**
+     * Pause between versions on sweep.
+     */
+    private final Duration pause;
+
+    /**
+     * Ctor.
+     * @param storage Repository storage
+     * @param retention Retention policy
+     */
+    public SnapshotCleanup(final Storage storage, final SnapshotRetention retention) {
+        this(storage, retention, key -> new LeaseLock(storage, key), Duration.ofSeconds(1));
+    }
+
+    /**
+     * Ctor.
+     * @param storage Repository storage
+     * @param retention Retention policy
+     * @param leases Package metadata update leases by package key
+     * @param pause Pause between versions on sweep
+     */
+    public SnapshotCleanup(final Storage storage, final SnapshotRetention retention,
+        final Function<Key, LeaseLock> leases, final Duration pause) {
+        this.storage = storage;
+        this.retention = retention;
+        this.leases = leases;
+        this.pause = pause;
+    }
+
+    /**
+     * Prunes builds of the snapshot version, should be called under the package lease.
+     * Version directory is listed to find all builds.
+     * @param version Snapshot version key, e.g. {@code com/example/logger/1.0-SNAPSHOT}
+     * @return Number of pruned builds
+     */
+    public CompletionStage<Integer> clean(final Key version) {
+        return this.storage.list(version).thenApply(
+            keys -> keys.stream()
+                .filter(key -> key.parent().map(version::equals).orElse(false))
+                .map(key -> new KeyLastPart(key).get())
+                .collect(Collectors.toList())
+        ).thenCompose(names -> this.prune(version, names));
+    }
+
+    /**
+     * Prunes builds of the snapshot version among given files, should be called under
+     * the package lease. Version directory is not listed: checksums and signatures of
+     * the files are removed with them if exist, builds which files are not given are left
+     * for {@link #sweep(Key)}.
+     * @param version Snapshot version key, e.g. {@code com/example/logger/1.0-SNAPSHOT}
+     * @param files Names of the files of known builds, e.g. files listed in version
+     *  metadata and uploaded files
+     * @return Number of pruned builds
+     */
+    public CompletionStage<Integer> clean(final Key version, final Collection<String> files) {
+        return this.prune(
+            version,
+            files.stream().flatMap(
+                name -> {
+                    final Stream<String> res;
+                    if (SnapshotCleanup.SIDECAR.matcher(name).matches()) {
+                        res = Stream.of(name);
+                    } else {
+                        res = SnapshotCleanup.SIDECARS.stream().map(name::concat);
+                    }
+                    return res;
+                }
+            ).distinct().collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Prunes builds of all snapshot versions under the given key. Every version is cleaned
+     * under the lease of its package, failed versions are skipped.
+     * @param root Key to sweep, e.g. {@link Key#ROOT}
+     * @return Number of pruned builds
+     */
+    public CompletionStage<Integer> sweep(final Key root) {
+        return this.storage.list(root).thenApply(
+            keys -> keys.stream()
+                .filter(key -> !key.string().startsWith("."))
+                .filter(key -> SnapshotCleanup.MAVEN_META.equals(new KeyLastPart(key).get()))
+                .map(key -> key.parent().get())
+                .filter(key -> new KeyLastPart(key).get().endsWith("SNAPSHOT"))
+                .collect(Collectors.toList())
+        ).thenCompose(
+            versions -> {
+                CompletableFuture<Integer> res = CompletableFuture.completedFuture(0);
+                for (final Key version : versions) {
+                    res = res.thenCompose(
+                        total -> CompletableFuture.runAsync(
+                            () -> { },
+                            CompletableFuture.delayedExecutor(
+                                this.pause.toMillis(), TimeUnit.MILLISECONDS
+                            )
+                        ).thenCompose(
+                            nothing -> this.leases.apply(version.parent().get())
+                                .perform(lease -> this.clean(version))
+                        ).handle(
+                            (pruned, err) -> {
+                                final int count;
+                                if (err == null) {
+                                    count = pruned;
+                                } else {
+                                    Logger.warn(
+                                        this, "Failed to clean up %s: %[exception]s",
+                                        version.string(), err
+                                    );
+                                    count = 0;
+                                }
+                                return total + count;
+                            }
+                        )
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Prunes builds of the snapshot version according to retention policy.
+     * @param version Snapshot version key
+     * @param names Names of the files in version directory, files which don't exist
+     *  are skipped
+     * @return Number of pruned builds
+     */
+    private CompletionStage<Integer> prune(final Key version, final Collection<String> names) {
+        final Pattern pattern = Pattern.compile(
+            String.format(
+                "^.+-(?<value>%s-(?<timestamp>\\d{8}\\.\\d{6})-(?<build>\\d+))(?:[-.].+)?$",
+                Pattern.quote(new KeyLastPart(version).get().replaceAll("-SNAPSHOT$", ""))
+            )
+        );
+        final Map<String, Instant> builds = new HashMap<>();
+        final Map<String, List<Key>> files = new HashMap<>();
+        for (final String name : names) {
+            final Matcher matcher = pattern.matcher(name);
+            if (matcher.matches()) {
+                builds.put(
+                    matcher.group("value"),
+                    SnapshotCleanup.FORMAT.parse(matcher.group("timestamp"), Instant::from)
+                );
+                files.computeIfAbsent(matcher.group("value"), val -> new ArrayList<>())
+                    .add(new Key.From(version, name));
+            }
+        }
+        final Set<String> pruned = new HashSet<>(this.retention.prune(builds));
+        builds.entrySet().stream().max(
+            Map.Entry.<String, Instant>comparingByValue().thenComparing(
+                entry -> Long.parseLong(
+                    entry.getKey().substring(entry.getKey().lastIndexOf('-') + 1)
+                )
+            )
+        ).map(Map.Entry::getKey).ifPresent(pruned::remove);
+        final CompletionStage<Integer> res;
+        if (pruned.isEmpty()) {
+            res = CompletableFuture.completedFuture(0);
+        } else {
+            res = this.metadata(version, pruned).thenCompose(
+                nothing -> CompletableFuture.allOf(
+                    pruned.stream().map(files::get).flatMap(Collection::stream)
+                        .map(this::remove)
+                        .toArray(CompletableFuture[]::new)
+                )
+            ).thenApply(nothing -> pruned.size());
+        }
+        return res;
+    }
+
+    /**
+     * Removes the file if it exists.
+     * @param key File key
+     * @return Completion action
+     */
+    private CompletableFuture<Void> remove(final Key key) {
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletableFuture<Void> res;
+                if (exists) {
+                    res = this.storage.delete(key);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Removes pruned builds from version-level metadata and updates checksums.
+     * @param version Snapshot version key
+     * @param pruned Values of pruned builds
+     * @return Completion action
+     */
+    private CompletionStage<Void> metadata(final Key version, final Set<String> pruned) {
+        final Key meta = new Key.From(version, SnapshotCleanup.MAVEN_META);
+        return this.storage.exists(meta).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = this.storage.value(meta)
+                        .thenCompose(pub -> new PublisherAs(pub).string(StandardCharsets.UTF_8))
+                        .thenCompose(
+                            xml -> new SnapshotMetadata(new XMLDocument(xml)).without(pruned)
+                                .save(this.storage, version)
+                        )
+                        .thenCompose(key -> new RepositoryChecksums(this.storage).generate(key));
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.asto;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Retention policy for snapshot builds.
+ * @since 0.12
+ */
+public interface SnapshotRetention {
+
+    /**
+     * Selects builds to prune.
+     * @param builds Snapshot builds of the version: build value (e.g.
+     *  {@code 1.0-20200520.124336-6}) and build time
+     * @return Values of builds to prune
+     */
+    Set<String> prune(Map<String, Instant> builds);
+
+    /**
+     * Keeps given number of the most recent builds.
+     * @since 0.12
+     */
+    final class LastBuilds implements SnapshotRetention {
+
+        /**
+         * Number of builds to keep.
+         */
+        private final int count;
+
+        /**
+         * Ctor.
+         * @param count Number of builds to keep
+         */
+        public LastBuilds(final int count) {
+            this.count = count;
+        }
+
+        @Override
+        public Set<String> prune(final Map<String, Instant> builds) {
+            return builds.entrySet().stream()
+                .sorted(
+                    Map.Entry.<String, Instant>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()))
+                )
+                .skip(this.count)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Keeps builds newer than given age.
+     * @since 0.12
+     */
+    final class NewerThan implements SnapshotRetention {
+
+        /**
+         * Max age of the build.
+         */
+        private final Duration age;
+
+        /**
+         * Clock.
+         */
+        private final Clock clock;
+
+        /**
+         * Ctor.
+         * @param age Max age of the build
+         */
+        public NewerThan(final Duration age) {
+            this(age, Clock.systemUTC());
+        }
+
+        /**
+         * Ctor.
+         * @param age Max age of the build
+         * @param clock Clock
+         */
+        public NewerThan(final Duration age, final Clock clock) {
+            this.age = age;
+            this.clock = clock;
+        }
+
+        @Override
+        public Set<String> prune(final Map<String, Instant> builds) {
+            final Instant limit = this.clock.instant().minus(this.age);
+            return builds.entrySet().stream()
+                .filter(entry -> entry.getValue().isBefore(limit))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Keeps a build if any of the policies keeps it, e.g. last 5 builds or builds
+     * newer than 30 days.
+     * @since 0.12
+     */
+    final class Either implements SnapshotRetention {
+
+        /**
+         * First policy.
+         */
+        private final SnapshotRetention first;
+
+        /**
+         * Second policy.
+         */
+        private final SnapshotRetention second;
+
+        /**
+         * Ctor.
+         * @param first First policy
+         * @param second Second policy
+         */
+        public Either(final SnapshotRetention first, final SnapshotRetention second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Set<String> prune(final Map<String, Instant> builds) {
+            final Set<String> other = this.second.prune(builds);
+            return this.first.prune(builds).stream()
+                .filter(other::contains)
+                .collect(Collectors.toSet());
+        }
+    }
+}
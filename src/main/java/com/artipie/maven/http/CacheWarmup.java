@@ -0,0 +1,336 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk cache warm-up of maven proxy: POMs and artifacts of listed coordinates are requested
+ * from the proxy slice with bounded concurrency, so they are loaded to the proxy cache and
+ * verified against remote checksums as for client requests. Failed items are retried with
+ * exponential backoff, progress is logged and available with {@link #loaded()} and
+ * {@link #failed()}.
+ * <p>
+ * Coordinates are lines in {@code groupId:artifactId[:packaging[:classifier]]:version}
+ * format, or lines of {@code mvn dependency:list} output, e.g.
+ * {@code [INFO]    com.example:lib:jar:1.0:compile}. Log level prefix is stripped, lines
+ * which don't start with coordinates, e.g. other lines of maven output, are skipped.
+ * </p>
+ * @since 0.12
+ */
+public final class CacheWarmup {
+
+    /**
+     * Log level prefix of maven output line, e.g. {@code [INFO]}.
+     */
+    private static final Pattern LEVEL = Pattern.compile("^\\s*\\[[A-Z]+]");
+
+    /**
+     * Coordinates {@code groupId:artifactId[:packaging[:classifier]]:version}.
+     */
+    private static final Pattern COORDS = Pattern.compile("^[\\w.-]+(?::[\\w.-]+){2,4}$");
+
+    /**
+     * Coordinates of dependency list {@code groupId:artifactId:type[:classifier]:version}
+     * followed by dependency scope.
+     */
+    private static final Pattern LISTED = Pattern.compile(
+        "^([\\w.-]+(?::[\\w.-]+){3,4}):(?:compile|provided|runtime|test|system|import)$"
+    );
+
+    /**
+     * Number of items to log progress after.
+     */
+    private static final int REPORT = 100;
+
+    /**
+     * Proxy slice.
+     */
+    private final Slice proxy;
+
+    /**
+     * Max number of concurrent requests.
+     */
+    private final int concurrency;
+
+    /**
+     * Number of retries of failed item.
+     */
+    private final int retries;
+
+    /**
+     * Delay before the first retry, it's doubled on every next retry.
+     */
+    private final Duration backoff;
+
+    /**
+     * Number of loaded items.
+     */
+    private final AtomicLong loaded;
+
+    /**
+     * Number of failed items.
+     */
+    private final AtomicLong failed;
+
+    /**
+     * Ctor with 8 concurrent requests and 3 retries.
+     * @param proxy Proxy slice
+     */
+    public CacheWarmup(final Slice proxy) {
+        this(proxy, 8, 3);
+    }
+
+    /**
+     * Ctor with 1 second delay before the first retry.
+     * @param proxy Proxy slice, e.g. {@link MavenProxySlice}
+     * @param concurrency Max number of concurrent requests
+     * @param retries Number of retries of failed item
+     */
+    public CacheWarmup(final Slice proxy, final int concurrency, final int retries) {
+        this(proxy, concurrency, retries, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Ctor.
+     * @param proxy Proxy slice, e.g. {@link MavenProxySlice}
+     * @param concurrency Max number of concurrent requests
+     * @param retries Number of retries of failed item
+     * @param backoff Delay before the first retry, it's doubled on every next retry
+     */
+    public CacheWarmup(final Slice proxy, final int concurrency, final int retries,
+        final Duration backoff) {
+        this.proxy = proxy;
+        this.concurrency = concurrency;
+        this.retries = retries;
+        this.backoff = backoff;
+        this.loaded = new AtomicLong();
+        this.failed = new AtomicLong();
+    }
+
+    /**
+     * Number of items loaded to the cache.
+     * @return Loaded items count
+     */
+    public long loaded() {
+        return this.loaded.get();
+    }
+
+    /**
+     * Number of items failed after all retries.
+     * @return Failed items count
+     */
+    public long failed() {
+        return this.failed.get();
+    }
+
+    /**
+     * Load POMs and artifacts of the coordinates to the cache.
+     * @param coordinates Coordinates lines
+     * @return Completion of warm-up, it completes normally when some items failed
+     */
+    public CompletionStage<Void> run(final Iterable<String> coordinates) {
+        final Set<String> paths = new LinkedHashSet<>();
+        for (final String line : coordinates) {
+            paths.addAll(CacheWarmup.paths(line));
+        }
+        Logger.info(this, "Warm-up of %d items started", paths.size());
+        return Flowable.fromIterable(paths).flatMapCompletable(
+            path -> this.retried(path).doOnComplete(
+                () -> this.progress(this.loaded.incrementAndGet(), paths.size())
+            ).onErrorComplete(
+                err -> {
+                    this.failed.incrementAndGet();
+                    Logger.warn(this, "Failed to warm up %s: %[exception]s", path, err);
+                    return true;
+                }
+            ),
+            false,
+            this.concurrency
+        ).doOnComplete(
+            () -> Logger.info(
+                this, "Warm-up finished: %d items loaded, %d failed",
+                this.loaded.get(), this.failed.get()
+            )
+        ).to(CompletableInterop.await());
+    }
+
+    /**
+     * Load the item, retry failed load after backoff delay.
+     * @param path Item path
+     * @return Completion of the load, fails if the last retry failed
+     */
+    private Completable retried(final String path) {
+        return Completable.defer(
+            () -> {
+                final AtomicInteger attempt = new AtomicInteger();
+                return this.load(path).retryWhen(
+                    errors -> errors.flatMap(err -> this.delay(err, attempt.getAndIncrement()))
+                );
+            }
+        );
+    }
+
+    /**
+     * Delay before retry.
+     * @param err Load error
+     * @param attempt Number of the failed attempt, starting from zero
+     * @return Signal to retry after delay, or error if no retries left
+     */
+    private Flowable<Long> delay(final Throwable err, final int attempt) {
+        final Flowable<Long> res;
+        if (attempt < this.retries) {
+            res = Flowable.timer(
+                // @checkstyle MagicNumberCheck (1 line)
+                this.backoff.toMillis() << Math.min(attempt, 10), TimeUnit.MILLISECONDS
+            );
+        } else {
+            res = Flowable.error(err);
+        }
+        return res;
+    }
+
+    /**
+     * Request the item from the proxy and read the response body.
+     * @param path Item path
+     * @return Completion of the load, fails if item was not found or not verified
+     */
+    private Completable load(final String path) {
+        return Completable.defer(
+            () -> CompletableInterop.fromFuture(
+                this.proxy.response(
+                    new RequestLine(RqMethod.GET, path).toString(), Headers.EMPTY, Content.EMPTY
+                ).send(
+                    (status, headers, body) -> {
+                        final Completable res;
+                        if (status.success()) {
+                            res = Flowable.fromPublisher(body).ignoreElements();
+                        } else {
+                            res = Completable.error(
+                                new IllegalStateException(
+                                    String.format("Unexpected status %s", status)
+                                )
+                            );
+                        }
+                        return res.to(CompletableInterop.await());
+                    }
+                )
+            )
+        );
+    }
+
+    /**
+     * Log progress.
+     * @param done Number of loaded items
+     * @param total Total number of items
+     */
+    private void progress(final long done, final int total) {
+        if (done % CacheWarmup.REPORT == 0) {
+            Logger.info(
+                this, "Warm-up progress: %d of %d items loaded, %d failed",
+                done, total, this.failed.get()
+            );
+        }
+    }
+
+    /**
+     * Paths of POM and artifact of coordinates line.
+     * @param line Coordinates line
+     * @return Item paths, empty for ignored line
+     */
+    private static Collection<String> paths(final String line) {
+        final Set<String> res = new LinkedHashSet<>();
+        final String trimmed = CacheWarmup.LEVEL.matcher(line).replaceFirst("").trim();
+        final String token = trimmed.split("\\s+")[0];
+        final Matcher listed = CacheWarmup.LISTED.matcher(token);
+        String coords = "";
+        if (listed.matches()) {
+            coords = listed.group(1);
+        } else if (CacheWarmup.COORDS.matcher(token).matches()) {
+            coords = token;
+        }
+        if (!coords.isEmpty()) {
+            final String[] parts = coords.split(":");
+            final String version = parts[parts.length - 1];
+            final String base = String.format(
+                "/%s/%s/%s/%s-%s",
+                parts[0].replace('.', '/'), parts[1], version, parts[1], version
+            );
+            res.add(String.format("%s.pom", base));
+            String packaging = "jar";
+            if (parts.length > 3) {
+                packaging = parts[2].toLowerCase(Locale.US);
+            }
+            String classifier = "";
+            // @checkstyle MagicNumberCheck (1 line)
+            if (parts.length == 5) {
+                classifier = String.format("-%s", parts[3]);
+            } else if ("test-jar".equals(packaging)) {
+                classifier = "-tests";
+            }
+            if (!"pom".equals(packaging)) {
+                res.add(
+                    String.format("%s%s.%s", base, classifier, CacheWarmup.extension(packaging))
+                );
+            }
+        } else if (!trimmed.isEmpty() && trimmed.charAt(0) != '#') {
+            Logger.debug(CacheWarmup.class, "Skipped line which is not coordinates: %s", line);
+        }
+        return res;
+    }
+
+    /**
+     * Artifact file extension by packaging or dependency type.
+     * @param packaging Packaging
+     * @return File extension
+     */
+    private static String extension(final String packaging) {
+        final String res;
+        if (Set.of("bundle", "maven-plugin", "ejb", "test-jar").contains(packaging)) {
+            res = "jar";
+        } else {
+            res = packaging;
+        }
+        return res;
+    }
+}
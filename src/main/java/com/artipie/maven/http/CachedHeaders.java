@@ -0,0 +1,225 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.cache.Cache;
+import com.artipie.asto.cache.CacheControl;
+import com.artipie.asto.cache.Remote;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.http.Headers;
+import com.artipie.http.headers.Header;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Upstream response headers stored in the cache alongside proxied item: checksums,
+ * {@code ETag}, {@code Last-Modified} and {@code Content-Type}, and the time when the item
+ * was saved or revalidated. Stored under {@code .artipie-headers/<item key>} as saved time
+ * line followed by {@code Name: value} lines.
+ * @since 0.12
+ */
+final class CachedHeaders {
+
+    /**
+     * Root key of stored headers.
+     */
+    private static final Key ROOT = new Key.From(".artipie-headers");
+
+    /**
+     * Names of stored headers.
+     */
+    private static final Pattern STORED = Pattern.compile(
+        "x-checksum-(?:sha1|sha256|sha512|md5)|etag|last-modified|content-type",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    /**
+     * Cache.
+     */
+    private final Cache cache;
+
+    /**
+     * Ctor.
+     * @param cache Cache
+     */
+    CachedHeaders(final Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Store headers of the item with current time.
+     * @param key Item key
+     * @param headers Upstream response headers
+     * @return Stored headers
+     */
+    CompletionStage<Headers> save(final Key key,
+        final Iterable<Map.Entry<String, String>> headers) {
+        final List<Map.Entry<String, String>> stored = CachedHeaders.stored(headers);
+        final byte[] data = String.join(
+            "",
+            Instant.now().toString(), "\n",
+            stored.stream()
+                .map(header -> String.format("%s: %s\n", header.getKey(), header.getValue()))
+                .collect(Collectors.joining())
+        ).getBytes(StandardCharsets.UTF_8);
+        return this.cache.load(
+            CachedHeaders.location(key),
+            () -> CompletableFuture.completedFuture(Optional.of(new Content.From(data))),
+            CacheControl.Standard.NO_CACHE
+        ).thenCompose(
+            content -> content.<CompletionStage<Void>>map(
+                item -> new PublisherAs(item).bytes().thenApply(bytes -> null)
+            ).orElseGet(() -> CompletableFuture.allOf())
+        ).thenApply(nothing -> new Headers.From(stored));
+    }
+
+    /**
+     * Update saved time of the item keeping stored headers.
+     * @param key Item key
+     * @return Completion action
+     */
+    CompletionStage<Void> touch(final Key key) {
+        return this.load(key).thenCompose(
+            item -> this.save(key, item.map(Item::headers).orElse(Headers.EMPTY))
+        ).thenApply(headers -> null);
+    }
+
+    /**
+     * Load stored headers of the item.
+     * @param key Item key
+     * @return Stored item headers if exist
+     */
+    CompletionStage<Optional<Item>> load(final Key key) {
+        return this.cache.load(
+            CachedHeaders.location(key), Remote.EMPTY, CacheControl.Standard.ALWAYS
+        ).thenCompose(
+            content -> content.<CompletionStage<Optional<Item>>>map(
+                item -> new PublisherAs(item).string(StandardCharsets.UTF_8).thenApply(
+                    str -> Optional.of(CachedHeaders.parse(str))
+                )
+            ).orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()))
+        );
+    }
+
+    /**
+     * Location of stored headers of the item.
+     * @param key Item key
+     * @return Stored headers key
+     */
+    static Key location(final Key key) {
+        return new Key.From(CachedHeaders.ROOT, key);
+    }
+
+    /**
+     * Upstream response headers which are stored with the item.
+     * @param headers Upstream response headers
+     * @return Headers to store
+     */
+    static List<Map.Entry<String, String>> stored(
+        final Iterable<Map.Entry<String, String>> headers
+    ) {
+        return StreamSupport.stream(headers.spliterator(), false)
+            .filter(header -> CachedHeaders.STORED.matcher(header.getKey()).matches())
+            .map(header -> new Header(header.getKey(), header.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Parse stored headers.
+     * @param str Stored headers
+     * @return Item headers
+     */
+    private static Item parse(final String str) {
+        final String[] lines = str.split("\n");
+        Instant saved;
+        try {
+            saved = Instant.parse(lines[0].trim());
+        } catch (final DateTimeParseException err) {
+            saved = Instant.EPOCH;
+        }
+        final List<Map.Entry<String, String>> headers = new ArrayList<>(lines.length);
+        for (final String line : lines) {
+            final int sep = line.indexOf(": ");
+            if (sep > 0) {
+                headers.add(new Header(line.substring(0, sep), line.substring(sep + 2)));
+            }
+        }
+        return new Item(new Headers.From(headers), saved);
+    }
+
+    /**
+     * Stored headers of the item.
+     * @since 0.12
+     */
+    static final class Item {
+
+        /**
+         * Headers.
+         */
+        private final Headers hdrs;
+
+        /**
+         * Saved time.
+         */
+        private final Instant time;
+
+        /**
+         * Ctor.
+         * @param headers Headers
+         * @param saved Saved time
+         */
+        Item(final Headers headers, final Instant saved) {
+            this.hdrs = headers;
+            this.time = saved;
+        }
+
+        /**
+         * Stored upstream headers.
+         * @return Headers
+         */
+        Headers headers() {
+            return this.hdrs;
+        }
+
+        /**
+         * Time when the item was saved or revalidated.
+         * @return Saved time
+         */
+        Instant saved() {
+            return this.time;
+        }
+    }
+}
@@ -30,22 +30,40 @@ import com.artipie.asto.cache.CacheControl;
 import com.artipie.asto.cache.DigestVerification;
 import com.artipie.asto.cache.Remote;
 import com.artipie.asto.ext.Digests;
+import com.artipie.asto.ext.PublisherAs;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.headers.Header;
+import com.artipie.http.rq.RequestLine;
 import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.rs.StandardRs;
 import com.artipie.http.slice.KeyFromPath;
+import com.artipie.maven.metrics.Metrics;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
 import io.reactivex.Flowable;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -55,6 +73,21 @@ import org.reactivestreams.Publisher;
 
 /**
  * Maven proxy slice with cache support.
+ * <p>
+ * Cached immutable release artifacts are served without remote requests. Mutable items
+ * (maven-metadata and snapshots) are fresh for the configured time to live, expired items
+ * are revalidated before they are served: with conditional request using stored {@code ETag}
+ * and {@code Last-Modified}, or with checksums from remote {@code HEAD} response and requested
+ * again if checksums don't match. With stale-while-revalidate enabled expired items are served
+ * from cache at once while single background refresh runs.
+ * On cache miss the item is requested with {@code GET} and streamed to the client and to the
+ * cache together, it's verified against checksum headers of the response while streamed.
+ * Checksums, {@code ETag}, {@code Last-Modified} and {@code Content-Type} headers of upstream
+ * response are stored with {@link CachedHeaders} and returned with cached item. POMs loaded
+ * from remote can trigger background prefetch of project jar and dependencies,
+ * see {@link Prefetch}. Cached items are served when upstream is down, see {@link Outage}.
+ * Internal data stored in the cache, see {@link InternalKey}, is not served.
+ * </p>
  * @since 0.5
  * @todo #146:30min Create integration test for cached proxy:
  *  the test starts new server instance and serves HEAD requests for artifact with checksum
@@ -62,12 +95,10 @@ import org.reactivestreams.Publisher;
  *  with injected `Cache` and client `Slice` instances and verifies that target slice
  *  doesn't invalidate the cache if checksums headers matches and invalidates cache if
  *  checksums doesn't match.
- * @todo #219:30min Change realization of response method.
- *  Now response method reading the content into memory for every request. This is bad
- *  especially if the file is large enough. This realization could be changed when the
- *  issue artipie/asto#286 will be resolved.
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
  */
+@SuppressWarnings("PMD.TooManyMethods")
 final class CachedProxySlice implements Slice {
 
     /**
@@ -86,6 +117,17 @@ final class CachedProxySlice implements Slice {
         "md5", "MD5"
     );
 
+    /**
+     * Digest algorithms of remote checksum files, in order of preference.
+     */
+    private static final List<String> PUBLISHED = List.of("SHA-1", "SHA-256");
+
+    /**
+     * Checksum and signature files pattern.
+     */
+    private static final Pattern SIDECAR =
+        Pattern.compile(".*\\.(sha1|sha256|sha512|md5|asc)$");
+
     /**
      * Origin slice.
      */
@@ -96,74 +138,821 @@ final class CachedProxySlice implements Slice {
      */
     private final Cache cache;
 
+    /**
+     * Time to live of mutable items.
+     */
+    private final Duration ttl;
+
+    /**
+     * Serve expired mutable items from cache and refresh them in background.
+     */
+    private final boolean background;
+
+    /**
+     * Budget of detached cache fills.
+     */
+    private final DetachedFills fills;
+
+    /**
+     * Prefetch of items needed by loaded POMs.
+     */
+    private final Prefetch prefetch;
+
+    /**
+     * Upstream outage handling.
+     */
+    private final Outage outage;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Keys of items being refreshed.
+     */
+    private final Set<String> refreshing;
+
     /**
      * Wraps origin slice with caching layer.
      * @param client Client slice
      * @param cache Cache
      */
     CachedProxySlice(final Slice client, final Cache cache) {
+        this(client, cache, Duration.ZERO);
+    }
+
+    /**
+     * Wraps origin slice with caching layer.
+     * @param client Client slice
+     * @param cache Cache
+     * @param ttl Time to live of mutable items: maven-metadata and snapshots
+     */
+    CachedProxySlice(final Slice client, final Cache cache, final Duration ttl) {
+        this(client, cache, ttl, DetachedFills.NONE);
+    }
+
+    /**
+     * Wraps origin slice with caching layer.
+     * @param client Client slice
+     * @param cache Cache
+     * @param ttl Time to live of mutable items: maven-metadata and snapshots
+     * @param background Serve expired mutable items from cache and refresh them in
+     *  background
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    CachedProxySlice(final Slice client, final Cache cache, final Duration ttl,
+        final boolean background) {
+        this(
+            client, cache, ttl, background, DetachedFills.NONE, Prefetch.NONE, new Outage(),
+            Metrics.NOP
+        );
+    }
+
+    /**
+     * Wraps origin slice with caching layer.
+     * @param client Client slice
+     * @param cache Cache
+     * @param ttl Time to live of mutable items: maven-metadata and snapshots
+     * @param fills Budget of cache fills which continue after client disconnects
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    CachedProxySlice(final Slice client, final Cache cache, final Duration ttl,
+        final DetachedFills fills) {
+        this(client, cache, ttl, fills, Prefetch.NONE);
+    }
+
+    /**
+     * Wraps origin slice with caching layer.
+     * @param client Client slice
+     * @param cache Cache
+     * @param ttl Time to live of mutable items: maven-metadata and snapshots
+     * @param fills Budget of cache fills which continue after client disconnects
+     * @param prefetch Prefetch of items needed by loaded POMs
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    CachedProxySlice(final Slice client, final Cache cache, final Duration ttl,
+        final DetachedFills fills, final Prefetch prefetch) {
+        this(client, cache, ttl, fills, prefetch, new Outage());
+    }
+
+    /**
+     * Wraps origin slice with caching layer.
+     * @param client Client slice
+     * @param cache Cache
+     * @param ttl Time to live of mutable items: maven-metadata and snapshots
+     * @param fills Budget of cache fills which continue after client disconnects
+     * @param prefetch Prefetch of items needed by loaded POMs
+     * @param outage Upstream outage handling, counts expired items served while
+     *  upstream is down
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    CachedProxySlice(final Slice client, final Cache cache, final Duration ttl,
+        final DetachedFills fills, final Prefetch prefetch, final Outage outage) {
+        this(client, cache, ttl, fills, prefetch, outage, Metrics.NOP);
+    }
+
+    /**
+     * Wraps origin slice with caching layer.
+     * @param client Client slice
+     * @param cache Cache
+     * @param ttl Time to live of mutable items: maven-metadata and snapshots
+     * @param fills Budget of cache fills which continue after client disconnects
+     * @param prefetch Prefetch of items needed by loaded POMs
+     * @param outage Upstream outage handling, counts expired items served while
+     *  upstream is down
+     * @param metrics Metrics, cache lookups are counted by {@code maven.proxy.cache} counter
+     *  with {@code result} tag: {@code hit} or {@code miss}, and {@code layer} tag
+     *  {@code proxy}, see {@link QuotaCache} for {@code quota} layer, expired items served while
+     *  upstream is down are counted by {@code maven.proxy.outage} counter with {@code stale}
+     *  result
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    CachedProxySlice(final Slice client, final Cache cache, final Duration ttl,
+        final DetachedFills fills, final Prefetch prefetch, final Outage outage,
+        final Metrics metrics) {
+        this(client, cache, ttl, false, fills, prefetch, outage, metrics);
+    }
+
+    /**
+     * Wraps origin slice with caching layer.
+     * @param client Client slice
+     * @param cache Cache
+     * @param ttl Time to live of mutable items: maven-metadata and snapshots
+     * @param background Serve expired mutable items from cache and refresh them in
+     *  background, otherwise expired items are revalidated before they are served
+     * @param fills Budget of cache fills which continue after client disconnects
+     * @param prefetch Prefetch of items needed by loaded POMs
+     * @param outage Upstream outage handling, counts expired items served while
+     *  upstream is down
+     * @param metrics Metrics, see
+     *  {@link #CachedProxySlice(Slice, Cache, Duration, DetachedFills, Prefetch, Outage, Metrics)}
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    CachedProxySlice(final Slice client, final Cache cache, final Duration ttl,
+        final boolean background, final DetachedFills fills, final Prefetch prefetch,
+        final Outage outage, final Metrics metrics) {
         this.client = client;
         this.cache = cache;
+        this.ttl = ttl;
+        this.background = background;
+        this.fills = fills;
+        this.prefetch = prefetch;
+        this.outage = outage;
+        this.metrics = metrics;
+        this.refreshing = ConcurrentHashMap.newKeySet();
     }
 
     @Override
     public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body) {
-        final RequestLineFrom req = new RequestLineFrom(line);
-        final Key key = new KeyFromPath(req.uri().getPath());
-        return new AsyncResponse(
-            new RepoHead(this.client)
-                .head(req.uri().getPath()).thenCompose(
-                    head -> this.cache.load(
-                        key,
-                        new Remote.WithErrorHandling(
-                            () -> {
-                                final CompletableFuture<Optional<? extends Content>> promise =
-                                    new CompletableFuture<>();
-                                this.client.response(line, Headers.EMPTY, Content.EMPTY).send(
-                                    (rsstatus, rsheaders, rsbody) -> {
-                                        final CompletableFuture<Void> term =
-                                            new CompletableFuture<>();
-                                        if (rsstatus.success()) {
-                                            final Flowable<ByteBuffer> res =
-                                                Flowable.fromPublisher(rsbody)
-                                                .doOnError(term::completeExceptionally)
-                                                .doOnTerminate(() -> term.complete(null));
-                                            promise.complete(Optional.of(new Content.From(res)));
-                                        } else {
-                                            promise.complete(Optional.empty());
-                                        }
-                                        return term;
-                                    }
+        final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final Response res;
+        if (new InternalKey(key).internal()) {
+            res = StandardRs.NOT_FOUND;
+        } else {
+            res = new AsyncResponse(
+                this.load(key, line).handle(
+                    (response, throwable) -> {
+                        final Response result;
+                        if (throwable == null) {
+                            result = response;
+                        } else {
+                            Logger.warn(
+                                this, "Failed to load %s: %[exception]s", key.string(),
+                                throwable
+                            );
+                            result = new RsWithStatus(RsStatus.UNAVAILABLE);
+                        }
+                        return result;
+                    }
+                )
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Loads the item from cache, remote is requested only if the item is not cached.
+     * Cached items are returned with stored upstream headers. Expired mutable items are
+     * revalidated before they are returned or, with stale-while-revalidate enabled,
+     * refreshed in background. Expired items are returned without revalidation while
+     * upstream is down.
+     * @param key Item key
+     * @param line Request line
+     * @return Response
+     */
+    private CompletionStage<Response> load(final Key key, final String line) {
+        return this.cache.load(key, Remote.EMPTY, CacheControl.Standard.ALWAYS).thenCompose(
+            cached -> {
+                final CompletionStage<Response> res;
+                if (cached.isPresent()) {
+                    this.metrics.count(
+                        "maven.proxy.cache", 1, "result", "hit", "layer", "proxy"
+                    );
+                    res = new CachedHeaders(this.cache).load(key).handle(
+                        (item, err) -> Optional.ofNullable(item).flatMap(val -> val)
+                    ).thenCompose(
+                        stored -> {
+                            final boolean expired = new MutableKey(key).expired(stored, this.ttl);
+                            final boolean down = expired && this.outage.expired();
+                            if (down) {
+                                this.metrics.count(
+                                    "maven.proxy.outage", 1, "result", "stale"
                                 );
-                                return promise;
                             }
-                        ),
-                        new CacheControl.All(
-                            StreamSupport.stream(
-                                head.orElse(Headers.EMPTY).spliterator(),
-                                false
-                            ).map(Header::new)
-                            .map(CachedProxySlice::checksumControl)
-                            .collect(Collectors.toUnmodifiableList())
-                        )
-                    ).handle(
-                        (content, throwable) -> {
-                            final Response result;
-                            if (throwable == null && content.isPresent()) {
-                                result = new RsWithBody(
-                                    StandardRs.OK, new Content.From(content.get())
-                                );
+                            final CompletionStage<Response> found;
+                            if (expired && !down && !this.background) {
+                                found = this.revalidated(key, line);
                             } else {
-                                result = StandardRs.NOT_FOUND;
+                                if (expired) {
+                                    this.refresh(key, line);
+                                }
+                                found = CompletableFuture.completedFuture(
+                                    CachedProxySlice.found(
+                                        key, cached.get(),
+                                        stored.map(CachedHeaders.Item::headers)
+                                    )
+                                );
                             }
-                            return result;
+                            return found;
                         }
+                    );
+                } else {
+                    this.metrics.count(
+                        "maven.proxy.cache", 1, "result", "miss", "layer", "proxy"
+                    );
+                    res = this.fetch(key, line);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Revalidate expired item and load it from cache, cached item is kept and
+     * returned if revalidation fails.
+     * @param key Item key
+     * @param line Request line
+     * @return Response
+     */
+    private CompletionStage<Response> revalidated(final Key key, final String line) {
+        return this.revalidate(key, line).handle(
+            (nothing, err) -> {
+                if (err != null) {
+                    Logger.warn(
+                        this, "Failed to revalidate %s: %[exception]s", key.string(), err
+                    );
+                }
+                return this.cache.load(key, Remote.EMPTY, Peek.CONTROL);
+            }
+        ).thenCompose(Function.identity()).thenCompose(
+            content -> {
+                final CompletionStage<Response> res;
+                if (content.isPresent()) {
+                    res = new CachedHeaders(this.cache).load(key).thenApply(
+                        stored -> CachedProxySlice.found(
+                            key, content.get(), stored.map(CachedHeaders.Item::headers)
+                        )
+                    );
+                } else {
+                    res = this.fetch(key, line);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Requests the item from remote and streams it to the client and to the cache together,
+     * see {@link #tee(Key, String, CompletableFuture, CompletableFuture, CompletionStage)}.
+     * Upstream headers are saved after the item is committed to the cache, client stream
+     * completes after that. If the item was loaded to the cache by concurrent request,
+     * it's served from the cache.
+     * @param key Item key
+     * @param line Request line
+     * @return Response
+     */
+    private CompletionStage<Response> fetch(final Key key, final String line) {
+        final CompletableFuture<Headers> upstream = new CompletableFuture<>();
+        final CompletableFuture<Response> response = new CompletableFuture<>();
+        final CompletableFuture<Void> committed = new CompletableFuture<>();
+        this.cache.load(
+            key, () -> this.tee(key, line, upstream, response, committed),
+            CacheControl.Standard.ALWAYS
+        ).handle(
+            (content, err) -> {
+                final boolean loaded = err == null && content.isPresent();
+                if (upstream.isDone() && loaded) {
+                    new CachedHeaders(this.cache).save(key, upstream.join())
+                        .thenCompose(hdrs -> this.prefetched(key, content.get()))
+                        .handle((nothing, error) -> committed.complete(null));
+                } else if (upstream.isDone()) {
+                    Logger.warn(
+                        this, "Failed to cache %s: %[exception]s", key.string(),
+                        Optional.ofNullable(err).orElseGet(
+                            () -> new IllegalStateException("Not found")
+                        )
+                    );
+                    committed.complete(null);
+                } else if (loaded) {
+                    response.complete(
+                        CachedProxySlice.found(key, content.get(), Optional.empty())
+                    );
+                } else if (err == null) {
+                    response.complete(StandardRs.NOT_FOUND);
+                } else {
+                    response.completeExceptionally(err);
+                }
+                return null;
+            }
+        );
+        return response;
+    }
+
+    /**
+     * Pass POM loaded from remote to {@link Prefetch}.
+     * @param key Item key
+     * @param content Cached item content
+     * @return Completion of POM reading
+     */
+    private CompletionStage<Void> prefetched(final Key key, final Content content) {
+        final CompletionStage<Void> res;
+        if (this.prefetch.accepts(key)) {
+            res = new PublisherAs(content).bytes().thenAccept(
+                bytes -> this.prefetch.loaded(key, bytes, this::fill)
+            );
+        } else {
+            res = CompletableFuture.allOf();
+        }
+        return res;
+    }
+
+    /**
+     * Load the item to the cache in background if it's not cached.
+     * @param key Item key
+     * @return Completion of the load
+     */
+    private CompletionStage<Void> fill(final Key key) {
+        return this.cache.load(key, Remote.EMPTY, Peek.CONTROL).thenCompose(
+            cached -> {
+                final CompletionStage<Void> res;
+                if (cached.isPresent()) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.fetch(
+                        key,
+                        new RequestLine(RqMethod.GET, String.format("/%s", key.string()))
+                            .toString()
+                    ).thenCompose(
+                        rsp -> rsp.send(
+                            (status, headers, body) -> Flowable.fromPublisher(body)
+                                .ignoreElements()
+                                .to(CompletableInterop.await())
+                        )
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Refresh mutable item in background, only one refresh of the item runs at a time,
+     * see {@link #revalidate(Key, String)}.
+     * @param key Item key
+     * @param line Request line
+     */
+    private void refresh(final Key key, final String line) {
+        if (this.refreshing.add(key.string())) {
+            this.revalidate(key, line).whenComplete(
+                (nothing, err) -> {
+                    this.refreshing.remove(key.string());
+                    if (err != null) {
+                        Logger.warn(
+                            this, "Failed to refresh %s: %[exception]s", key.string(), err
+                        );
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Revalidate mutable item. If upstream {@code ETag} or {@code Last-Modified} of the item
+     * are stored, item is revalidated with conditional {@code GET} request: {@code 304}
+     * response only updates saved time of the item, full response replaces the item.
+     * Otherwise item is revalidated with checksum headers of remote {@code HEAD} response,
+     * if remote doesn't provide checksums or they don't match the item is requested again.
+     * @param key Item key
+     * @param line Request line
+     * @return Completion of revalidation
+     */
+    private CompletionStage<Void> revalidate(final Key key, final String line) {
+        final CachedHeaders stored = new CachedHeaders(this.cache);
+        return stored.load(key).thenCompose(
+            item -> {
+                final List<Map.Entry<String, String>> conditions = CachedProxySlice.conditions(
+                    item.map(CachedHeaders.Item::headers).orElse(Headers.EMPTY)
+                );
+                final CompletionStage<Void> res;
+                if (conditions.isEmpty()) {
+                    res = this.checked(key, line, stored);
+                } else {
+                    res = this.reload(key, line, new Headers.From(conditions), stored);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Revalidate the item with checksum headers of remote {@code HEAD} response, request
+     * the item again if checksums are not provided or don't match.
+     * @param key Item key
+     * @param line Request line
+     * @param stored Stored headers
+     * @return Completion of revalidation
+     */
+    private CompletionStage<Void> checked(final Key key, final String line,
+        final CachedHeaders stored) {
+        return new RepoHead(this.client).head(new RequestLineFrom(line).uri().getPath())
+            .thenCompose(
+                head -> {
+                    final List<CacheControl> controls = StreamSupport.stream(
+                        head.orElse(Headers.EMPTY).spliterator(), false
+                    ).map(Header::new)
+                        .filter(
+                            header -> CachedProxySlice.CHECKSUM_PATTERN
+                                .matcher(header.getKey()).matches()
+                        )
+                        .map(CachedProxySlice::checksumControl)
+                        .collect(Collectors.toList());
+                    final CompletionStage<Boolean> valid;
+                    if (controls.isEmpty()) {
+                        valid = CompletableFuture.completedFuture(false);
+                    } else {
+                        valid = new CacheControl.All(controls).validate(
+                            key,
+                            () -> this.cache.load(key, Remote.EMPTY, Peek.CONTROL)
+                        );
+                    }
+                    return valid;
+                }
+            ).thenCompose(
+                valid -> {
+                    final CompletionStage<Void> res;
+                    if (valid) {
+                        res = stored.touch(key);
+                    } else {
+                        res = this.reload(key, line, Headers.EMPTY, stored);
+                    }
+                    return res;
+                }
+            );
+    }
+
+    /**
+     * Request the item from remote and replace cached item with upstream headers,
+     * {@code 304} response of conditional request only updates saved time of the item.
+     * @param key Item key
+     * @param line Request line
+     * @param headers Request headers
+     * @param stored Stored headers
+     * @return Completion of reload
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> reload(final Key key, final String line,
+        final Headers headers, final CachedHeaders stored) {
+        final CompletableFuture<Headers> upstream = new CompletableFuture<>();
+        return this.cache.load(
+            key, () -> this.remote(line, headers, upstream), CacheControl.Standard.NO_CACHE
+        ).thenCompose(
+            content -> {
+                final CompletionStage<Void> res;
+                if (content.isPresent() && upstream.isDone()) {
+                    res = stored.save(key, upstream.join()).thenApply(hdrs -> null);
+                } else if (upstream.isDone()) {
+                    res = stored.touch(key);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Requests the item from remote. Content is verified against checksum headers
+     * of the response while it's read, mismatch fails the content stream.
+     * @param line Request line
+     * @param request Request headers
+     * @param headers Promise for response headers, it's completed on successful and
+     *  {@code 304} responses
+     * @return Remote content if found, fails if remote response can't be obtained
+     */
+    private CompletionStage<Optional<? extends Content>> remote(
+        final String line, final Headers request, final CompletableFuture<Headers> headers
+    ) {
+        final CompletableFuture<Optional<? extends Content>> promise = new CompletableFuture<>();
+        this.client.response(line, request, Content.EMPTY).send(
+            (rsstatus, rsheaders, rsbody) -> {
+                final CompletableFuture<Void> term = new CompletableFuture<>();
+                if (rsstatus.success()) {
+                    headers.complete(rsheaders);
+                    final Flowable<ByteBuffer> res = Flowable.fromPublisher(
+                        new VerifiedContent(rsbody, CachedProxySlice.checksums(rsheaders))
                     )
+                        .doOnError(term::completeExceptionally)
+                        .doOnTerminate(() -> term.complete(null));
+                    promise.complete(Optional.of(new Content.From(res)));
+                } else {
+                    if (rsstatus == RsStatus.NOT_MODIFIED) {
+                        headers.complete(rsheaders);
+                    }
+                    promise.complete(Optional.empty());
+                    term.complete(null);
+                }
+                return term;
+            }
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err != null) {
+                    promise.completeExceptionally(err);
+                }
+            }
+        );
+        return promise;
+    }
+
+    /**
+     * Requests the item from remote and tees the content: client response is completed as
+     * soon as remote responds, and each chunk is sent to the client and to the cache. Content
+     * is verified against checksum headers of the response while it's read, the cache entry
+     * is committed by the storage only when complete verified content is saved: checksum
+     * mismatch fails both the client stream and the cache entry. If the response has no
+     * checksum headers, artifacts are verified against remote checksum files requested
+     * while the content is streamed, see {@link #published(Key)}. Client stream completes
+     * when cache entry is committed. When client disconnects the transfer continues into the
+     * cache if {@link DetachedFills} budget allows, see {@link TeeContent}. Cache part of the
+     * content is dropped when the load is completed, so the client is not held by the cache
+     * part which wasn't read to the end.
+     * Unsuccessful upstream status other than {@code 404} is passed to the client and fails
+     * the load, so upstream failures and outages are not reported as missing items to the
+     * client and to concurrent loads coalesced with this one. Failure to get
+     * remote response fails both the client response and the content to cache, so
+     * coalesced loads and refreshes of the item are released.
+     * @param key Item key
+     * @param line Request line
+     * @param headers Promise for response headers
+     * @param response Promise for client response
+     * @param committed Cache entry commit completion
+     * @return Remote content to cache if found, fails if remote failed
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Optional<? extends Content>> tee(final Key key, final String line,
+        final CompletableFuture<Headers> headers, final CompletableFuture<Response> response,
+        final CompletionStage<Void> committed) {
+        final CompletableFuture<Optional<? extends Content>> promise = new CompletableFuture<>();
+        this.client.response(line, Headers.EMPTY, Content.EMPTY).send(
+            (rsstatus, rsheaders, rsbody) -> {
+                final CompletableFuture<Void> term = new CompletableFuture<>();
+                if (rsstatus.success()) {
+                    headers.complete(rsheaders);
+                    final Optional<Long> size = CachedProxySlice.length(rsheaders);
+                    final Map<String, String> checksums = CachedProxySlice.checksums(rsheaders);
+                    final VerifiedContent verified;
+                    if (checksums.isEmpty() && CachedProxySlice.artifact(key)) {
+                        verified = new VerifiedContent(
+                            rsbody, Set.copyOf(CachedProxySlice.PUBLISHED), this.published(key)
+                        );
+                    } else {
+                        verified = new VerifiedContent(rsbody, checksums);
+                    }
+                    final TeeContent tee = new TeeContent(verified, this.fills);
+                    committed.thenRun(tee::drop);
+                    tee.start().whenComplete(
+                        (nothing, err) -> {
+                            if (err == null) {
+                                term.complete(null);
+                            } else {
+                                term.completeExceptionally(err);
+                            }
+                        }
+                    );
+                    promise.complete(Optional.of(new Content.From(size, tee.cache())));
+                    response.complete(
+                        new RsWithHeaders(
+                            new RsWithBody(
+                                StandardRs.OK,
+                                new Content.From(
+                                    size,
+                                    tee.client().concatWith(
+                                        CompletableInterop.fromFuture(committed)
+                                    )
+                                )
+                            ),
+                            new Headers.From(CachedHeaders.stored(rsheaders))
+                        )
+                    );
+                } else {
+                    if (rsstatus == RsStatus.NOT_FOUND) {
+                        promise.complete(Optional.empty());
+                    } else {
+                        response.complete(new RsWithStatus(rsstatus));
+                        promise.completeExceptionally(
+                            new IllegalStateException(
+                                String.format("Upstream responded %s", rsstatus.code())
+                            )
+                        );
+                    }
+                    term.complete(null);
+                }
+                return term;
+            }
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err != null) {
+                    promise.completeExceptionally(err);
+                    response.completeExceptionally(err);
+                }
+            }
+        );
+        return promise;
+    }
+
+    /**
+     * Checksum of the artifact published by remote: {@code .sha1} file or {@code .sha256}
+     * file if there is no {@code .sha1}. Checksum files are loaded through the cache, so
+     * they are cached next to the artifact and later requests to them are served from
+     * the cache.
+     * @param key Artifact key
+     * @return Hex checksums by digest algorithm names, empty if remote has no checksums
+     */
+    private CompletionStage<Map<String, String>> published(final Key key) {
+        CompletionStage<Map<String, String>> res =
+            CompletableFuture.completedFuture(Collections.emptyMap());
+        for (final String alg : CachedProxySlice.PUBLISHED) {
+            res = res.thenCompose(
+                found -> {
+                    final CompletionStage<Map<String, String>> next;
+                    if (found.isEmpty()) {
+                        next = this.checksum(key, alg).thenApply(
+                            hex -> hex.map(val -> Map.of(alg, val))
+                                .orElse(Collections.emptyMap())
+                        );
+                    } else {
+                        next = CompletableFuture.completedFuture(found);
+                    }
+                    return next;
+                }
+            );
+        }
+        return res.exceptionally(
+            err -> {
+                Logger.warn(
+                    this, "Failed to get checksums of %s: %[exception]s", key.string(), err
+                );
+                return Collections.emptyMap();
+            }
+        );
+    }
+
+    /**
+     * Load checksum file of the artifact.
+     * @param key Artifact key
+     * @param alg Digest algorithm name
+     * @return Hex checksum if checksum file was found and it's valid
+     */
+    private CompletionStage<Optional<String>> checksum(final Key key, final String alg) {
+        final Key sidecar = new Key.From(
+            String.format("%s.%s", key.string(), alg.replace("-", "").toLowerCase(Locale.US))
+        );
+        final CompletableFuture<Optional<String>> res = new CompletableFuture<>();
+        this.load(
+            sidecar,
+            new RequestLine(RqMethod.GET, String.format("/%s", sidecar.string())).toString()
+        ).thenCompose(
+            rsp -> rsp.send(
+                (status, headers, body) -> {
+                    final CompletionStage<Void> read;
+                    if (status.success()) {
+                        read = new PublisherAs(body).asciiString().thenAccept(
+                            str -> res.complete(CachedProxySlice.hex(str, alg))
+                        );
+                    } else {
+                        read = Flowable.fromPublisher(body).ignoreElements()
+                            .to(CompletableInterop.await());
+                    }
+                    return read;
+                }
+            )
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err == null) {
+                    res.complete(Optional.empty());
+                } else {
+                    res.completeExceptionally(err);
+                }
+            }
+        );
+        return res;
+    }
+
+    /**
+     * Response for found item.
+     * @param key Item key
+     * @param content Item content
+     * @param headers Upstream headers of the item if known
+     * @return Response with item content and headers
+     */
+    private static Response found(final Key key, final Content content,
+        final Optional<Headers> headers) {
+        return new RsWithHeaders(
+            new RsWithBody(StandardRs.OK, content),
+            headers.orElseGet(() -> new ArtifactHeaders(key, Collections.emptyMap()))
+        );
+    }
+
+    /**
+     * Is the item an immutable artifact which can be verified with remote checksum files:
+     * not mutable and not a checksum or signature file itself.
+     * @param key Item key
+     * @return True if artifact
+     */
+    private static boolean artifact(final Key key) {
+        return !new MutableKey(key).mutable()
+            && !CachedProxySlice.SIDECAR.matcher(key.string()).matches();
+    }
+
+    /**
+     * Hex checksum from checksum file: the first word of the file, checksum files may also
+     * contain file name after the checksum.
+     * @param content Checksum file content
+     * @param alg Digest algorithm name
+     * @return Hex checksum if it's valid for the algorithm
+     */
+    private static Optional<String> hex(final String content, final String alg) {
+        return Optional.of(content.trim().split("\\s+")[0].toLowerCase(Locale.US)).filter(
+            hex -> hex.matches(
+                String.format(
+                    "[0-9a-f]{%d}", new Digests.FromString(alg).get().get().getDigestLength() * 2
+                )
             )
         );
     }
 
+    /**
+     * Conditional request headers from stored upstream headers: {@code If-None-Match} from
+     * {@code ETag} and {@code If-Modified-Since} from {@code Last-Modified}.
+     * @param stored Stored upstream headers
+     * @return Conditional request headers
+     */
+    private static List<Map.Entry<String, String>> conditions(final Headers stored) {
+        final List<Map.Entry<String, String>> res = new ArrayList<>(2);
+        for (final Map.Entry<String, String> header : stored) {
+            if ("etag".equalsIgnoreCase(header.getKey())) {
+                res.add(new Header("If-None-Match", header.getValue()));
+            } else if ("last-modified".equalsIgnoreCase(header.getKey())) {
+                res.add(new Header("If-Modified-Since", header.getValue()));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Content length from response headers.
+     * @param headers Response headers
+     * @return Content length if known
+     */
+    private static Optional<Long> length(final Iterable<Map.Entry<String, String>> headers) {
+        return StreamSupport.stream(headers.spliterator(), false)
+            .filter(header -> "content-length".equalsIgnoreCase(header.getKey()))
+            .findFirst()
+            .map(header -> Long.parseLong(header.getValue().trim()));
+    }
+
+    /**
+     * Checksums from response headers.
+     * @param headers Response headers
+     * @return Checksums by digest algorithm names
+     */
+    private static Map<String, String> checksums(
+        final Iterable<Map.Entry<String, String>> headers
+    ) {
+        final Map<String, String> res = new HashMap<>();
+        for (final Map.Entry<String, String> header : headers) {
+            final Matcher matcher = CachedProxySlice.CHECKSUM_PATTERN.matcher(header.getKey());
+            if (matcher.matches()) {
+                res.put(
+                    CachedProxySlice.DIGEST_NAMES.get(matcher.group(1).toLowerCase(Locale.US)),
+                    header.getValue()
+                );
+            }
+        }
+        return res;
+    }
+
     /**
      * Checksum cache control verification.
      * @param header Checksum header
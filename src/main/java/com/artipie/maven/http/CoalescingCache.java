@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.cache.Cache;
+import com.artipie.asto.cache.CacheControl;
+import com.artipie.asto.cache.Remote;
+import com.artipie.maven.metrics.Metrics;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Cache with single-flight loads: while the item is being loaded, concurrent loads of the
+ * same key wait for it and share its result, so concurrent misses cause one upstream fetch.
+ * If the item was loaded, waiting loads read it from the origin cache without remote, remote
+ * is used by waiting loads only if the origin cache has not stored the item, e.g.
+ * {@link Cache#NOP}. If the load failed or remote had no item, waiting loads fail with the
+ * same error or return empty result without requesting upstream. If the load was abandoned
+ * by its client (see {@link AbandonedLoadException}), waiting loads retry it: one of them
+ * performs the load and others wait for it. Loads with
+ * {@link Remote#EMPTY} never request upstream and are not coalesced. Loads which waited for
+ * concurrent load are counted by {@code maven.proxy.coalesced} counter.
+ * @since 0.12
+ */
+public final class CoalescingCache implements Cache {
+
+    /**
+     * Origin cache.
+     */
+    private final Cache origin;
+
+    /**
+     * Loads in progress by keys, complete with {@code true} if the item was loaded.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> inflight;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param origin Origin cache
+     */
+    public CoalescingCache(final Cache origin) {
+        this(origin, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin cache
+     * @param metrics Metrics
+     */
+    public CoalescingCache(final Cache origin, final Metrics metrics) {
+        this.origin = origin;
+        this.metrics = metrics;
+        this.inflight = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public CompletionStage<Optional<? extends Content>> load(
+        final Key key, final Remote remote, final CacheControl control
+    ) {
+        final CompletionStage<Optional<? extends Content>> res;
+        if (remote == Remote.EMPTY) {
+            res = this.origin.load(key, remote, control);
+        } else {
+            res = this.single(key, remote, control);
+        }
+        return res;
+    }
+
+    /**
+     * Performs the load or waits for the current load of the same key and shares its result.
+     * @param key Item key
+     * @param remote Remote
+     * @param control Cache control
+     * @return Item content
+     */
+    private CompletionStage<Optional<? extends Content>> single(
+        final Key key, final Remote remote, final CacheControl control
+    ) {
+        final CompletableFuture<Boolean> flight = new CompletableFuture<>();
+        final CompletableFuture<Boolean> current = this.inflight.putIfAbsent(key.string(), flight);
+        final CompletionStage<Optional<? extends Content>> res;
+        if (current == null) {
+            res = this.origin.load(key, remote, control).whenComplete(
+                (content, err) -> {
+                    this.inflight.remove(key.string(), flight);
+                    if (err == null) {
+                        flight.complete(content.isPresent());
+                    } else {
+                        flight.completeExceptionally(err);
+                    }
+                }
+            );
+        } else {
+            this.metrics.count("maven.proxy.coalesced", 1);
+            res = current.handle(
+                (loaded, err) -> {
+                    final CompletionStage<Optional<? extends Content>> shared;
+                    if (err != null && CoalescingCache.abandoned(err)) {
+                        shared = this.single(key, remote, control);
+                    } else if (err != null) {
+                        shared = CompletableFuture.failedFuture(err);
+                    } else if (loaded) {
+                        shared = this.origin.load(key, Remote.EMPTY, Peek.CONTROL).thenCompose(
+                            cached -> {
+                                final CompletionStage<Optional<? extends Content>> item;
+                                if (cached.isPresent()) {
+                                    item = CompletableFuture.completedFuture(cached);
+                                } else {
+                                    item = this.origin.load(key, remote, control);
+                                }
+                                return item;
+                            }
+                        );
+                    } else {
+                        shared = CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    return shared;
+                }
+            ).thenCompose(Function.identity());
+        }
+        return res;
+    }
+
+    /**
+     * Was the load abandoned by its client.
+     * @param err Load error
+     * @return True if the error or any of its causes is {@link AbandonedLoadException}
+     */
+    private static boolean abandoned(final Throwable err) {
+        Throwable cause = err;
+        while (cause != null && !(cause instanceof AbandonedLoadException)) {
+            cause = cause.getCause();
+        }
+        return cause != null;
+    }
+}
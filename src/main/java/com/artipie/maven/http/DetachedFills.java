@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global budget of detached cache fills: upstream transfers which continue into the cache
+ * after the requesting client disconnected. Instance is shared by proxy slices which should
+ * be limited together.
+ * @since 0.12
+ */
+public final class DetachedFills {
+
+    /**
+     * Detached fills are disabled, transfers are cancelled when client disconnects.
+     */
+    public static final DetachedFills NONE = new DetachedFills(0);
+
+    /**
+     * Max number of concurrent detached fills.
+     */
+    private final int max;
+
+    /**
+     * Number of running detached fills.
+     */
+    private final AtomicInteger running;
+
+    /**
+     * Ctor.
+     * @param max Max number of concurrent detached fills
+     */
+    public DetachedFills(final int max) {
+        this.max = max;
+        this.running = new AtomicInteger();
+    }
+
+    /**
+     * Number of running detached fills.
+     * @return Running fills count
+     */
+    public int running() {
+        return this.running.get();
+    }
+
+    /**
+     * Try to start detached fill.
+     * @return True if budget allows to start the fill, it should be released by
+     *  {@link #release()} when the fill is finished
+     */
+    boolean acquire() {
+        boolean res = false;
+        int current = this.running.get();
+        while (current < this.max) {
+            if (this.running.compareAndSet(current, current + 1)) {
+                res = true;
+                break;
+            }
+            current = this.running.get();
+        }
+        return res;
+    }
+
+    /**
+     * Finish detached fill.
+     */
+    void release() {
+        this.running.decrementAndGet();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Eviction policy of {@link QuotaCache}: order in which cached items are evicted.
+ * @since 0.12
+ */
+public interface Eviction {
+
+    /**
+     * Order of cached items, items which should be evicted first go first. Usage of cached
+     * items is updated in the order lazily, so more hits or later access must never move
+     * the item closer to eviction.
+     * @return Items usage comparator
+     */
+    Comparator<Usage> order();
+
+    /**
+     * Usage of cached item.
+     * @since 0.12
+     */
+    interface Usage {
+
+        /**
+         * Number of cache hits.
+         * @return Hits count
+         */
+        long hits();
+
+        /**
+         * Last access time.
+         * @return Access time
+         */
+        Instant accessed();
+
+        /**
+         * Item size.
+         * @return Size in bytes
+         */
+        long size();
+    }
+
+    /**
+     * Least recently used items are evicted first.
+     * @since 0.12
+     */
+    final class Lru implements Eviction {
+
+        @Override
+        public Comparator<Usage> order() {
+            return Comparator.comparing(Usage::accessed);
+        }
+    }
+
+    /**
+     * Least frequently used items are evicted first, least recently used of them first.
+     * @since 0.12
+     */
+    final class Lfu implements Eviction {
+
+        @Override
+        public Comparator<Usage> order() {
+            return Comparator.comparingLong(Usage::hits).thenComparing(Usage::accessed);
+        }
+    }
+}
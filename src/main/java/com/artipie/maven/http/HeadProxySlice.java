@@ -24,46 +24,257 @@
 package com.artipie.maven.http;
 
 import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.cache.Cache;
+import com.artipie.asto.cache.Remote;
 import com.artipie.http.Headers;
 import com.artipie.http.Response;
 import com.artipie.http.Slice;
 import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.ContentLength;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.reactivestreams.Publisher;
 
 /**
  * Head slice for Maven proxy.
+ * <p>
+ * Items cached by {@link CachedProxySlice} are answered from the cache with stored upstream
+ * headers (see {@link CachedHeaders}) and content length, without remote requests. Mutable
+ * items, see {@link MutableKey}, are answered from the cache only until they expire, same
+ * as in {@link CachedProxySlice}. Other requests are forwarded to remote, successful remote
+ * answers are kept in memory for a short time. Internal data stored in the cache, see
+ * {@link InternalKey}, is not served.
+ * </p>
  * @since 0.5
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 final class HeadProxySlice implements Slice {
 
+    /**
+     * Max number of remote answers kept in memory.
+     */
+    private static final int ANSWERS = 1_000;
+
     /**
      * Client slice.
      */
     private final Slice client;
 
+    /**
+     * Cache.
+     */
+    private final Cache cache;
+
+    /**
+     * Time to keep remote answers.
+     */
+    private final Duration ttl;
+
+    /**
+     * Time to live of cached mutable items.
+     */
+    private final Duration fresh;
+
+    /**
+     * Remote answers by paths: status, headers and expiration time.
+     */
+    private final Map<String, Answer> answers;
+
     /**
      * New slice for {@code HEAD} requests.
      * @param client HTTP client slice
      */
     HeadProxySlice(final Slice client) {
+        this(client, Cache.NOP, Duration.ZERO);
+    }
+
+    /**
+     * New slice for {@code HEAD} requests.
+     * @param client HTTP client slice
+     * @param cache Cache
+     * @param ttl Time to keep remote answers in memory
+     */
+    HeadProxySlice(final Slice client, final Cache cache, final Duration ttl) {
+        this(client, cache, ttl, Duration.ZERO);
+    }
+
+    /**
+     * New slice for {@code HEAD} requests.
+     * @param client HTTP client slice
+     * @param cache Cache
+     * @param ttl Time to keep remote answers in memory
+     * @param fresh Time to live of cached mutable items: maven-metadata and snapshots
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    @SuppressWarnings("serial")
+    HeadProxySlice(final Slice client, final Cache cache, final Duration ttl,
+        final Duration fresh) {
         this.client = client;
+        this.cache = cache;
+        this.ttl = ttl;
+        this.fresh = fresh;
+        this.answers = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Answer> eldest) {
+                    return this.size() > HeadProxySlice.ANSWERS;
+                }
+            }
+        );
     }
 
     @Override
     public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
         final Publisher<ByteBuffer> body) {
-        final CompletableFuture<Response> promise = new CompletableFuture<>();
-        this.client.response(line, Headers.EMPTY, Content.EMPTY).send(
-            (status, rsheaders, rsbody) -> {
-                promise.complete(new RsWithHeaders(new RsWithStatus(status), rsheaders));
-                return CompletableFuture.allOf();
+        final String path = new RequestLineFrom(line).uri().getPath();
+        final Key key = new KeyFromPath(path);
+        final Response rsp;
+        if (new InternalKey(key).internal()) {
+            rsp = StandardRs.NOT_FOUND;
+        } else {
+            rsp = new AsyncResponse(
+                this.cache.load(key, Remote.EMPTY, Peek.CONTROL).thenCompose(
+                    cached -> {
+                        final CompletionStage<Response> res;
+                        if (cached.isPresent()) {
+                            res = this.cached(key, cached.get(), line, path);
+                        } else {
+                            res = this.remote(line, path);
+                        }
+                        return res;
+                    }
+                ).exceptionally(err -> new RsWithStatus(RsStatus.UNAVAILABLE))
+            );
+        }
+        return rsp;
+    }
+
+    /**
+     * Answer {@code HEAD} request from remote or from recent remote answer.
+     * @param line Request line
+     * @param path Request path
+     * @return Response
+     */
+    private CompletionStage<Response> remote(final String line, final String path) {
+        final Answer recent = this.answers.get(path);
+        final CompletionStage<Response> res;
+        if (recent != null && Instant.now().isBefore(recent.expires)) {
+            res = CompletableFuture.completedFuture(recent.response());
+        } else {
+            final CompletableFuture<Response> promise = new CompletableFuture<>();
+            this.client.response(line, Headers.EMPTY, Content.EMPTY).send(
+                (status, rsheaders, rsbody) -> {
+                    final Answer answer = new Answer(
+                        status, new Headers.From(rsheaders), Instant.now().plus(this.ttl)
+                    );
+                    if (status.success() && !this.ttl.isZero()) {
+                        this.answers.put(path, answer);
+                    } else {
+                        this.answers.remove(path);
+                    }
+                    promise.complete(answer.response());
+                    return CompletableFuture.allOf();
+                }
+            ).whenComplete(
+                (nothing, err) -> {
+                    if (err != null) {
+                        promise.completeExceptionally(err);
+                    }
+                }
+            );
+            res = promise;
+        }
+        return res;
+    }
+
+    /**
+     * Answer {@code HEAD} request from cached item, expired item is answered from remote.
+     * @param key Item key
+     * @param content Cached content, it's not read
+     * @param line Request line
+     * @param path Request path
+     * @return Response with stored headers and content length
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Response> cached(final Key key, final Content content,
+        final String line, final String path) {
+        return new CachedHeaders(this.cache).load(key).handle(
+            (item, err) -> Optional.ofNullable(item).flatMap(val -> val)
+        ).thenCompose(
+            stored -> {
+                final CompletionStage<Response> res;
+                if (new MutableKey(key).expired(stored, this.fresh)) {
+                    res = this.remote(line, path);
+                } else {
+                    Response rsp = new RsWithHeaders(
+                        StandardRs.OK,
+                        stored.<Headers>map(CachedHeaders.Item::headers).orElseGet(
+                            () -> new ArtifactHeaders(key, Collections.emptyMap())
+                        )
+                    );
+                    if (content.size().isPresent()) {
+                        rsp = new RsWithHeaders(rsp, new ContentLength(content.size().get()));
+                    }
+                    res = CompletableFuture.completedFuture(rsp);
+                }
+                return res;
             }
         );
-        return new AsyncResponse(promise);
+    }
+
+    /**
+     * Remote answer.
+     * @since 0.12
+     */
+    private static final class Answer {
+
+        /**
+         * Response status.
+         */
+        private final RsStatus status;
+
+        /**
+         * Response headers.
+         */
+        private final Headers headers;
+
+        /**
+         * Expiration time.
+         */
+        private final Instant expires;
+
+        /**
+         * Ctor.
+         * @param status Response status
+         * @param headers Response headers
+         * @param expires Expiration time
+         */
+        Answer(final RsStatus status, final Headers headers, final Instant expires) {
+            this.status = status;
+            this.headers = headers;
+            this.expires = expires;
+        }
+
+        /**
+         * Response with the answer.
+         * @return Response
+         */
+        Response response() {
+            return new RsWithHeaders(new RsWithStatus(this.status), this.headers);
+        }
     }
 }
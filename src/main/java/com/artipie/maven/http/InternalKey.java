@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Key;
+import java.util.regex.Pattern;
+
+/**
+ * Key of adapter internal data: any part of the key starts with dot, e.g.
+ * {@code .artipie-headers}, {@code .artipie-leases}, {@code .artipie-reindex} or
+ * {@code .upload}. Such keys are not valid Maven repository paths and are never served
+ * to clients.
+ * @since 0.12
+ */
+final class InternalKey {
+
+    /**
+     * Dot-prefixed key part.
+     */
+    private static final Pattern HIDDEN = Pattern.compile("(?:^|/)\\.");
+
+    /**
+     * Key.
+     */
+    private final Key key;
+
+    /**
+     * Ctor.
+     * @param key Key
+     */
+    InternalKey(final Key key) {
+        this.key = key;
+    }
+
+    /**
+     * Is the key internal.
+     * @return True if any part of the key starts with dot
+     */
+    boolean internal() {
+        return InternalKey.HIDDEN.matcher(this.key.string()).find();
+    }
+}
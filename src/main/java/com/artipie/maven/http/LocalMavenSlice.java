@@ -47,7 +47,8 @@ import org.reactivestreams.Publisher;
 
 /**
  * A {@link Slice} based on a {@link Storage}. This is the main entrypoint
- * for dispatching GET requests for artifacts.
+ * for dispatching GET requests for artifacts. Internal data of the adapter,
+ * see {@link InternalKey}, is not served.
  *
  * @since 0.5
  * @todo #117:30min Add test to verify this class.
@@ -88,7 +89,9 @@ final class LocalMavenSlice implements Slice {
         final Key key = new KeyFromPath(rline.uri().getPath());
         final Matcher match = LocalMavenSlice.PTN_ARTIFACT.matcher(new KeyLastPart(key).get());
         final Response response;
-        if (match.matches()) {
+        if (new InternalKey(key).internal()) {
+            response = StandardRs.NOT_FOUND;
+        } else if (match.matches()) {
             response = this.artifactResponse(rline.method(), key);
         } else {
             response = this.plainResponse(rline.method(), key);
@@ -38,6 +38,9 @@ import com.artipie.http.rt.RtRulePath;
 import com.artipie.http.rt.SliceRoute;
 import com.artipie.http.slice.SliceSimple;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Maven proxy repository slice.
@@ -46,6 +49,11 @@ import java.net.URI;
  */
 public final class MavenProxySlice extends Slice.Wrap {
 
+    /**
+     * Time to keep remote answers to {@code HEAD} requests.
+     */
+    private static final Duration HEAD_TTL = Duration.ofSeconds(30);
+
     /**
      * New maven proxy without cache.
      * @param clients HTTP clients
@@ -79,15 +87,55 @@ public final class MavenProxySlice extends Slice.Wrap {
         final Authenticator auth,
         final Cache cache
     ) {
+        this(clients, new ProxySettings(remote).withAuth(auth).withCache(cache));
+    }
+
+    /**
+     * New Maven proxy slice, see {@link ProxySettings}.
+     * @param clients HTTP clients
+     * @param settings Proxy settings
+     */
+    public MavenProxySlice(final ClientSlices clients, final ProxySettings settings) {
+        this(
+            new NegativeCacheSlice(
+                new OutageSlice(
+                    MavenProxySlice.remote(clients, settings.remotes(), settings.auth()),
+                    settings.outage(), settings.metrics()
+                ),
+                settings.negative(), settings.metrics()
+            ),
+            settings
+        );
+    }
+
+    /**
+     * New Maven proxy slice with cache.
+     * @param upstream Upstream slice
+     * @param settings Proxy settings
+     */
+    private MavenProxySlice(final Slice upstream, final ProxySettings settings) {
         super(
             new SliceRoute(
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.HEAD),
-                    new HeadProxySlice(remote(clients, remote, auth))
+                    new MeteredSlice(
+                        new HeadProxySlice(
+                            upstream, settings.cache(), MavenProxySlice.HEAD_TTL, settings.ttl()
+                        ),
+                        settings.metrics(), "proxy-head"
+                    )
                 ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.GET),
-                    new CachedProxySlice(remote(clients, remote, auth), cache)
+                    new MeteredSlice(
+                        new CachedProxySlice(
+                            upstream,
+                            new CoalescingCache(settings.cache(), settings.metrics()),
+                            settings.ttl(), settings.stale(), settings.fills(),
+                            settings.prefetch(), settings.outage(), settings.metrics()
+                        ),
+                        settings.metrics(), "proxy-get"
+                    )
                 ),
                 new RtRulePath(
                     RtRule.FALLBACK,
@@ -97,6 +145,32 @@ public final class MavenProxySlice extends Slice.Wrap {
         );
     }
 
+    /**
+     * Build client slice for target URIs: single remote or mirrors.
+     *
+     * @param client Client slices.
+     * @param remotes Remote URIs.
+     * @param auth Authenticator.
+     * @return Client slice for target URIs.
+     */
+    private static Slice remote(
+        final ClientSlices client,
+        final List<URI> remotes,
+        final Authenticator auth
+    ) {
+        final Slice res;
+        if (remotes.size() == 1) {
+            res = MavenProxySlice.remote(client, remotes.get(0), auth);
+        } else {
+            res = new MirrorsSlice(
+                remotes.stream()
+                    .map(remote -> MavenProxySlice.remote(client, remote, auth))
+                    .collect(Collectors.toList())
+            );
+        }
+        return res;
+    }
+
     /**
      * Build client slice for target URI.
      *
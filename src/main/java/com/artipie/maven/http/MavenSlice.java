@@ -39,6 +39,17 @@ import com.artipie.http.rt.SliceRoute;
 import com.artipie.http.slice.SliceSimple;
 import com.artipie.maven.asto.AstoMaven;
 import com.artipie.maven.asto.AstoValidUpload;
+import com.artipie.maven.asto.LeaseLock;
+import com.artipie.maven.asto.SnapshotRetention;
+import com.artipie.maven.metrics.MeteredMaven;
+import com.artipie.maven.metrics.MeteredValidUpload;
+import com.artipie.maven.metrics.Metrics;
+import com.artipie.maven.trace.Trace;
+import com.artipie.maven.trace.TracedMaven;
+import com.artipie.maven.trace.TracedStorage;
+import com.artipie.maven.trace.TracedValidUpload;
+import java.time.Duration;
+import java.util.Optional;
 
 /**
  * Maven API entry point.
@@ -47,6 +58,11 @@ import com.artipie.maven.asto.AstoValidUpload;
  */
 public final class MavenSlice extends Slice.Wrap {
 
+    /**
+     * Default slow deploy request threshold.
+     */
+    private static final Duration SLOW = Duration.ofSeconds(10);
+
     /**
      * Ctor.
      * @param storage The storage and default parameters for free access.
@@ -62,6 +78,66 @@ public final class MavenSlice extends Slice.Wrap {
      * @param users Concrete identities.
      */
     public MavenSlice(final Storage storage, final Permissions perms, final Authentication users) {
+        this(storage, perms, users, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param storage The storage.
+     * @param perms Access permissions.
+     * @param users Concrete identities.
+     * @param metrics Metrics: request latency and body sizes per route, deploy phases
+     *  timings and metadata lease wait time
+     */
+    public MavenSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final Metrics metrics) {
+        this(storage, perms, users, metrics, MavenSlice.SLOW);
+    }
+
+    /**
+     * Ctor.
+     * @param storage The storage.
+     * @param perms Access permissions.
+     * @param users Concrete identities.
+     * @param retention Snapshot builds retention policy, old builds of snapshot version are
+     *  pruned on deploy of the version
+     */
+    public MavenSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final SnapshotRetention retention) {
+        this(storage, perms, users, Metrics.NOP, MavenSlice.SLOW, Optional.of(retention));
+    }
+
+    /**
+     * Ctor.
+     * @param storage The storage.
+     * @param perms Access permissions.
+     * @param users Concrete identities.
+     * @param metrics Metrics: request latency and body sizes per route, deploy phases
+     *  timings and metadata lease wait time
+     * @param slow Slow deploy request threshold: deploy requests are traced, traces of
+     *  requests which take longer are logged with timings of deploy phases and storage calls
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public MavenSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final Metrics metrics, final Duration slow) {
+        this(storage, perms, users, metrics, slow, Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * @param storage The storage.
+     * @param perms Access permissions.
+     * @param users Concrete identities.
+     * @param metrics Metrics: request latency and body sizes per route, deploy phases
+     *  timings and metadata lease wait time
+     * @param slow Slow deploy request threshold: deploy requests are traced, traces of
+     *  requests which take longer are logged with timings of deploy phases and storage calls
+     * @param retention Snapshot builds retention policy, if it's empty snapshot builds are
+     *  kept and snapshot version is not listed for cleanup on deploy
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public MavenSlice(final Storage storage, final Permissions perms, final Authentication users,
+        final Metrics metrics, final Duration slow, final Optional<SnapshotRetention> retention) {
         super(
             new SliceRoute(
                 new RtRulePath(
@@ -69,10 +145,13 @@ public final class MavenSlice extends Slice.Wrap {
                         new ByMethodsRule(RqMethod.GET),
                         new ByMethodsRule(RqMethod.HEAD)
                     ),
-                    new BasicAuthSlice(
-                        new LocalMavenSlice(storage),
-                        users,
-                        new Permission.ByName(perms, Action.Standard.READ)
+                    new MeteredSlice(
+                        new BasicAuthSlice(
+                            new LocalMavenSlice(storage),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.READ)
+                        ),
+                        metrics, "download"
                     )
                 ),
                 new RtRulePath(
@@ -80,10 +159,16 @@ public final class MavenSlice extends Slice.Wrap {
                         new ByMethodsRule(RqMethod.PUT),
                         new RtRule.ByPath(".*SNAPSHOT.*")
                     ),
-                    new BasicAuthSlice(
-                        new UploadSlice(storage),
-                        users,
-                        new Permission.ByName(perms, Action.Standard.WRITE)
+                    new MeteredSlice(
+                        new BasicAuthSlice(
+                            new TracedSlice(
+                                trace -> new UploadSlice(new TracedStorage(storage, trace)),
+                                slow
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.WRITE)
+                        ),
+                        metrics, "upload"
                     )
                 ),
                 new RtRulePath(
@@ -91,10 +176,16 @@ public final class MavenSlice extends Slice.Wrap {
                         new ByMethodsRule(RqMethod.PUT),
                         new RtRule.ByPath(PutMetadataSlice.PTN_META)
                     ),
-                    new BasicAuthSlice(
-                        new PutMetadataSlice(storage),
-                        users,
-                        new Permission.ByName(perms, Action.Standard.WRITE)
+                    new MeteredSlice(
+                        new BasicAuthSlice(
+                            new TracedSlice(
+                                trace -> new PutMetadataSlice(new TracedStorage(storage, trace)),
+                                slow
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.WRITE)
+                        ),
+                        metrics, "metadata"
                     )
                 ),
                 new RtRulePath(
@@ -102,20 +193,30 @@ public final class MavenSlice extends Slice.Wrap {
                         new ByMethodsRule(RqMethod.PUT),
                         new RtRule.ByPath(PutMetadataChecksumSlice.PTN)
                     ),
-                    new BasicAuthSlice(
-                        new PutMetadataChecksumSlice(
-                            storage, new AstoValidUpload(storage), new AstoMaven(storage)
+                    new MeteredSlice(
+                        new BasicAuthSlice(
+                            new TracedSlice(
+                                trace -> MavenSlice.deploy(storage, metrics, retention, trace),
+                                slow
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.WRITE)
                         ),
-                        users,
-                        new Permission.ByName(perms, Action.Standard.WRITE)
+                        metrics, "checksum"
                     )
                 ),
                 new RtRulePath(
                     new ByMethodsRule(RqMethod.PUT),
-                    new BasicAuthSlice(
-                        new UploadSlice(storage),
-                        users,
-                        new Permission.ByName(perms, Action.Standard.WRITE)
+                    new MeteredSlice(
+                        new BasicAuthSlice(
+                            new TracedSlice(
+                                trace -> new UploadSlice(new TracedStorage(storage, trace)),
+                                slow
+                            ),
+                            users,
+                            new Permission.ByName(perms, Action.Standard.WRITE)
+                        ),
+                        metrics, "upload"
                     )
                 ),
                 new RtRulePath(
@@ -124,4 +225,33 @@ public final class MavenSlice extends Slice.Wrap {
             )
         );
     }
+
+    /**
+     * Slice which completes the deploy on metadata checksum upload: validates the upload and
+     * updates repository metadata, phases and storage calls are recorded to the trace.
+     * @param storage Repository storage
+     * @param metrics Metrics
+     * @param retention Snapshot builds retention policy
+     * @param trace Request trace
+     * @return Slice
+     */
+    private static Slice deploy(final Storage storage, final Metrics metrics,
+        final Optional<SnapshotRetention> retention, final Trace trace) {
+        final Storage traced = new TracedStorage(storage, trace);
+        return new PutMetadataChecksumSlice(
+            traced,
+            new MeteredValidUpload(
+                new TracedValidUpload(new AstoValidUpload(traced), trace), metrics
+            ),
+            new MeteredMaven(
+                new TracedMaven(
+                    new AstoMaven(
+                        traced, key -> new LeaseLock(traced, key, metrics), retention
+                    ),
+                    trace
+                ),
+                metrics
+            )
+        );
+    }
 }
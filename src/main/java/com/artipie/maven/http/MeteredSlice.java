@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.maven.metrics.Metrics;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice which records request latency to {@code maven.request} timer with {@code route},
+ * {@code method} and {@code status} tags, and request and response body sizes to
+ * {@code maven.request.bytes.in} and {@code maven.request.bytes.out} counters with
+ * {@code route} tag. Latency is measured until the response body is sent.
+ * @since 0.12
+ */
+final class MeteredSlice implements Slice {
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Route name.
+     */
+    private final String route;
+
+    /**
+     * Ctor.
+     * @param origin Origin slice
+     * @param metrics Metrics
+     * @param route Route name
+     */
+    MeteredSlice(final Slice origin, final Metrics metrics, final String route) {
+        this.origin = origin;
+        this.metrics = metrics;
+        this.route = route;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final long start = System.nanoTime();
+        final String method = new RequestLineFrom(line).method().value();
+        final AtomicLong received = new AtomicLong();
+        final Response response = this.origin.response(
+            line, headers,
+            Flowable.fromPublisher(body).doOnNext(buf -> received.addAndGet(buf.remaining()))
+        );
+        return connection -> {
+            final AtomicReference<RsStatus> code = new AtomicReference<>();
+            final AtomicLong sent = new AtomicLong();
+            return response.send(
+                (status, rsheaders, rsbody) -> {
+                    code.set(status);
+                    return connection.accept(
+                        status, rsheaders,
+                        Flowable.fromPublisher(rsbody)
+                            .doOnNext(buf -> sent.addAndGet(buf.remaining()))
+                    );
+                }
+            ).whenComplete(
+                (nothing, err) -> {
+                    final String status;
+                    if (err == null && code.get() != null) {
+                        status = code.get().code();
+                    } else {
+                        status = "error";
+                    }
+                    this.metrics.time(
+                        "maven.request", Duration.ofNanos(System.nanoTime() - start),
+                        "route", this.route, "method", method, "status", status
+                    );
+                    this.metrics.count(
+                        "maven.request.bytes.in", received.get(), "route", this.route
+                    );
+                    this.metrics.count(
+                        "maven.request.bytes.out", sent.get(), "route", this.route
+                    );
+                }
+            );
+        };
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice over ordered list of upstream mirrors for requests without body. Mirrors are tried
+ * in order, next mirror is requested when previous one fails or doesn't find the item, the
+ * first successful (or {@code 304 Not Modified}) response is returned. If the first mirror
+ * doesn't respond within its 95th percentile of recent latencies, hedged request is sent to
+ * the next mirror and the first successful response wins. Mirrors with open circuit
+ * (see {@link UpstreamHealth}) are skipped unless all mirrors are unavailable, mirror with
+ * half-open circuit is requested only by single probe request. Degraded mirrors, which
+ * failed more than half of recent requests, are tried after other mirrors.
+ * @since 0.12
+ */
+final class MirrorsSlice implements Slice {
+
+    /**
+     * Upstream mirrors.
+     */
+    private final List<Slice> mirrors;
+
+    /**
+     * Health of the mirrors.
+     */
+    private final List<UpstreamHealth> health;
+
+    /**
+     * Ctor.
+     * @param mirrors Upstream mirrors in order of preference
+     */
+    MirrorsSlice(final List<Slice> mirrors) {
+        this(
+            mirrors,
+            mirrors.stream().map(mirror -> new UpstreamHealth()).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param mirrors Upstream mirrors in order of preference
+     * @param health Health of the mirrors
+     */
+    MirrorsSlice(final List<Slice> mirrors, final List<UpstreamHealth> health) {
+        this.mirrors = mirrors;
+        this.health = health;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final List<Integer> order = IntStream.range(0, this.mirrors.size())
+            .filter(idx -> this.health.get(idx).available())
+            .boxed()
+            .sorted(Comparator.comparing(idx -> this.health.get(idx).degraded()))
+            .collect(Collectors.toList());
+        final Race race;
+        if (order.isEmpty()) {
+            race = new Race(
+                IntStream.range(0, this.mirrors.size()).boxed().collect(Collectors.toList()),
+                true, line, headers
+            );
+        } else {
+            race = new Race(order, false, line, headers);
+        }
+        return new AsyncResponse(race.start());
+    }
+
+    /**
+     * Request to mirrors.
+     * @since 0.12
+     */
+    private final class Race {
+
+        /**
+         * Indexes of mirrors to try.
+         */
+        private final List<Integer> order;
+
+        /**
+         * Request mirrors without circuit permission, when all mirrors are unavailable.
+         */
+        private final boolean forced;
+
+        /**
+         * Request line.
+         */
+        private final String line;
+
+        /**
+         * Request headers.
+         */
+        private final Iterable<Map.Entry<String, String>> headers;
+
+        /**
+         * Resulting response.
+         */
+        private final CompletableFuture<Response> result;
+
+        /**
+         * Position of the next mirror to request.
+         */
+        private final AtomicInteger next;
+
+        /**
+         * Number of requests in progress.
+         */
+        private final AtomicInteger pending;
+
+        /**
+         * Last unsuccessful answer.
+         */
+        private final AtomicReference<Answer> last;
+
+        /**
+         * Last request error.
+         */
+        private final AtomicReference<Throwable> error;
+
+        /**
+         * Ctor.
+         * @param order Indexes of mirrors to try
+         * @param forced Request mirrors without circuit permission
+         * @param line Request line
+         * @param headers Request headers
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Race(final List<Integer> order, final boolean forced, final String line,
+            final Iterable<Map.Entry<String, String>> headers) {
+            this.order = order;
+            this.forced = forced;
+            this.line = line;
+            this.headers = headers;
+            this.result = new CompletableFuture<>();
+            this.next = new AtomicInteger();
+            this.pending = new AtomicInteger();
+            this.last = new AtomicReference<>();
+            this.error = new AtomicReference<>();
+        }
+
+        /**
+         * Request the first mirror and schedule hedged request.
+         * @return Response
+         */
+        CompletionStage<Response> start() {
+            this.launch(0);
+            MirrorsSlice.this.health.get(this.order.get(0)).p95().ifPresent(
+                p95 -> CompletableFuture.runAsync(
+                    () -> {
+                        if (!this.result.isDone()) {
+                            this.launch(1);
+                        }
+                    },
+                    CompletableFuture.delayedExecutor(p95.toNanos(), TimeUnit.NANOSECONDS)
+                )
+            );
+            return this.result;
+        }
+
+        /**
+         * Request mirror at given position if it was not requested yet. Mirror which
+         * circuit doesn't permit the request, e.g. mirror which is being probed, is skipped.
+         * @param pos Position of the mirror
+         */
+        private void launch(final int pos) {
+            if (pos < this.order.size() && this.next.compareAndSet(pos, pos + 1)) {
+                this.pending.incrementAndGet();
+                final int idx = this.order.get(pos);
+                if (this.forced || MirrorsSlice.this.health.get(idx).acquire()) {
+                    this.request(idx);
+                } else {
+                    this.settle();
+                }
+            }
+        }
+
+        /**
+         * Request mirror.
+         * @param idx Mirror index
+         */
+        private void request(final int idx) {
+            final long start = System.nanoTime();
+            final CompletableFuture<Answer> answer = new CompletableFuture<>();
+            MirrorsSlice.this.mirrors.get(idx)
+                .response(this.line, this.headers, Content.EMPTY)
+                .send(
+                    (status, rsheaders, rsbody) -> {
+                        final CompletableFuture<Void> done = new CompletableFuture<>();
+                        answer.complete(new Answer(status, rsheaders, rsbody, done));
+                        return done;
+                    }
+                ).whenComplete(
+                    (nothing, err) -> {
+                        if (err != null) {
+                            answer.completeExceptionally(err);
+                        }
+                    }
+                );
+            answer.handle(
+                (res, err) -> {
+                    this.finish(idx, Duration.ofNanos(System.nanoTime() - start), res, err);
+                    return null;
+                }
+            );
+        }
+
+        /**
+         * Handle mirror answer: the first successful answer wins, other answers are
+         * discarded.
+         * @param idx Mirror index
+         * @param latency Time to answer
+         * @param answer Mirror answer or null on error
+         * @param err Request error or null
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private void finish(final int idx, final Duration latency, final Answer answer,
+            final Throwable err) {
+            if (err == null && !answer.status.serverError()) {
+                MirrorsSlice.this.health.get(idx).success(latency);
+            } else {
+                MirrorsSlice.this.health.get(idx).failure();
+            }
+            if (err == null && answer.found() && this.result.complete(answer.response())) {
+                Optional.ofNullable(this.last.getAndSet(null)).ifPresent(Answer::discard);
+            } else {
+                if (err != null) {
+                    this.error.set(err);
+                } else if (answer.found() || this.result.isDone()) {
+                    answer.discard();
+                } else {
+                    Optional.ofNullable(this.last.getAndSet(answer)).ifPresent(Answer::discard);
+                }
+                this.settle();
+            }
+        }
+
+        /**
+         * Settle finished or skipped mirror: when no requested mirrors are pending the next
+         * one is requested, when there are no more mirrors last unsuccessful answer or error
+         * is returned.
+         */
+        private void settle() {
+            if (this.pending.decrementAndGet() == 0 && !this.result.isDone()) {
+                if (this.next.get() < this.order.size()) {
+                    this.launch(this.next.get());
+                } else {
+                    final Answer res = this.last.getAndSet(null);
+                    final Throwable err = this.error.get();
+                    if (res != null) {
+                        this.result.complete(res.response());
+                    } else if (err == null) {
+                        this.result.complete(new RsWithStatus(RsStatus.UNAVAILABLE));
+                    } else {
+                        this.result.completeExceptionally(err);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Mirror answer.
+     * @since 0.12
+     */
+    private static final class Answer {
+
+        /**
+         * Response status.
+         */
+        private final RsStatus status;
+
+        /**
+         * Response headers.
+         */
+        private final Iterable<Map.Entry<String, String>> headers;
+
+        /**
+         * Response body.
+         */
+        private final Publisher<ByteBuffer> body;
+
+        /**
+         * Completion of answer processing.
+         */
+        private final CompletableFuture<Void> done;
+
+        /**
+         * Ctor.
+         * @param status Response status
+         * @param headers Response headers
+         * @param body Response body
+         * @param done Completion of answer processing
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Answer(final RsStatus status, final Iterable<Map.Entry<String, String>> headers,
+            final Publisher<ByteBuffer> body, final CompletableFuture<Void> done) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.done = done;
+        }
+
+        /**
+         * Did mirror find the item: successful or {@code 304} response.
+         * @return True if found
+         */
+        boolean found() {
+            return this.status.success() || this.status == RsStatus.NOT_MODIFIED;
+        }
+
+        /**
+         * Response with the answer.
+         * @return Response
+         */
+        Response response() {
+            return connection -> connection.accept(
+                this.status, new Headers.From(this.headers), this.body
+            ).whenComplete(
+                (nothing, err) -> {
+                    if (err == null) {
+                        this.done.complete(null);
+                    } else {
+                        this.done.completeExceptionally(err);
+                    }
+                }
+            );
+        }
+
+        /**
+         * Discard the answer: cancel the body.
+         */
+        void discard() {
+            Flowable.fromPublisher(this.body).subscribe().dispose();
+            this.done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.KeyLastPart;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Key of item which can change on remote: maven-metadata files with their checksums
+ * and items of snapshot versions. Other items of Maven repository are immutable.
+ * @since 0.12
+ */
+final class MutableKey {
+
+    /**
+     * Key.
+     */
+    private final Key key;
+
+    /**
+     * Ctor.
+     * @param key Key
+     */
+    MutableKey(final Key key) {
+        this.key = key;
+    }
+
+    /**
+     * Is the item mutable.
+     * @return True if it's maven-metadata or snapshot version item
+     */
+    boolean mutable() {
+        return new KeyLastPart(this.key).get().startsWith("maven-metadata")
+            || this.key.string().contains("-SNAPSHOT/");
+    }
+
+    /**
+     * Is cached item expired: mutable items expire after time to live since they were saved
+     * or revalidated, items without stored saved time are expired, immutable items never
+     * expire.
+     * @param stored Stored headers of cached item
+     * @param ttl Time to live of mutable items
+     * @return True if expired
+     */
+    boolean expired(final Optional<CachedHeaders.Item> stored, final Duration ttl) {
+        return this.mutable() && stored.map(
+            item -> !Instant.now().isBefore(item.saved().plus(ttl))
+        ).orElse(true);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of paths which were not found on upstream. Every path expires
+ * after time to live since it was added, the oldest paths are evicted when the cache is full.
+ * @since 0.12
+ */
+public final class NegativeCache {
+
+    /**
+     * Negative cache which doesn't keep any paths.
+     */
+    public static final NegativeCache NONE = new NegativeCache(Duration.ZERO, 0);
+
+    /**
+     * Time to live of the path.
+     */
+    private final Duration ttl;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Expiration time by paths.
+     */
+    private final Map<String, Instant> paths;
+
+    /**
+     * Number of requests answered from the cache.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * Ctor.
+     * @param ttl Time to live of the path
+     * @param size Max number of paths
+     */
+    public NegativeCache(final Duration ttl, final int size) {
+        this(ttl, size, Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     * @param ttl Time to live of the path
+     * @param size Max number of paths
+     * @param clock Clock
+     */
+    @SuppressWarnings("serial")
+    public NegativeCache(final Duration ttl, final int size, final Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.paths = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Instant> eldest) {
+                return this.size() > size;
+            }
+        };
+        this.hits = new AtomicLong();
+    }
+
+    /**
+     * Add path which was not found on upstream.
+     * @param key Path key
+     */
+    public void add(final Key key) {
+        synchronized (this.paths) {
+            this.paths.remove(key.string());
+            this.paths.put(key.string(), this.clock.instant().plus(this.ttl));
+        }
+    }
+
+    /**
+     * Check the path is known to be missing on upstream, expired path is removed.
+     * @param key Path key
+     * @return True if path was not found on upstream and has not expired
+     */
+    public boolean missing(final Key key) {
+        final boolean res;
+        synchronized (this.paths) {
+            final Instant expiration = this.paths.get(key.string());
+            if (expiration != null && this.clock.instant().isBefore(expiration)) {
+                res = true;
+            } else {
+                this.paths.remove(key.string());
+                res = false;
+            }
+        }
+        if (res) {
+            this.hits.incrementAndGet();
+        }
+        return res;
+    }
+
+    /**
+     * Number of requests answered from the cache.
+     * @return Hits count
+     */
+    public long hits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Number of paths in the cache, including expired paths not removed yet.
+     * @return Size
+     */
+    public int size() {
+        synchronized (this.paths) {
+            return this.paths.size();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Key;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.KeyFromPath;
+import com.artipie.maven.metrics.Metrics;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+
+/**
+ * Upstream slice with {@link NegativeCache}: paths known to be missing are answered with
+ * {@code 404} without upstream request, {@code 404} responses of upstream are added
+ * to the cache. Mutable paths, see {@link MutableKey}, are never added to the cache: missing
+ * maven-metadata or snapshot can be deployed to upstream at any moment. Answers from the
+ * cache are counted by {@code maven.proxy.negative} counter.
+ * @since 0.12
+ */
+final class NegativeCacheSlice implements Slice {
+
+    /**
+     * Upstream slice.
+     */
+    private final Slice upstream;
+
+    /**
+     * Negative cache.
+     */
+    private final NegativeCache cache;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param upstream Upstream slice
+     * @param cache Negative cache
+     */
+    NegativeCacheSlice(final Slice upstream, final NegativeCache cache) {
+        this(upstream, cache, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param upstream Upstream slice
+     * @param cache Negative cache
+     * @param metrics Metrics
+     */
+    NegativeCacheSlice(final Slice upstream, final NegativeCache cache, final Metrics metrics) {
+        this.upstream = upstream;
+        this.cache = cache;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final Key key = new KeyFromPath(new RequestLineFrom(line).uri().getPath());
+        final Response res;
+        if (this.cache.missing(key)) {
+            this.metrics.count("maven.proxy.negative", 1, "result", "hit");
+            res = StandardRs.NOT_FOUND;
+        } else {
+            res = connection -> this.upstream.response(line, headers, body).send(
+                (status, rsheaders, rsbody) -> {
+                    if (status == RsStatus.NOT_FOUND && !new MutableKey(key).mutable()) {
+                        this.cache.add(key);
+                    }
+                    return connection.accept(status, rsheaders, rsbody);
+                }
+            );
+        }
+        return res;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upstream outage handling of maven proxy: upstream requests which don't answer within
+ * the timeout fail, after several consecutive failures upstream is considered down and
+ * requests to it fail fast until cool down time passes, then single probe request is let
+ * through and its outcome decides whether upstream is up again. Cached items are served as usual
+ * while upstream is down, expired items served in this time are counted as stale answers.
+ * @since 0.12
+ */
+public final class Outage {
+
+    /**
+     * Upstream response timeout.
+     */
+    private final Duration timeout;
+
+    /**
+     * Upstream health.
+     */
+    private final UpstreamHealth health;
+
+    /**
+     * Number of expired items served while upstream was down.
+     */
+    private final AtomicLong stale;
+
+    /**
+     * Number of upstream requests rejected while upstream was down.
+     */
+    private final AtomicLong rejected;
+
+    /**
+     * Ctor with one minute upstream timeout and 30 seconds cool down.
+     */
+    public Outage() {
+        this(Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    /**
+     * Ctor.
+     * @param timeout Upstream response timeout: max time to receive response status
+     * @param cooldown Time to fail fast when upstream is down
+     */
+    public Outage(final Duration timeout, final Duration cooldown) {
+        this(timeout, new UpstreamHealth(cooldown, Clock.systemUTC()));
+    }
+
+    /**
+     * Ctor.
+     * @param timeout Upstream response timeout
+     * @param health Upstream health
+     */
+    Outage(final Duration timeout, final UpstreamHealth health) {
+        this.timeout = timeout;
+        this.health = health;
+        this.stale = new AtomicLong();
+        this.rejected = new AtomicLong();
+    }
+
+    /**
+     * Is upstream down: requests to it fail fast.
+     * @return True if down
+     */
+    public boolean down() {
+        return !this.health.available();
+    }
+
+    /**
+     * Number of expired items served from cache while upstream was down.
+     * @return Stale answers count
+     */
+    public long stale() {
+        return this.stale.get();
+    }
+
+    /**
+     * Number of upstream requests rejected without trying while upstream was down.
+     * @return Rejected requests count
+     */
+    public long rejected() {
+        return this.rejected.get();
+    }
+
+    /**
+     * Acquire permission to request upstream: it's not granted if upstream is down, or if
+     * upstream is being probed after cool down time.
+     * @return True if upstream can be requested
+     */
+    boolean admit() {
+        return this.health.acquire();
+    }
+
+    /**
+     * Upstream response timeout.
+     * @return Timeout
+     */
+    Duration timeout() {
+        return this.timeout;
+    }
+
+    /**
+     * Record upstream response.
+     * @param latency Time to response
+     */
+    void success(final Duration latency) {
+        this.health.success(latency);
+    }
+
+    /**
+     * Record upstream failure: server error, connection failure or timeout.
+     */
+    void failure() {
+        this.health.failure();
+    }
+
+    /**
+     * Record upstream request rejected because upstream is down.
+     */
+    void reject() {
+        this.rejected.incrementAndGet();
+    }
+
+    /**
+     * Record expired item served from cache, it's counted as stale answer if upstream
+     * is down.
+     * @return True if it's stale answer
+     */
+    boolean expired() {
+        final boolean res = this.down();
+        if (res) {
+            this.stale.incrementAndGet();
+        }
+        return res;
+    }
+}
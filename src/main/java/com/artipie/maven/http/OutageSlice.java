@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.maven.metrics.Metrics;
+import com.jcabi.log.Logger;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.reactivestreams.Publisher;
+
+/**
+ * Upstream slice with {@link Outage} handling: upstream requests fail with
+ * {@code 503 Service Unavailable} if upstream doesn't answer within the timeout or fails,
+ * and are answered with {@code 503} without trying while upstream is down or while single
+ * probe request checks whether upstream is up after cool down time. Time to upstream
+ * response status is recorded to {@code maven.proxy.upstream} timer with {@code status} tag,
+ * rejected requests are counted by {@code maven.proxy.outage} counter with {@code rejected}
+ * result.
+ * @since 0.12
+ */
+final class OutageSlice implements Slice {
+
+    /**
+     * Upstream slice.
+     */
+    private final Slice upstream;
+
+    /**
+     * Outage handling.
+     */
+    private final Outage outage;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param upstream Upstream slice
+     * @param outage Outage handling
+     */
+    OutageSlice(final Slice upstream, final Outage outage) {
+        this(upstream, outage, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param upstream Upstream slice
+     * @param outage Outage handling
+     * @param metrics Metrics
+     */
+    OutageSlice(final Slice upstream, final Outage outage, final Metrics metrics) {
+        this.upstream = upstream;
+        this.outage = outage;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final Response res;
+        if (!this.outage.admit()) {
+            this.outage.reject();
+            this.metrics.count("maven.proxy.outage", 1, "result", "rejected");
+            res = new RsWithStatus(RsStatus.UNAVAILABLE);
+        } else {
+            res = new AsyncResponse(this.answer(line, headers, body));
+        }
+        return res;
+    }
+
+    /**
+     * Request upstream and wait for response status within the timeout. Response which
+     * comes after the timeout is discarded.
+     * @param line Request line
+     * @param headers Request headers
+     * @param body Request body
+     * @return Upstream response or {@code 503} on failure
+     */
+    private CompletionStage<Response> answer(final String line,
+        final Iterable<Map.Entry<String, String>> headers, final Publisher<ByteBuffer> body) {
+        final long start = System.nanoTime();
+        final CompletableFuture<Response> answer = new CompletableFuture<>();
+        this.upstream.response(line, headers, body).send(
+            (status, rsheaders, rsbody) -> {
+                final CompletableFuture<Void> done = new CompletableFuture<>();
+                final Response rsp = connection -> connection.accept(status, rsheaders, rsbody)
+                    .whenComplete(
+                        (nothing, err) -> {
+                            if (err == null) {
+                                done.complete(null);
+                            } else {
+                                done.completeExceptionally(err);
+                            }
+                        }
+                    );
+                if (answer.complete(rsp)) {
+                    final Duration latency = Duration.ofNanos(System.nanoTime() - start);
+                    if (status.serverError()) {
+                        this.outage.failure();
+                    } else {
+                        this.outage.success(latency);
+                    }
+                    this.metrics.time("maven.proxy.upstream", latency, "status", status.code());
+                } else {
+                    Flowable.fromPublisher(rsbody).subscribe().dispose();
+                    done.complete(null);
+                }
+                return done;
+            }
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err != null) {
+                    answer.completeExceptionally(err);
+                }
+            }
+        );
+        return answer.orTimeout(this.outage.timeout().toNanos(), TimeUnit.NANOSECONDS).handle(
+            (rsp, err) -> {
+                final Response res;
+                if (err == null) {
+                    res = rsp;
+                } else {
+                    this.outage.failure();
+                    this.metrics.time(
+                        "maven.proxy.upstream", Duration.ofNanos(System.nanoTime() - start),
+                        "status", "error"
+                    );
+                    Logger.warn(this, "Upstream failed for %s: %[exception]s", line, err);
+                    res = new RsWithStatus(RsStatus.UNAVAILABLE);
+                }
+                return res;
+            }
+        );
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.cache.CacheControl;
+import com.artipie.asto.cache.Remote;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Cache control of reads which are not client reads of the item: checks of cached items by
+ * {@code HEAD} requests, prefetch and refresh, reads of items loaded by concurrent load.
+ * Cached item is always valid as with {@link CacheControl.Standard#ALWAYS}, {@link QuotaCache}
+ * doesn't count such reads as cache hits and doesn't update usage of the item.
+ * @since 0.12
+ */
+final class Peek implements CacheControl {
+
+    /**
+     * Peek cache control.
+     */
+    static final CacheControl CONTROL = new Peek();
+
+    /**
+     * Ctor.
+     */
+    private Peek() {
+    }
+
+    @Override
+    public CompletionStage<Boolean> validate(final Key item, final Remote content) {
+        return CompletableFuture.completedFuture(true);
+    }
+}
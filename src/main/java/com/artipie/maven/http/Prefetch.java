@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Key;
+import com.artipie.maven.metadata.ProjectPom;
+import com.jcabi.log.Logger;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Dependency-aware prefetch of proxied items: when POM is loaded to the cache from
+ * remote, project jar, parent POM and direct dependencies POMs are enqueued for background
+ * cache fill, see {@link ProjectPom}. Prefetched POMs enqueue their dependencies in turn
+ * until max depth is reached. Number of concurrent fills is bounded, instance is shared
+ * by proxy slices which should be limited together.
+ * @since 0.12
+ */
+public final class Prefetch {
+
+    /**
+     * Prefetch is disabled.
+     */
+    public static final Prefetch NONE = new Prefetch(0, 0);
+
+    /**
+     * Max number of concurrent fills.
+     */
+    private final int concurrency;
+
+    /**
+     * Max depth of dependencies to prefetch.
+     */
+    private final int depth;
+
+    /**
+     * Enqueued or running keys with their depth.
+     */
+    private final Map<String, Integer> levels;
+
+    /**
+     * Keys to fill.
+     */
+    private final Queue<Key> queue;
+
+    /**
+     * Number of running fills.
+     */
+    private final AtomicInteger running;
+
+    /**
+     * Number of completed fills.
+     */
+    private final AtomicLong filled;
+
+    /**
+     * Ctor.
+     * @param concurrency Max number of concurrent fills
+     * @param depth Max depth of dependencies to prefetch: 1 to prefetch dependencies of the
+     *  requested POM, 2 to prefetch their dependencies too, etc.
+     */
+    public Prefetch(final int concurrency, final int depth) {
+        this.concurrency = concurrency;
+        this.depth = depth;
+        this.levels = new ConcurrentHashMap<>();
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.running = new AtomicInteger();
+        this.filled = new AtomicLong();
+    }
+
+    /**
+     * Number of completed fills.
+     * @return Filled items count
+     */
+    public long filled() {
+        return this.filled.get();
+    }
+
+    /**
+     * Should items needed by the item be prefetched: item is POM and max depth is
+     * not reached.
+     * @param key Item key
+     * @return True if item POM should be passed to
+     *  {@link #loaded(Key, byte[], Function)}
+     */
+    boolean accepts(final Key key) {
+        return key.string().endsWith(".pom")
+            && this.levels.getOrDefault(key.string(), 0) < this.depth;
+    }
+
+    /**
+     * Enqueue items needed by the POM loaded to the cache.
+     * @param key POM key
+     * @param pom POM content
+     * @param fill Loads the item to the cache if it's not cached
+     */
+    void loaded(final Key key, final byte[] pom, final Function<Key, CompletionStage<?>> fill) {
+        if (this.accepts(key)) {
+            final int level = this.levels.getOrDefault(key.string(), 0);
+            final List<Key> keys = new ArrayList<>(0);
+            try {
+                final ProjectPom project = new ProjectPom(
+                    new XMLDocument(new String(pom, StandardCharsets.UTF_8))
+                );
+                project.artifact().ifPresent(keys::add);
+                project.parent().ifPresent(keys::add);
+                keys.addAll(project.dependencies());
+            } catch (final IllegalArgumentException err) {
+                Logger.warn(this, "Failed to parse %s: %[exception]s", key.string(), err);
+            }
+            for (final Key item : keys) {
+                if (this.levels.putIfAbsent(item.string(), level + 1) == null) {
+                    this.queue.add(item);
+                }
+            }
+            this.drain(fill);
+        }
+    }
+
+    /**
+     * Start fills from the queue while concurrency allows.
+     * @param fill Loads the item to the cache if it's not cached
+     */
+    private void drain(final Function<Key, CompletionStage<?>> fill) {
+        while (!this.queue.isEmpty()) {
+            final int current = this.running.get();
+            if (current >= this.concurrency) {
+                break;
+            }
+            if (this.running.compareAndSet(current, current + 1)) {
+                final Key key = this.queue.poll();
+                if (key == null) {
+                    this.running.decrementAndGet();
+                } else {
+                    fill.apply(key).whenComplete(
+                        (nothing, err) -> {
+                            this.levels.remove(key.string());
+                            this.running.decrementAndGet();
+                            if (err == null) {
+                                this.filled.incrementAndGet();
+                            } else {
+                                Logger.debug(
+                                    this, "Failed to prefetch %s: %[exception]s",
+                                    key.string(), err
+                                );
+                            }
+                            this.drain(fill);
+                        }
+                    );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.cache.Cache;
+import com.artipie.http.client.auth.Authenticator;
+import com.artipie.maven.metrics.Metrics;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Settings of {@link MavenProxySlice}. Settings are immutable, each {@code with} method
+ * returns new settings with the changed value, e.g.:
+ * <pre>{@code
+ * new MavenProxySlice(
+ *     clients,
+ *     new ProxySettings(remotes)
+ *         .withCache(cache)
+ *         .withTtl(Duration.ofMinutes(10))
+ *         .withMetrics(metrics)
+ * );
+ * }</pre>
+ * Defaults are anonymous access, no cache, cached metadata and snapshots are revalidated
+ * with remote on every request, no negative cache, no detached fills and prefetch, default
+ * {@link Outage} handling and no metrics.
+ * @since 0.12
+ * @checkstyle ParameterNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class ProxySettings {
+
+    /**
+     * Remote URIs in order of preference.
+     */
+    private final List<URI> remotes;
+
+    /**
+     * Authenticator.
+     */
+    private final Authenticator auth;
+
+    /**
+     * Repository cache.
+     */
+    private final Cache cache;
+
+    /**
+     * Time to live of cached maven-metadata and snapshots.
+     */
+    private final Duration ttl;
+
+    /**
+     * Serve expired metadata and snapshots from cache and refresh them in background.
+     */
+    private final boolean stale;
+
+    /**
+     * Cache of paths not found on remote.
+     */
+    private final NegativeCache negative;
+
+    /**
+     * Budget of cache fills which continue after client disconnects.
+     */
+    private final DetachedFills fills;
+
+    /**
+     * Prefetch of jars and dependencies of POMs loaded from remote.
+     */
+    private final Prefetch prefetch;
+
+    /**
+     * Upstream timeout and outage handling.
+     */
+    private final Outage outage;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Settings of proxy for single remote.
+     * @param remote Remote URI
+     */
+    public ProxySettings(final URI remote) {
+        this(Collections.singletonList(remote));
+    }
+
+    /**
+     * Settings of proxy over ordered list of remote mirrors, see {@link MirrorsSlice}.
+     * @param remotes Remote URIs in order of preference
+     */
+    public ProxySettings(final List<URI> remotes) {
+        this(
+            remotes, Authenticator.ANONYMOUS, Cache.NOP, Duration.ZERO, false,
+            NegativeCache.NONE, DetachedFills.NONE, Prefetch.NONE, new Outage(), Metrics.NOP
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param remotes Remote URIs in order of preference
+     * @param auth Authenticator
+     * @param cache Repository cache
+     * @param ttl Time to live of cached maven-metadata and snapshots
+     * @param stale Serve expired metadata and snapshots from cache and refresh them in
+     *  background
+     * @param negative Cache of paths not found on remote
+     * @param fills Budget of cache fills which continue after client disconnects
+     * @param prefetch Prefetch of jars and dependencies of POMs loaded from remote
+     * @param outage Upstream timeout and outage handling
+     * @param metrics Metrics
+     */
+    private ProxySettings(
+        final List<URI> remotes,
+        final Authenticator auth,
+        final Cache cache,
+        final Duration ttl,
+        final boolean stale,
+        final NegativeCache negative,
+        final DetachedFills fills,
+        final Prefetch prefetch,
+        final Outage outage,
+        final Metrics metrics
+    ) {
+        this.remotes = remotes;
+        this.auth = auth;
+        this.cache = cache;
+        this.ttl = ttl;
+        this.stale = stale;
+        this.negative = negative;
+        this.fills = fills;
+        this.prefetch = prefetch;
+        this.outage = outage;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Settings with authenticator.
+     * @param value Authenticator
+     * @return Settings
+     */
+    public ProxySettings withAuth(final Authenticator value) {
+        return new ProxySettings(
+            this.remotes, value, this.cache, this.ttl, this.stale, this.negative, this.fills,
+            this.prefetch, this.outage, this.metrics
+        );
+    }
+
+    /**
+     * Settings with repository cache.
+     * @param value Repository cache
+     * @return Settings
+     */
+    public ProxySettings withCache(final Cache value) {
+        return new ProxySettings(
+            this.remotes, this.auth, value, this.ttl, this.stale, this.negative, this.fills,
+            this.prefetch, this.outage, this.metrics
+        );
+    }
+
+    /**
+     * Settings with time to live of cached maven-metadata and snapshots: fresh items are
+     * served from cache without remote requests, expired items are revalidated with remote.
+     * @param value Time to live
+     * @return Settings
+     */
+    public ProxySettings withTtl(final Duration value) {
+        return new ProxySettings(
+            this.remotes, this.auth, this.cache, value, this.stale, this.negative, this.fills,
+            this.prefetch, this.outage, this.metrics
+        );
+    }
+
+    /**
+     * Settings with stale-while-revalidate: expired maven-metadata and snapshots are served
+     * from cache at once and refreshed in background, clients can get outdated metadata
+     * until refresh completes.
+     * @param value Serve expired items and refresh them in background
+     * @return Settings
+     */
+    public ProxySettings withStaleWhileRevalidate(final boolean value) {
+        return new ProxySettings(
+            this.remotes, this.auth, this.cache, this.ttl, value, this.negative, this.fills,
+            this.prefetch, this.outage, this.metrics
+        );
+    }
+
+    /**
+     * Settings with cache of paths not found on remote, shared by GET and HEAD requests.
+     * Missing maven-metadata and snapshots are not cached.
+     * @param value Negative cache
+     * @return Settings
+     */
+    public ProxySettings withNegative(final NegativeCache value) {
+        return new ProxySettings(
+            this.remotes, this.auth, this.cache, this.ttl, this.stale, value, this.fills,
+            this.prefetch, this.outage, this.metrics
+        );
+    }
+
+    /**
+     * Settings with budget of cache fills which continue after client disconnects.
+     * @param value Detached fills budget
+     * @return Settings
+     */
+    public ProxySettings withFills(final DetachedFills value) {
+        return new ProxySettings(
+            this.remotes, this.auth, this.cache, this.ttl, this.stale, this.negative, value,
+            this.prefetch, this.outage, this.metrics
+        );
+    }
+
+    /**
+     * Settings with prefetch of jars and dependencies of POMs loaded from remote.
+     * @param value Prefetch
+     * @return Settings
+     */
+    public ProxySettings withPrefetch(final Prefetch value) {
+        return new ProxySettings(
+            this.remotes, this.auth, this.cache, this.ttl, this.stale, this.negative, this.fills,
+            value, this.outage, this.metrics
+        );
+    }
+
+    /**
+     * Settings with upstream timeout and outage handling: cached items are served while
+     * upstream is down.
+     * @param value Outage handling
+     * @return Settings
+     */
+    public ProxySettings withOutage(final Outage value) {
+        return new ProxySettings(
+            this.remotes, this.auth, this.cache, this.ttl, this.stale, this.negative, this.fills,
+            this.prefetch, value, this.metrics
+        );
+    }
+
+    /**
+     * Settings with metrics: request latency and body sizes per route, cache hits and
+     * misses, coalesced loads, negative cache hits, outage answers and upstream latency.
+     * @param value Metrics
+     * @return Settings
+     */
+    public ProxySettings withMetrics(final Metrics value) {
+        return new ProxySettings(
+            this.remotes, this.auth, this.cache, this.ttl, this.stale, this.negative, this.fills,
+            this.prefetch, this.outage, value
+        );
+    }
+
+    /**
+     * Remote URIs.
+     * @return Remote URIs in order of preference
+     */
+    List<URI> remotes() {
+        return this.remotes;
+    }
+
+    /**
+     * Authenticator.
+     * @return Authenticator
+     */
+    Authenticator auth() {
+        return this.auth;
+    }
+
+    /**
+     * Repository cache.
+     * @return Cache
+     */
+    Cache cache() {
+        return this.cache;
+    }
+
+    /**
+     * Time to live of cached maven-metadata and snapshots.
+     * @return Time to live
+     */
+    Duration ttl() {
+        return this.ttl;
+    }
+
+    /**
+     * Serve expired maven-metadata and snapshots and refresh them in background.
+     * @return True if stale-while-revalidate is enabled
+     */
+    boolean stale() {
+        return this.stale;
+    }
+
+    /**
+     * Cache of paths not found on remote.
+     * @return Negative cache
+     */
+    NegativeCache negative() {
+        return this.negative;
+    }
+
+    /**
+     * Budget of cache fills which continue after client disconnects.
+     * @return Detached fills budget
+     */
+    DetachedFills fills() {
+        return this.fills;
+    }
+
+    /**
+     * Prefetch of jars and dependencies of POMs.
+     * @return Prefetch
+     */
+    Prefetch prefetch() {
+        return this.prefetch;
+    }
+
+    /**
+     * Upstream outage handling.
+     * @return Outage handling
+     */
+    Outage outage() {
+        return this.outage;
+    }
+
+    /**
+     * Metrics.
+     * @return Metrics
+     */
+    Metrics metrics() {
+        return this.metrics;
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.cache.Cache;
+import com.artipie.asto.cache.CacheControl;
+import com.artipie.asto.cache.FromStorageCache;
+import com.artipie.asto.cache.Remote;
+import com.artipie.maven.metrics.Metrics;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Storage cache bounded by total size of cached items. Items access is tracked in memory,
+ * cache hits don't write to the storage and don't reorder items: hit only updates hits count
+ * and access time of the item. Items are kept ordered by {@link Eviction} policy by usage
+ * snapshots, when total size exceeds the quota, background evictor takes items in this order,
+ * item accessed after its snapshot was taken is put back with the current usage, other items
+ * are removed with their stored headers until total size drops to low water mark. Only items
+ * loaded or read through this cache, or registered with {@link #index()}, are accounted;
+ * hidden items (e.g. stored headers) are not accounted. Reads with {@link Peek} cache control
+ * are not client reads, they are not counted as hits and don't update usage of the item.
+ * Cache hits, misses and evicted items are counted by {@code maven.proxy.cache} counter with
+ * {@code result} tag: {@code hit}, {@code miss} or {@code evicted}, and {@code layer} tag
+ * {@code quota}.
+ * @since 0.12
+ */
+public final class QuotaCache implements Cache {
+
+    /**
+     * Max number of concurrent storage requests on indexing.
+     */
+    private static final int INDEX_REQUESTS = 16;
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Origin cache.
+     */
+    private final Cache origin;
+
+    /**
+     * Max total size of cached items.
+     */
+    private final long quota;
+
+    /**
+     * Total size of cached items after eviction.
+     */
+    private final long low;
+
+    /**
+     * Cached items usage.
+     */
+    private final Map<String, Item> items;
+
+    /**
+     * Usage of cached items in eviction order, items which should be evicted first go first.
+     */
+    private final NavigableSet<Usage> order;
+
+    /**
+     * Total size of cached items.
+     */
+    private final LongAdder total;
+
+    /**
+     * Number of bytes evicted.
+     */
+    private final LongAdder evicted;
+
+    /**
+     * Number of cache hits.
+     */
+    private final LongAdder hits;
+
+    /**
+     * Number of cache misses.
+     */
+    private final LongAdder misses;
+
+    /**
+     * Is evictor running.
+     */
+    private final AtomicBoolean evicting;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param quota Max total size of cached items, items are evicted to 90% of quota
+     * @param eviction Eviction policy
+     */
+    public QuotaCache(final Storage storage, final long quota, final Eviction eviction) {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(storage, quota, quota / 10 * 9, eviction);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param quota Max total size of cached items
+     * @param low Total size of cached items after eviction
+     * @param eviction Eviction policy
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public QuotaCache(final Storage storage, final long quota, final long low,
+        final Eviction eviction) {
+        this(storage, quota, low, eviction, Metrics.NOP);
+    }
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     * @param quota Max total size of cached items
+     * @param low Total size of cached items after eviction
+     * @param eviction Eviction policy
+     * @param metrics Metrics
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public QuotaCache(final Storage storage, final long quota, final long low,
+        final Eviction eviction, final Metrics metrics) {
+        this.storage = storage;
+        this.origin = new FromStorageCache(storage);
+        this.quota = quota;
+        this.low = low;
+        this.items = new ConcurrentHashMap<>();
+        this.order = new ConcurrentSkipListSet<>(
+            Comparator.<Usage, Eviction.Usage>comparing(usage -> usage, eviction.order())
+                .thenComparing(usage -> usage.item.key.string())
+        );
+        this.total = new LongAdder();
+        this.evicted = new LongAdder();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evicting = new AtomicBoolean();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletionStage<Optional<? extends Content>> load(final Key key, final Remote remote,
+        final CacheControl control) {
+        final boolean ignored = key.string().startsWith(".") || control == Peek.CONTROL;
+        if (!ignored && remote != Remote.EMPTY) {
+            this.misses.increment();
+            this.metrics.count("maven.proxy.cache", 1, "result", "miss", "layer", "quota");
+        }
+        return this.origin.load(key, remote, control).thenApply(
+            content -> {
+                if (!ignored && content.isPresent()) {
+                    this.accessed(key, content.get(), remote == Remote.EMPTY);
+                }
+                return content;
+            }
+        );
+    }
+
+    /**
+     * Register items which are already in the storage, they are evicted first by
+     * {@link Eviction.Lru} policy. Sizes of items are requested from the storage with
+     * bounded concurrency.
+     * @return Completion of indexing
+     */
+    public CompletionStage<Void> index() {
+        return this.storage.list(Key.ROOT).thenCompose(
+            keys -> Flowable.fromIterable(keys)
+                .filter(key -> !key.string().startsWith("."))
+                .flatMapCompletable(
+                    key -> CompletableInterop.fromFuture(
+                        this.storage.size(key).thenAccept(
+                            size -> this.register(key, size, Instant.EPOCH)
+                        )
+                    ),
+                    false,
+                    QuotaCache.INDEX_REQUESTS
+                ).to(CompletableInterop.await())
+        ).thenRun(this::evict);
+    }
+
+    /**
+     * Total size of accounted cached items.
+     * @return Size in bytes
+     */
+    public long size() {
+        return this.total.sum();
+    }
+
+    /**
+     * Number of evicted bytes.
+     * @return Evicted bytes
+     */
+    public long evicted() {
+        return this.evicted.sum();
+    }
+
+    /**
+     * Ratio of cache hits to all cache reads.
+     * @return Hit ratio from 0 to 1
+     */
+    public double hitRatio() {
+        final long hit = this.hits.sum();
+        final long all = hit + this.misses.sum();
+        final double res;
+        if (all == 0) {
+            res = 0;
+        } else {
+            res = (double) hit / all;
+        }
+        return res;
+    }
+
+    /**
+     * Record access of the item.
+     * @param key Item key
+     * @param content Item content
+     * @param hit Is item read from cache
+     */
+    private void accessed(final Key key, final Content content, final boolean hit) {
+        final Item item = this.items.get(key.string());
+        if (hit) {
+            this.hits.increment();
+            this.metrics.count("maven.proxy.cache", 1, "result", "hit", "layer", "quota");
+        }
+        if (item == null || !hit) {
+            final CompletionStage<Long> size = content.size()
+                .<CompletionStage<Long>>map(CompletableFuture::completedFuture)
+                .orElseGet(() -> this.storage.size(key));
+            size.thenAccept(
+                bytes -> {
+                    this.register(key, bytes, Instant.now());
+                    this.evict();
+                }
+            );
+        } else {
+            item.access();
+        }
+    }
+
+    /**
+     * Register the item with given size.
+     * @param key Item key
+     * @param size Item size
+     * @param accessed Access time
+     */
+    private void register(final Key key, final long size, final Instant accessed) {
+        final Item item = new Item(key, size, accessed);
+        final Item previous = this.items.put(key.string(), item);
+        this.total.add(size);
+        if (previous != null) {
+            previous.forget(this.order);
+            this.total.add(-previous.size());
+        }
+        item.enter(this.order);
+    }
+
+    /**
+     * Start background eviction if total size exceeds the quota and evictor is not running.
+     */
+    private void evict() {
+        if (this.total.sum() > this.quota && this.evicting.compareAndSet(false, true)) {
+            this.next().whenComplete(
+                (nothing, err) -> {
+                    this.evicting.set(false);
+                    if (err == null) {
+                        this.evict();
+                    } else {
+                        Logger.warn(this, "Cache eviction failed: %[exception]s", err);
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Remove items in eviction order one by one until total size drops to low water mark.
+     * Items accessed after their usage snapshots were taken are put back to the order with
+     * current usage.
+     * @return Completion of eviction
+     */
+    private CompletionStage<Void> next() {
+        CompletionStage<Void> res = CompletableFuture.allOf();
+        if (this.total.sum() > this.low) {
+            Usage first = this.order.pollFirst();
+            while (first != null && !first.item.current(first)) {
+                first.item.enter(this.order);
+                first = this.order.pollFirst();
+            }
+            if (first != null) {
+                res = this.remove(first.item).thenCompose(nothing -> this.next());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Remove the item and its stored headers from the storage.
+     * @param item Item
+     * @return Completion of removal
+     */
+    private CompletionStage<Void> remove(final Item item) {
+        return this.storage.delete(item.key).thenCompose(
+            nothing -> this.storage.exists(CachedHeaders.location(item.key))
+        ).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = this.storage.delete(CachedHeaders.location(item.key));
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        ).thenRun(
+            () -> {
+                item.forget(this.order);
+                if (this.items.remove(item.key.string(), item)) {
+                    this.metrics.count(
+                        "maven.proxy.cache", 1, "result", "evicted", "layer", "quota"
+                    );
+                    this.evicted.add(item.size());
+                    this.total.add(-item.size());
+                }
+            }
+        );
+    }
+
+    /**
+     * Usage of cached item at some moment, items are ordered by usage snapshots: the snapshot
+     * of accessed item is replaced in the order by evictor.
+     * @since 0.12
+     */
+    private static final class Usage implements Eviction.Usage {
+
+        /**
+         * Item.
+         */
+        private final Item item;
+
+        /**
+         * Hits count.
+         */
+        private final long count;
+
+        /**
+         * Access time.
+         */
+        private final Instant time;
+
+        /**
+         * Ctor.
+         * @param item Item
+         * @param count Hits count
+         * @param time Access time
+         */
+        Usage(final Item item, final long count, final Instant time) {
+            this.item = item;
+            this.count = count;
+            this.time = time;
+        }
+
+        @Override
+        public long hits() {
+            return this.count;
+        }
+
+        @Override
+        public Instant accessed() {
+            return this.time;
+        }
+
+        @Override
+        public long size() {
+            return this.item.size();
+        }
+    }
+
+    /**
+     * Cached item usage.
+     * @since 0.12
+     */
+    private static final class Item {
+
+        /**
+         * Item key.
+         */
+        private final Key key;
+
+        /**
+         * Item size.
+         */
+        private final long bytes;
+
+        /**
+         * Hits count.
+         */
+        private final AtomicLong count;
+
+        /**
+         * Last access time.
+         */
+        private volatile Instant time;
+
+        /**
+         * Usage snapshot in the order.
+         */
+        private Usage usage;
+
+        /**
+         * Is item removed from the order.
+         */
+        private boolean gone;
+
+        /**
+         * Ctor.
+         * @param key Item key
+         * @param size Item size
+         * @param accessed Access time
+         */
+        Item(final Key key, final long size, final Instant accessed) {
+            this.key = key;
+            this.bytes = size;
+            this.count = new AtomicLong();
+            this.time = accessed;
+            this.usage = new Usage(this, 0, accessed);
+        }
+
+        /**
+         * Item size.
+         * @return Size in bytes
+         */
+        long size() {
+            return this.bytes;
+        }
+
+        /**
+         * Record cache hit, the item is not moved in the order.
+         */
+        void access() {
+            this.count.incrementAndGet();
+            this.time = Instant.now();
+        }
+
+        /**
+         * Is usage snapshot current: item was not accessed after the snapshot was taken.
+         * @param snapshot Usage snapshot
+         * @return True if current
+         */
+        boolean current(final Usage snapshot) {
+            return snapshot.count == this.count.get() && snapshot.time.equals(this.time);
+        }
+
+        /**
+         * Add current usage of the item to the order.
+         * @param order Items order
+         */
+        synchronized void enter(final NavigableSet<Usage> order) {
+            if (!this.gone) {
+                order.remove(this.usage);
+                this.usage = new Usage(this, this.count.get(), this.time);
+                order.add(this.usage);
+            }
+        }
+
+        /**
+         * Remove the item from the order, it's not added to the order anymore.
+         * @param order Items order
+         */
+        synchronized void forget(final NavigableSet<Usage> order) {
+            this.gone = true;
+            order.remove(this.usage);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.UnicastProcessor;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Content split to the client and to the cache. Every chunk of the origin is passed to both
+ * parts, the origin is read as fast as the client requests but no more than {@link #PREFETCH}
+ * chunks ahead of the cache part demand, so only a few chunks are buffered for the slower
+ * part. If the client cancels its part, the origin is read to the end into the cache part
+ * as fast as the cache requests when {@link DetachedFills} budget allows, otherwise the
+ * origin is cancelled and the cache part fails with {@link AbandonedLoadException}. If the
+ * cache part is cancelled or dropped, the origin is read for the client only, or cancelled
+ * if the client is gone too.
+ * @since 0.12
+ */
+final class TeeContent implements Subscriber<ByteBuffer> {
+
+    /**
+     * Number of chunks the origin is read ahead of the cache part demand.
+     */
+    static final long PREFETCH = 16L;
+
+    /**
+     * Origin content.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Budget of detached fills.
+     */
+    private final DetachedFills fills;
+
+    /**
+     * Client part.
+     */
+    private final UnicastProcessor<ByteBuffer> client;
+
+    /**
+     * Cache part.
+     */
+    private final UnicastProcessor<ByteBuffer> cache;
+
+    /**
+     * Origin subscription.
+     */
+    private final AtomicReference<Subscription> upstream;
+
+    /**
+     * Origin termination.
+     */
+    private final CompletableFuture<Void> done;
+
+    /**
+     * Demand of both parts and chunks requested from the origin.
+     */
+    private final Demand demand;
+
+    /**
+     * Ctor.
+     * @param origin Origin content
+     * @param fills Budget of detached fills
+     */
+    TeeContent(final Publisher<ByteBuffer> origin, final DetachedFills fills) {
+        this.origin = origin;
+        this.fills = fills;
+        this.client = UnicastProcessor.create();
+        this.cache = UnicastProcessor.create();
+        this.upstream = new AtomicReference<>();
+        this.done = new CompletableFuture<>();
+        this.demand = new Demand();
+    }
+
+    /**
+     * Subscribe to origin content.
+     * @return Completion of the origin, also completes when origin is cancelled
+     */
+    CompletionStage<Void> start() {
+        this.origin.subscribe(this);
+        return this.done;
+    }
+
+    /**
+     * Client part of the content.
+     * @return Content which drives reading of the origin
+     */
+    Flowable<ByteBuffer> client() {
+        return this.client
+            .doOnRequest(count -> this.request(this.demand.client(count)))
+            .doOnCancel(this::detach);
+    }
+
+    /**
+     * Cache part of the content.
+     * @return Content which fails if the origin fails or is cancelled
+     */
+    Flowable<ByteBuffer> cache() {
+        return this.cache
+            .doOnRequest(count -> this.request(this.demand.cache(count)))
+            .doOnCancel(this::drop);
+    }
+
+    /**
+     * Drop the cache part: it's not read anymore, the origin is read for the client only or
+     * cancelled if the client is gone. Does nothing if the origin is terminated.
+     */
+    void drop() {
+        if (!this.done.isDone()) {
+            if (this.demand.dropped()) {
+                this.upstream.get().cancel();
+                this.done.complete(null);
+            } else {
+                this.request(this.demand.more());
+            }
+        }
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        this.upstream.set(subscription);
+        this.request(this.demand.more());
+    }
+
+    @Override
+    public void onNext(final ByteBuffer buffer) {
+        this.cache.onNext(buffer.duplicate());
+        this.client.onNext(buffer.duplicate());
+    }
+
+    @Override
+    public void onError(final Throwable err) {
+        this.cache.onError(err);
+        this.client.onError(err);
+        this.done.completeExceptionally(err);
+    }
+
+    @Override
+    public void onComplete() {
+        this.cache.onComplete();
+        this.client.onComplete();
+        this.done.complete(null);
+    }
+
+    /**
+     * Client cancelled its part: continue reading origin into the cache
+     * if budget allows, cancel it otherwise.
+     */
+    private void detach() {
+        if (!this.done.isDone()) {
+            if (this.demand.detached()) {
+                this.upstream.get().cancel();
+                this.done.complete(null);
+            } else if (this.fills.acquire()) {
+                this.done.whenComplete((nothing, err) -> this.fills.release());
+                this.request(this.demand.more());
+            } else {
+                this.upstream.get().cancel();
+                this.cache.onError(new AbandonedLoadException());
+                this.done.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Request chunks from the origin.
+     * @param count Number of chunks, nothing is requested if it's not positive
+     */
+    private void request(final long count) {
+        final Subscription sub = this.upstream.get();
+        if (count > 0 && sub != null) {
+            sub.request(count);
+        }
+    }
+
+    /**
+     * Demand of the client and the cache parts. Origin is requested up to the client
+     * demand, but no more than {@link #PREFETCH} chunks ahead of the cache demand.
+     * Gone part doesn't limit the origin.
+     * @since 0.12
+     */
+    private static final class Demand {
+
+        /**
+         * Total client demand.
+         */
+        private long client;
+
+        /**
+         * Total cache demand.
+         */
+        private long cache;
+
+        /**
+         * Total chunks requested from the origin.
+         */
+        private long requested;
+
+        /**
+         * Client is gone.
+         */
+        private boolean detached;
+
+        /**
+         * Cache part is gone.
+         */
+        private boolean dropped;
+
+        /**
+         * Add client demand.
+         * @param count Number of chunks
+         * @return Number of chunks to request from the origin
+         */
+        synchronized long client(final long count) {
+            this.client = Demand.sum(this.client, count);
+            return this.more();
+        }
+
+        /**
+         * Add cache demand.
+         * @param count Number of chunks
+         * @return Number of chunks to request from the origin
+         */
+        synchronized long cache(final long count) {
+            this.cache = Demand.sum(this.cache, count);
+            return this.more();
+        }
+
+        /**
+         * Client is gone.
+         * @return True if the cache part is gone too
+         */
+        synchronized boolean detached() {
+            this.detached = true;
+            return this.dropped;
+        }
+
+        /**
+         * Cache part is gone.
+         * @return True if the client is gone too
+         */
+        synchronized boolean dropped() {
+            this.dropped = true;
+            return this.detached;
+        }
+
+        /**
+         * Count chunks which can be requested from the origin now as requested.
+         * @return Number of chunks to request from the origin
+         */
+        synchronized long more() {
+            long limit = Long.MAX_VALUE;
+            if (!this.detached) {
+                limit = this.client;
+            }
+            if (!this.dropped) {
+                limit = Math.min(limit, Demand.sum(this.cache, TeeContent.PREFETCH));
+            }
+            long res = 0;
+            if (this.requested != Long.MAX_VALUE && limit > this.requested) {
+                res = limit - this.requested;
+                this.requested = limit;
+            }
+            return res;
+        }
+
+        /**
+         * Sum of demands capped by {@link Long#MAX_VALUE}.
+         * @param first First demand
+         * @param second Second demand
+         * @return Sum
+         */
+        private static long sum(final long first, final long second) {
+            long res = first + second;
+            if (res < 0) {
+                res = Long.MAX_VALUE;
+            }
+            return res;
+        }
+    }
+}
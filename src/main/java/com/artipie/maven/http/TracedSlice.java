@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.maven.trace.Trace;
+import com.jcabi.log.Logger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice which traces requests: new {@link Trace} is started for each request and the slice
+ * to answer is built for it, so the slice can record its phases and storage calls. Traces of
+ * requests which take longer than the threshold are logged with the tree of spans.
+ * @since 0.12
+ */
+final class TracedSlice implements Slice {
+
+    /**
+     * Slice for the request trace.
+     */
+    private final Function<Trace, Slice> origin;
+
+    /**
+     * Slow request threshold.
+     */
+    private final Duration slow;
+
+    /**
+     * Consumer of slow requests traces.
+     */
+    private final Consumer<Trace> report;
+
+    /**
+     * Ctor.
+     * @param origin Slice for the request trace
+     * @param slow Slow request threshold
+     */
+    TracedSlice(final Function<Trace, Slice> origin, final Duration slow) {
+        this(
+            origin, slow,
+            trace -> Logger.warn(TracedSlice.class, "Slow request %s", trace.tree())
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param origin Slice for the request trace
+     * @param slow Slow request threshold
+     * @param report Consumer of slow requests traces
+     */
+    TracedSlice(final Function<Trace, Slice> origin, final Duration slow,
+        final Consumer<Trace> report) {
+        this.origin = origin;
+        this.slow = slow;
+        this.report = report;
+    }
+
+    @Override
+    public Response response(final String line, final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body) {
+        final Trace trace = new Trace(line.trim());
+        final Response response = this.origin.apply(trace).response(line, headers, body);
+        return connection -> response.send(connection).whenComplete(
+            (nothing, err) -> {
+                if (trace.elapsed().compareTo(this.slow) > 0) {
+                    this.report.accept(trace);
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Health of upstream repository: latency of recent responses, error rate of recent requests
+ * and circuit breaker. Circuit opens after several consecutive failures, upstream is
+ * unavailable until cool down time passes. Then the circuit is half-open: single probe
+ * request is let through, its success closes the circuit and its failure opens it again.
+ * Probe which is not answered within cool down time is considered lost, and another probe
+ * is let through.
+ * @since 0.12
+ */
+final class UpstreamHealth {
+
+    /**
+     * Number of latency and outcome samples to keep.
+     */
+    private static final int SAMPLES = 100;
+
+    /**
+     * Min number of samples to estimate latency percentile or error rate.
+     */
+    private static final int MIN_SAMPLES = 20;
+
+    /**
+     * Consecutive failures to open the circuit.
+     */
+    private static final int FAILURES = 5;
+
+    /**
+     * Error rate of recent requests of degraded upstream.
+     */
+    private static final double DEGRADED = 0.5;
+
+    /**
+     * Circuit cool down time.
+     */
+    private final Duration cooldown;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Recent latencies in nanoseconds, ring buffer.
+     */
+    private final long[] latencies;
+
+    /**
+     * Recent request outcomes, true for failure, ring buffer.
+     */
+    private final boolean[] outcomes;
+
+    /**
+     * Total number of responses.
+     */
+    private long responses;
+
+    /**
+     * Total number of requests.
+     */
+    private long requests;
+
+    /**
+     * Number of consecutive failures.
+     */
+    private int consecutive;
+
+    /**
+     * Is the circuit open or half-open.
+     */
+    private boolean tripped;
+
+    /**
+     * Time until the circuit is open.
+     */
+    private Instant open;
+
+    /**
+     * Time until the probe of half-open circuit is in flight.
+     */
+    private Instant probe;
+
+    /**
+     * Ctor.
+     */
+    UpstreamHealth() {
+        this(Duration.ofSeconds(30), Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     * @param cooldown Circuit cool down time
+     * @param clock Clock
+     */
+    UpstreamHealth(final Duration cooldown, final Clock clock) {
+        this.cooldown = cooldown;
+        this.clock = clock;
+        this.latencies = new long[UpstreamHealth.SAMPLES];
+        this.outcomes = new boolean[UpstreamHealth.SAMPLES];
+        this.open = Instant.EPOCH;
+        this.probe = Instant.EPOCH;
+    }
+
+    /**
+     * Record upstream response, any response except server errors closes the circuit.
+     * @param latency Time to response
+     */
+    synchronized void success(final Duration latency) {
+        this.latencies[(int) (this.responses % UpstreamHealth.SAMPLES)] = latency.toNanos();
+        this.responses += 1;
+        this.outcome(false);
+        this.consecutive = 0;
+        this.tripped = false;
+        this.probe = Instant.EPOCH;
+    }
+
+    /**
+     * Record upstream failure: server error or connection failure. Failure opens half-open
+     * circuit again.
+     */
+    synchronized void failure() {
+        this.outcome(true);
+        this.consecutive += 1;
+        final Instant now = this.clock.instant();
+        if (this.tripped && !now.isBefore(this.open)
+            || this.consecutive >= UpstreamHealth.FAILURES) {
+            this.tripped = true;
+            this.open = now.plus(this.cooldown);
+            this.probe = Instant.EPOCH;
+            this.consecutive = 0;
+        }
+    }
+
+    /**
+     * Is upstream available: circuit is closed, or it's half-open and the probe is not
+     * in flight. It doesn't take the probe, see {@link #acquire()}.
+     * @return True if available
+     */
+    synchronized boolean available() {
+        final Instant now = this.clock.instant();
+        return !this.tripped || !now.isBefore(this.open) && !now.isBefore(this.probe);
+    }
+
+    /**
+     * Acquire permission to request upstream: it's granted if the circuit is closed, or if
+     * it's half-open and the probe is not in flight, then the request is the probe.
+     * @return True if upstream can be requested
+     */
+    synchronized boolean acquire() {
+        final boolean res = this.available();
+        if (res && this.tripped) {
+            this.probe = this.clock.instant().plus(this.cooldown);
+        }
+        return res;
+    }
+
+    /**
+     * Is upstream degraded: more than half of recent requests failed.
+     * @return True if degraded
+     */
+    synchronized boolean degraded() {
+        final int count = (int) Math.min(this.requests, UpstreamHealth.SAMPLES);
+        int failed = 0;
+        for (int idx = 0; idx < count; ++idx) {
+            if (this.outcomes[idx]) {
+                failed += 1;
+            }
+        }
+        return count >= UpstreamHealth.MIN_SAMPLES
+            && failed > count * UpstreamHealth.DEGRADED;
+    }
+
+    /**
+     * 95th percentile of recent response latencies.
+     * @return Latency if there are enough samples
+     */
+    synchronized Optional<Duration> p95() {
+        final int count = (int) Math.min(this.responses, UpstreamHealth.SAMPLES);
+        final Optional<Duration> res;
+        if (count < UpstreamHealth.MIN_SAMPLES) {
+            res = Optional.empty();
+        } else {
+            final long[] sorted = Arrays.copyOf(this.latencies, count);
+            Arrays.sort(sorted);
+            // @checkstyle MagicNumberCheck (1 line)
+            res = Optional.of(Duration.ofNanos(sorted[(int) Math.ceil(count * 0.95) - 1]));
+        }
+        return res;
+    }
+
+    /**
+     * Record request outcome.
+     * @param failed Did the request fail
+     */
+    private void outcome(final boolean failed) {
+        this.outcomes[(int) (this.requests % UpstreamHealth.SAMPLES)] = failed;
+        this.requests += 1;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.apache.commons.codec.binary.Hex;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+/**
+ * Content verified against expected checksums while it's read: digests are updated with
+ * every chunk and checked on completion, the stream fails with
+ * {@link IllegalStateException} on mismatch instead of completing. Expected checksums may
+ * be not known when reading starts, e.g. when they are fetched from remote checksum files
+ * in parallel: completion waits for them, content is not verified with missing checksums.
+ * @since 0.12
+ */
+final class VerifiedContent implements Publisher<ByteBuffer> {
+
+    /**
+     * Origin content.
+     */
+    private final Publisher<ByteBuffer> origin;
+
+    /**
+     * Digest algorithms to compute, e.g. {@code SHA-1}.
+     */
+    private final Set<String> algorithms;
+
+    /**
+     * Expected hex checksums by digest algorithm names.
+     */
+    private final CompletionStage<Map<String, String>> checksums;
+
+    /**
+     * Ctor.
+     * @param origin Origin content
+     * @param checksums Expected hex checksums by digest algorithm names
+     */
+    VerifiedContent(final Publisher<ByteBuffer> origin, final Map<String, String> checksums) {
+        this(origin, checksums.keySet(), CompletableFuture.completedFuture(checksums));
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin content
+     * @param algorithms Digest algorithms to compute
+     * @param checksums Expected hex checksums by digest algorithm names, checksums of
+     *  algorithms which are not computed are ignored
+     */
+    VerifiedContent(final Publisher<ByteBuffer> origin, final Set<String> algorithms,
+        final CompletionStage<Map<String, String>> checksums) {
+        this.origin = origin;
+        this.algorithms = algorithms;
+        this.checksums = checksums;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+        final Map<String, MessageDigest> digests = new HashMap<>();
+        for (final String alg : this.algorithms) {
+            try {
+                digests.put(alg, MessageDigest.getInstance(alg));
+            } catch (final NoSuchAlgorithmException err) {
+                throw new IllegalStateException(err);
+            }
+        }
+        Flowable.concat(
+            Flowable.fromPublisher(this.origin).doOnNext(
+                buf -> digests.values().forEach(digest -> digest.update(buf.duplicate()))
+            ),
+            SingleInterop.fromFuture(this.checksums).flatMapPublisher(
+                expected -> VerifiedContent.verified(digests, expected)
+            )
+        ).subscribe(subscriber);
+    }
+
+    /**
+     * Verify computed digests.
+     * @param digests Computed digests by algorithm names
+     * @param checksums Expected hex checksums by algorithm names
+     * @return Empty publisher or error on checksum mismatch
+     */
+    private static Flowable<ByteBuffer> verified(final Map<String, MessageDigest> digests,
+        final Map<String, String> checksums) {
+        Flowable<ByteBuffer> res = Flowable.empty();
+        for (final Map.Entry<String, String> entry : checksums.entrySet()) {
+            final MessageDigest digest = digests.get(entry.getKey());
+            if (digest != null) {
+                final String actual = Hex.encodeHexString(digest.digest());
+                final String expected = entry.getValue().trim().toLowerCase(Locale.US);
+                if (!actual.equals(expected)) {
+                    res = Flowable.error(
+                        new IllegalStateException(
+                            String.format(
+                                "%s checksum mismatch: expected %s, actual %s",
+                                entry.getKey(), expected, actual
+                            )
+                        )
+                    );
+                }
+            }
+        }
+        return res;
+    }
+}
@@ -29,6 +29,7 @@ import com.artipie.asto.ext.PublisherAs;
 import com.jcabi.xml.XMLDocument;
 import java.nio.charset.StandardCharsets;
 import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -95,4 +96,35 @@ public final class ArtifactsMetadata {
                     )
             );
     }
+
+    /**
+     * Reads fencing token of the last metadata writer from maven-metadata.xml.
+     * @param location Package location
+     * @return Fencing token or zero if metadata does not exist or has no token
+     * @see MavenMetadata#fenced(long)
+     */
+    public CompletionStage<Long> fence(final Key location) {
+        final Key meta = new Key.From(location, ArtifactsMetadata.MAVEN_METADATA);
+        return this.storage.exists(meta).thenCompose(
+            exists -> {
+                final CompletionStage<Long> res;
+                if (exists) {
+                    res = this.storage.value(meta).thenCompose(
+                        content -> new PublisherAs(content).string(StandardCharsets.UTF_8)
+                    ).thenApply(
+                        metadata -> new XMLDocument(metadata).xpath(
+                            String.format(
+                                "string(/metadata/processing-instruction('%s'))",
+                                MavenMetadata.FENCE
+                            )
+                        ).stream().map(String::trim).filter(fence -> !fence.isEmpty())
+                            .findFirst().map(Long::parseLong).orElse(0L)
+                    );
+                } else {
+                    res = CompletableFuture.completedFuture(0L);
+                }
+                return res;
+            }
+        );
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metadata;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Group-level maven-metadata.xml with the plugins of the group, used by Maven to resolve
+ * plugin goal prefixes, e.g. {@code mvn jar:jar}.
+ * @since 0.12
+ */
+public final class GroupMetadata {
+
+    /**
+     * Current metadata.
+     */
+    private final XML xml;
+
+    /**
+     * Ctor.
+     */
+    public GroupMetadata() {
+        this(new XMLDocument(new Xembler(new Directives().add("metadata")).xmlQuietly()));
+    }
+
+    /**
+     * Ctor.
+     * @param xml Existing group metadata
+     */
+    public GroupMetadata(final XML xml) {
+        this.xml = xml;
+    }
+
+    /**
+     * Add or replace plugin entry.
+     * @param plugin Plugin POM
+     * @return Updated metadata
+     */
+    public GroupMetadata plugin(final PluginPom plugin) {
+        final Directives dirs = new Directives(Directives.copyOf(this.xml.node()));
+        dirs.xpath(
+            String.format(
+                "/metadata/plugins/plugin[artifactId='%s' or prefix='%s']",
+                plugin.artifact(), plugin.prefix()
+            )
+        ).remove()
+            .xpath("/metadata").addIf("plugins")
+            .add("plugin")
+            .add("name").set(plugin.name()).up()
+            .add("prefix").set(plugin.prefix()).up()
+            .add("artifactId").set(plugin.artifact()).up();
+        return new GroupMetadata(new XMLDocument(new Xembler(dirs).xmlQuietly()));
+    }
+
+    /**
+     * Save metadata to storage.
+     * @param storage Storage to save
+     * @param base Group key
+     * @return Completion action with key for saved maven-metadata
+     */
+    public CompletionStage<Key> save(final Storage storage, final Key base) {
+        final Key res = new Key.From(base, "maven-metadata.xml");
+        return CompletableFuture.supplyAsync(
+            () -> this.xml.toString().getBytes(StandardCharsets.UTF_8)
+        )
+            .thenCompose(data -> storage.save(res, new Content.From(data)))
+            .thenApply(nothing -> res);
+    }
+}
@@ -43,6 +43,11 @@ import org.xembly.Xembler;
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class MavenMetadata {
 
+    /**
+     * Name of the processing instruction with fencing token of the metadata writer.
+     */
+    static final String FENCE = "artipie-fence";
+
     /**
      * Current Xembler state.
      */
@@ -80,6 +85,22 @@ public final class MavenMetadata {
         return new MavenMetadata(copy);
     }
 
+    /**
+     * Embed fencing token of the writer into metadata as {@code <?artipie-fence ...?>}
+     * processing instruction, which is ignored by Maven clients.
+     * @param token Fencing token
+     * @return Updated metadata
+     * @see com.artipie.maven.asto.LeaseLock
+     */
+    public MavenMetadata fenced(final long token) {
+        final Directives copy = new Directives(this.dirs);
+        copy.xpath(String.format("/metadata/processing-instruction('%s')", MavenMetadata.FENCE))
+            .remove()
+            .xpath("/metadata")
+            .pi(MavenMetadata.FENCE, token);
+        return new MavenMetadata(copy);
+    }
+
     /**
      * Save metadata to storage.
      * @param storage Storage to save
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metadata;
+
+import com.jcabi.xml.XML;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maven plugin project object model: detects {@code maven-plugin} packaging and plugin goal
+ * prefix.
+ * @since 0.12
+ */
+public final class PluginPom {
+
+    /**
+     * Project POM.
+     */
+    private final XML pom;
+
+    /**
+     * Ctor.
+     * @param pom Project POM
+     */
+    public PluginPom(final XML pom) {
+        this.pom = pom;
+    }
+
+    /**
+     * Is the project a maven plugin.
+     * @return True if project packaging is {@code maven-plugin}
+     */
+    public boolean plugin() {
+        return this.value("packaging").map("maven-plugin"::equals).orElse(false);
+    }
+
+    /**
+     * Plugin artifact id.
+     * @return Artifact id
+     */
+    public String artifact() {
+        return this.value("artifactId").orElseThrow(
+            () -> new IllegalStateException("Plugin POM has no artifactId")
+        );
+    }
+
+    /**
+     * Plugin name.
+     * @return Name of the project or artifact id if name is absent
+     */
+    public String name() {
+        return this.value("name").orElseGet(this::artifact);
+    }
+
+    /**
+     * Plugin goal prefix: {@code goalPrefix} of maven-plugin-plugin configuration or prefix
+     * derived from artifact id the same way maven-plugin-plugin does, e.g. {@code jar} for
+     * {@code maven-jar-plugin} and {@code exec} for {@code exec-maven-plugin}.
+     * @return Goal prefix
+     */
+    public String prefix() {
+        final List<String> configured = this.pom.xpath(
+            String.join(
+                "",
+                "/*[local-name()='project']/*[local-name()='build']/*[local-name()='plugins']",
+                "/*[local-name()='plugin'][*[local-name()='artifactId']='maven-plugin-plugin']",
+                "/*[local-name()='configuration']/*[local-name()='goalPrefix']/text()"
+            )
+        );
+        final String res;
+        if (!configured.isEmpty()) {
+            res = configured.get(0).trim();
+        } else if ("maven-plugin-plugin".equals(this.artifact())) {
+            res = "plugin";
+        } else {
+            res = this.artifact().replaceAll("-?maven-?", "").replaceAll("-?plugin-?", "");
+        }
+        return res;
+    }
+
+    /**
+     * Value of top level project element.
+     * @param name Element name
+     * @return Trimmed text if present
+     */
+    private Optional<String> value(final String name) {
+        return this.pom.xpath(
+            String.format("/*[local-name()='project']/*[local-name()='%s']/text()", name)
+        ).stream().findFirst().map(String::trim);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metadata;
+
+import com.artipie.asto.Key;
+import com.jcabi.xml.XML;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Project object model: keys of the artifacts the project needs at runtime, which are
+ * resolved right after the POM: project artifact, parent POM and POMs of direct
+ * dependencies. Dependencies with test, provided or system scope, optional dependencies and
+ * dependencies with versions which can't be resolved from the POM itself (e.g. managed by
+ * parent) are skipped.
+ * @since 0.12
+ */
+public final class ProjectPom {
+
+    /**
+     * Packaging types with jar artifact.
+     */
+    private static final Set<String> JARS = Set.of("jar", "bundle", "maven-plugin");
+
+    /**
+     * Scopes which are not needed at runtime.
+     */
+    private static final Set<String> SKIPPED = Set.of("test", "provided", "system");
+
+    /**
+     * Property reference pattern.
+     */
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+
+    /**
+     * Project POM.
+     */
+    private final XML pom;
+
+    /**
+     * Ctor.
+     * @param pom Project POM
+     */
+    public ProjectPom(final XML pom) {
+        this.pom = pom;
+    }
+
+    /**
+     * Project artifact key, e.g. {@code com/example/lib/1.0/lib-1.0.jar}.
+     * @return Artifact key if project packaging has jar artifact
+     */
+    public Optional<Key> artifact() {
+        final Optional<Key> res;
+        if (ProjectPom.JARS.contains(this.value("packaging").orElse("jar"))) {
+            res = this.project().map(coords -> coords.file("jar"));
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Parent POM key.
+     * @return Parent POM key if project has parent
+     */
+    public Optional<Key> parent() {
+        return this.coordinates(ProjectPom.path("parent")).map(coords -> coords.file("pom"));
+    }
+
+    /**
+     * POM keys of direct runtime dependencies.
+     * @return Dependencies POM keys
+     */
+    public List<Key> dependencies() {
+        final List<Key> res = new ArrayList<>(0);
+        for (final XML dep : this.pom.nodes(ProjectPom.path("dependencies", "dependency"))) {
+            final boolean skipped = ProjectPom.SKIPPED.contains(
+                ProjectPom.text(dep, "scope").orElse("compile")
+            ) || "true".equals(ProjectPom.text(dep, "optional").orElse("false"));
+            if (!skipped) {
+                ProjectPom.Coordinates.of(
+                    this.resolved(ProjectPom.text(dep, "groupId")),
+                    this.resolved(ProjectPom.text(dep, "artifactId")),
+                    this.resolved(ProjectPom.text(dep, "version"))
+                ).map(coords -> coords.file("pom")).ifPresent(res::add);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Project coordinates, group and version are inherited from parent if absent.
+     * @return Coordinates if resolved
+     */
+    private Optional<Coordinates> project() {
+        final Optional<Coordinates> parent = this.coordinates(ProjectPom.path("parent"));
+        return ProjectPom.Coordinates.of(
+            this.resolved(this.value("groupId")).or(() -> parent.map(Coordinates::group)),
+            this.resolved(this.value("artifactId")),
+            this.resolved(this.value("version")).or(() -> parent.map(Coordinates::version))
+        );
+    }
+
+    /**
+     * Coordinates of the element.
+     * @param xpath Element xpath
+     * @return Coordinates if element exists and coordinates are resolved
+     */
+    private Optional<Coordinates> coordinates(final String xpath) {
+        return this.pom.nodes(xpath).stream().findFirst().flatMap(
+            node -> ProjectPom.Coordinates.of(
+                this.resolved(ProjectPom.text(node, "groupId")),
+                this.resolved(ProjectPom.text(node, "artifactId")),
+                this.resolved(ProjectPom.text(node, "version"))
+            )
+        );
+    }
+
+    /**
+     * Resolve property references of the value with POM properties and project coordinates.
+     * @param value Value
+     * @return Resolved value or empty if some property can't be resolved
+     */
+    private Optional<String> resolved(final Optional<String> value) {
+        return value.flatMap(
+            val -> {
+                final Matcher matcher = ProjectPom.PROPERTY.matcher(val);
+                final StringBuffer res = new StringBuffer();
+                boolean resolved = true;
+                while (resolved && matcher.find()) {
+                    final Optional<String> prop = this.property(matcher.group(1));
+                    resolved = prop.isPresent();
+                    prop.ifPresent(
+                        str -> matcher.appendReplacement(res, Matcher.quoteReplacement(str))
+                    );
+                }
+                matcher.appendTail(res);
+                return Optional.of(res.toString()).filter(str -> !str.contains("${"));
+            }
+        );
+    }
+
+    /**
+     * Value of POM property or project coordinate, property values are not resolved
+     * recursively.
+     * @param name Property name
+     * @return Property value if present
+     */
+    private Optional<String> property(final String name) {
+        final Map<String, String> project = new HashMap<>();
+        this.value("groupId").ifPresent(val -> project.put("project.groupId", val));
+        this.value("version").ifPresent(val -> project.put("project.version", val));
+        ProjectPom.first(this.pom.xpath(ProjectPom.path("parent", "groupId") + "/text()"))
+            .ifPresent(
+                val -> {
+                    project.put("project.parent.groupId", val);
+                    project.putIfAbsent("project.groupId", val);
+                }
+            );
+        ProjectPom.first(this.pom.xpath(ProjectPom.path("parent", "version") + "/text()"))
+            .ifPresent(
+                val -> {
+                    project.put("project.parent.version", val);
+                    project.putIfAbsent("project.version", val);
+                }
+            );
+        return Optional.ofNullable(project.get(name)).or(
+            () -> ProjectPom.first(
+                this.pom.xpath(
+                    String.format(
+                        "%s/*[local-name()='%s']/text()", ProjectPom.path("properties"), name
+                    )
+                )
+            )
+        ).filter(val -> !val.contains("${"));
+    }
+
+    /**
+     * Value of top level project element.
+     * @param name Element name
+     * @return Trimmed text if present
+     */
+    private Optional<String> value(final String name) {
+        return ProjectPom.first(this.pom.xpath(ProjectPom.path(name) + "/text()"));
+    }
+
+    /**
+     * Text of child element.
+     * @param node Element
+     * @param name Child name
+     * @return Trimmed text if present
+     */
+    private static Optional<String> text(final XML node, final String name) {
+        return ProjectPom.first(node.xpath(String.format("*[local-name()='%s']/text()", name)));
+    }
+
+    /**
+     * First trimmed value.
+     * @param values Values
+     * @return First value if present
+     */
+    private static Optional<String> first(final List<String> values) {
+        return values.stream().findFirst().map(String::trim);
+    }
+
+    /**
+     * Xpath of project element.
+     * @param names Path of element names under project
+     * @return Xpath
+     */
+    private static String path(final String... names) {
+        final StringBuilder res = new StringBuilder("/*[local-name()='project']");
+        for (final String name : names) {
+            res.append(String.format("/*[local-name()='%s']", name));
+        }
+        return res.toString();
+    }
+
+    /**
+     * Artifact coordinates.
+     * @since 0.12
+     */
+    private static final class Coordinates {
+
+        /**
+         * Group id.
+         */
+        private final String grp;
+
+        /**
+         * Artifact id.
+         */
+        private final String artifact;
+
+        /**
+         * Version.
+         */
+        private final String ver;
+
+        /**
+         * Ctor.
+         * @param group Group id
+         * @param artifact Artifact id
+         * @param version Version
+         */
+        private Coordinates(final String group, final String artifact, final String version) {
+            this.grp = group;
+            this.artifact = artifact;
+            this.ver = version;
+        }
+
+        /**
+         * Group id.
+         * @return Group id
+         */
+        String group() {
+            return this.grp;
+        }
+
+        /**
+         * Version.
+         * @return Version
+         */
+        String version() {
+            return this.ver;
+        }
+
+        /**
+         * Artifact file key.
+         * @param extension File extension
+         * @return Key
+         */
+        Key file(final String extension) {
+            return new Key.From(
+                this.grp.replace('.', '/'), this.artifact, this.ver,
+                String.format("%s-%s.%s", this.artifact, this.ver, extension)
+            );
+        }
+
+        /**
+         * Coordinates if all parts are present, version ranges are not supported.
+         * @param group Group id
+         * @param artifact Artifact id
+         * @param version Version
+         * @return Coordinates
+         */
+        static Optional<Coordinates> of(final Optional<String> group,
+            final Optional<String> artifact, final Optional<String> version) {
+            final Optional<Coordinates> res;
+            if (group.isPresent() && artifact.isPresent() && version.isPresent()
+                && !version.get().matches(".*[\\[\\](),].*")) {
+                res = Optional.of(new Coordinates(group.get(), artifact.get(), version.get()));
+            } else {
+                res = Optional.empty();
+            }
+            return res;
+        }
+    }
+}
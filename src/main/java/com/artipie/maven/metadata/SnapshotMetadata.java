@@ -0,0 +1,326 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metadata;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BinaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Snapshot version metadata generator: maintains {@code snapshot} and {@code snapshotVersions}
+ * of version-level maven-metadata.xml. Metadata is updated incrementally from the names of
+ * the deployed files, so it's not required to list version directory.
+ * @since 0.12
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class SnapshotMetadata {
+
+    /**
+     * Snapshot versions xpath.
+     */
+    private static final String SNAPSHOTS =
+        "/metadata/versioning/snapshotVersions/snapshotVersion";
+
+    /**
+     * Checksums and metadata files extensions.
+     */
+    private static final Pattern PTN_EXCLUDED =
+        Pattern.compile("(?:maven-metadata.*|.+\\.(?:md5|sha1|sha256|sha512))");
+
+    /**
+     * Current metadata.
+     */
+    private final XML xml;
+
+    /**
+     * Ctor.
+     * @param group Group id
+     * @param artifact Artifact id
+     * @param version Snapshot version
+     */
+    public SnapshotMetadata(final String group, final String artifact, final String version) {
+        this(
+            new XMLDocument(
+                new Xembler(
+                    new Directives().add("metadata").attr("modelVersion", "1.1.0")
+                        .add("groupId").set(group).up()
+                        .add("artifactId").set(artifact).up()
+                        .add("version").set(version).up()
+                ).xmlQuietly()
+            )
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param xml Existing version-level metadata
+     */
+    public SnapshotMetadata(final XML xml) {
+        this.xml = xml;
+    }
+
+    /**
+     * Add deployed snapshot builds to metadata. Files which names don't follow timestamped
+     * snapshot naming convention are ignored, as well as checksums.
+     * @param files Deployed file names
+     * @return Updated metadata
+     */
+    public SnapshotMetadata builds(final Collection<String> files) {
+        final String version = this.xml.xpath("/metadata/version/text()").get(0);
+        final Pattern pattern = Pattern.compile(
+            String.join(
+                "",
+                "^.+-", Pattern.quote(version.replaceAll("-SNAPSHOT$", "")),
+                "-(?<timestamp>\\d{8}\\.\\d{6})-(?<build>\\d+)",
+                "(?:-(?<classifier>[^.]+))?\\.(?<extension>.+)$"
+            )
+        );
+        final Map<String, Build> builds = this.existing();
+        final List<Build> added = files.stream()
+            .filter(name -> !SnapshotMetadata.PTN_EXCLUDED.matcher(name).matches())
+            .map(pattern::matcher)
+            .filter(Matcher::matches)
+            .map(
+                matcher -> new Build(
+                    Optional.ofNullable(matcher.group("classifier")),
+                    matcher.group("extension"),
+                    String.format(
+                        "%s-%s-%s", version.replaceAll("-SNAPSHOT$", ""),
+                        matcher.group("timestamp"), matcher.group("build")
+                    ),
+                    matcher.group("timestamp").replace(".", "")
+                )
+            ).collect(Collectors.toList());
+        final SnapshotMetadata res;
+        if (added.isEmpty()) {
+            res = this;
+        } else {
+            for (final Build build : added) {
+                builds.merge(build.id(), build, BinaryOperator.maxBy(Comparator.naturalOrder()));
+            }
+            res = new SnapshotMetadata(this.rebuild(builds.values()));
+        }
+        return res;
+    }
+
+    /**
+     * Remove pruned snapshot builds from metadata.
+     * @param values Versions values of pruned builds, e.g. {@code 1.0-20200520.124336-6}
+     * @return Updated metadata
+     */
+    public SnapshotMetadata without(final Collection<String> values) {
+        final Map<String, Build> builds = this.existing();
+        final SnapshotMetadata res;
+        if (builds.values().removeIf(build -> values.contains(build.value))) {
+            res = new SnapshotMetadata(this.rebuild(builds.values()));
+        } else {
+            res = this;
+        }
+        return res;
+    }
+
+    /**
+     * Names of the files of snapshot builds listed in metadata, e.g.
+     * {@code logger-1.0-20200520.124336-6-sources.jar}. Checksums are not included.
+     * @return File names
+     */
+    public List<String> files() {
+        final String artifact = this.xml.xpath("/metadata/artifactId/text()").get(0);
+        return this.existing().values().stream()
+            .map(
+                build -> String.format(
+                    "%s-%s%s.%s", artifact, build.value,
+                    build.classifier.map(cls -> String.format("-%s", cls)).orElse(""),
+                    build.extension
+                )
+            ).collect(Collectors.toList());
+    }
+
+    /**
+     * Save metadata to storage.
+     * @param storage Storage to save
+     * @param base Base key where to save
+     * @return Completion action with key for saved maven-metadata
+     */
+    public CompletionStage<Key> save(final Storage storage, final Key base) {
+        final Key res = new Key.From(base, "maven-metadata.xml");
+        return CompletableFuture.supplyAsync(
+            () -> this.xml.toString().getBytes(StandardCharsets.UTF_8)
+        )
+            .thenCompose(data -> storage.save(res, new Content.From(data)))
+            .thenApply(nothing -> res);
+    }
+
+    /**
+     * Snapshot builds listed in metadata.
+     * @return Builds by classifier and extension
+     */
+    private Map<String, Build> existing() {
+        final Map<String, Build> builds = new TreeMap<>();
+        for (final XML node : this.xml.nodes(SnapshotMetadata.SNAPSHOTS)) {
+            final Build build = new Build(
+                SnapshotMetadata.text(node, "classifier"),
+                SnapshotMetadata.text(node, "extension").orElse(""),
+                SnapshotMetadata.text(node, "value").orElse(""),
+                SnapshotMetadata.text(node, "updated").orElse("")
+            );
+            builds.put(build.id(), build);
+        }
+        return builds;
+    }
+
+    /**
+     * Rebuild versioning section with snapshot builds, versioning section is removed
+     * if there are no builds.
+     * @param builds Snapshot builds
+     * @return Updated metadata xml
+     */
+    private XML rebuild(final Collection<Build> builds) {
+        final Directives dirs = new Directives(Directives.copyOf(this.xml.node()));
+        dirs.xpath("/metadata").push().xpath("versioning").remove().pop();
+        final Optional<Build> latest = builds.stream().max(Comparator.naturalOrder());
+        if (latest.isPresent()) {
+            dirs.xpath("/metadata")
+                .add("versioning")
+                .add("snapshot")
+                .add("timestamp").set(latest.get().timestamp()).up()
+                .add("buildNumber").set(latest.get().number()).up()
+                .up()
+                .add("lastUpdated").set(latest.get().updated).up()
+                .add("snapshotVersions");
+            for (final Build build : builds) {
+                dirs.add("snapshotVersion");
+                build.classifier.ifPresent(cls -> dirs.add("classifier").set(cls).up());
+                dirs.add("extension").set(build.extension).up()
+                    .add("value").set(build.value).up()
+                    .add("updated").set(build.updated).up()
+                    .up();
+            }
+        }
+        return new XMLDocument(new Xembler(dirs).xmlQuietly());
+    }
+
+    /**
+     * Text of the child node.
+     * @param node Node
+     * @param name Child name
+     * @return Text if child exists
+     */
+    private static Optional<String> text(final XML node, final String name) {
+        return node.xpath(String.format("%s/text()", name)).stream().findFirst();
+    }
+
+    /**
+     * Snapshot build of the artifact file: single {@code snapshotVersion} element.
+     * @since 0.12
+     */
+    private static final class Build implements Comparable<Build> {
+
+        /**
+         * Classifier.
+         */
+        private final Optional<String> classifier;
+
+        /**
+         * Extension.
+         */
+        private final String extension;
+
+        /**
+         * Version value, e.g. {@code 1.0-20200520.124336-6}.
+         */
+        private final String value;
+
+        /**
+         * Updated timestamp, e.g. {@code 20200520124336}.
+         */
+        private final String updated;
+
+        /**
+         * Ctor.
+         * @param classifier Classifier
+         * @param extension Extension
+         * @param value Version value
+         * @param updated Updated timestamp
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Build(final Optional<String> classifier, final String extension, final String value,
+            final String updated) {
+            this.classifier = classifier;
+            this.extension = extension;
+            this.value = value;
+            this.updated = updated;
+        }
+
+        /**
+         * Identifier of the file within snapshot version: classifier and extension.
+         * @return Identifier
+         */
+        String id() {
+            return String.format("%s:%s", this.classifier.orElse(""), this.extension);
+        }
+
+        /**
+         * Build timestamp.
+         * @return Timestamp, e.g. {@code 20200520.124336}
+         */
+        String timestamp() {
+            final String[] parts = this.value.split("-");
+            return parts[parts.length - 2];
+        }
+
+        /**
+         * Build number.
+         * @return Build number
+         */
+        String number() {
+            final String[] parts = this.value.split("-");
+            return parts[parts.length - 1];
+        }
+
+        @Override
+        public int compareTo(final Build other) {
+            return Comparator.comparing(Build::timestamp)
+                .thenComparing(build -> Long.parseLong(build.number()))
+                .compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metrics;
+
+import com.artipie.asto.Key;
+import com.artipie.maven.Maven;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * {@link Maven} which records duration of metadata {@code update} phase of the deploy to
+ * {@code maven.deploy.phase} timer with {@code phase} and {@code result} tags.
+ * @since 0.12
+ */
+public final class MeteredMaven implements Maven {
+
+    /**
+     * Origin.
+     */
+    private final Maven origin;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param metrics Metrics
+     */
+    public MeteredMaven(final Maven origin, final Metrics metrics) {
+        this.origin = origin;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletionStage<Void> update(final Key upload, final Key artifact) {
+        final long start = System.nanoTime();
+        return this.origin.update(upload, artifact).whenComplete(
+            (nothing, err) -> {
+                final String result;
+                if (err == null) {
+                    result = "success";
+                } else {
+                    result = "error";
+                }
+                this.metrics.time(
+                    "maven.deploy.phase", Duration.ofNanos(System.nanoTime() - start),
+                    "phase", "update", "result", result
+                );
+            }
+        );
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metrics;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Storage which counts operations of the origin storage to {@code maven.storage.ops} counter
+ * with {@code op} tag: {@code exists}, {@code list}, {@code value}, {@code size},
+ * {@code save}, {@code move}, {@code delete} or {@code exclusively}, and {@code prefix} tag:
+ * the first part of the key, e.g. {@code .upload} or {@code .artipie-leases}. Operations
+ * of the storage given to exclusive operation are counted too. Wrap repository storage
+ * before passing it to {@code MavenSlice} or proxy cache to get storage metrics.
+ * @since 0.12
+ */
+public final class MeteredStorage implements Storage {
+
+    /**
+     * Counter name.
+     */
+    private static final String NAME = "maven.storage.ops";
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param metrics Metrics
+     */
+    public MeteredStorage(final Storage origin, final Metrics metrics) {
+        this.origin = origin;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        this.record("exists", key);
+        return this.origin.exists(key);
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        this.record("list", prefix);
+        return this.origin.list(prefix);
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        this.record("save", key);
+        return this.origin.save(key, content);
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        this.record("move", source);
+        return this.origin.move(source, destination);
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        this.record("size", key);
+        return this.origin.size(key);
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        this.record("value", key);
+        return this.origin.value(key);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        this.record("delete", key);
+        return this.origin.delete(key);
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        this.record("exclusively", key);
+        return this.origin.exclusively(
+            key, storage -> operation.apply(new MeteredStorage(storage, this.metrics))
+        );
+    }
+
+    /**
+     * Count operation.
+     * @param operation Operation name
+     * @param key Operation key
+     */
+    private void record(final String operation, final Key key) {
+        this.metrics.count(
+            MeteredStorage.NAME, 1, "op", operation, "prefix", MeteredStorage.prefix(key)
+        );
+    }
+
+    /**
+     * Prefix of the key: its first part.
+     * @param key Key
+     * @return Prefix, empty for the root key
+     */
+    private static String prefix(final Key key) {
+        final String str = key.string();
+        final int idx = str.indexOf('/');
+        final String res;
+        if (idx < 0) {
+            res = str;
+        } else {
+            res = str.substring(0, idx);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metrics;
+
+import com.artipie.asto.Key;
+import com.artipie.maven.ValidUpload;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * {@link ValidUpload} which records durations of {@code validate} and {@code ready} phases
+ * of the deploy to {@code maven.deploy.phase} timer with {@code phase} and {@code result}
+ * tags.
+ * @since 0.12
+ */
+public final class MeteredValidUpload implements ValidUpload {
+
+    /**
+     * Origin.
+     */
+    private final ValidUpload origin;
+
+    /**
+     * Metrics.
+     */
+    private final Metrics metrics;
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param metrics Metrics
+     */
+    public MeteredValidUpload(final ValidUpload origin, final Metrics metrics) {
+        this.origin = origin;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CompletionStage<Boolean> validate(final Key upload, final Key artifact) {
+        final long start = System.nanoTime();
+        return this.timed("validate", this.origin.validate(upload, artifact), start);
+    }
+
+    @Override
+    public CompletionStage<Boolean> ready(final Key location) {
+        final long start = System.nanoTime();
+        return this.timed("ready", this.origin.ready(location), start);
+    }
+
+    /**
+     * Record phase duration on completion.
+     * @param phase Phase name
+     * @param result Phase result
+     * @param start Phase start in nanoseconds
+     * @return Phase result
+     */
+    private CompletionStage<Boolean> timed(final String phase,
+        final CompletionStage<Boolean> result, final long start) {
+        return result.whenComplete(
+            (res, err) -> this.metrics.time(
+                "maven.deploy.phase", Duration.ofNanos(System.nanoTime() - start),
+                "phase", phase, "result", MeteredValidUpload.result(res, err)
+            )
+        );
+    }
+
+    /**
+     * Result tag value.
+     * @param res Phase result
+     * @param err Phase error
+     * @return Tag value
+     */
+    private static String result(final Boolean res, final Throwable err) {
+        final String tag;
+        if (err != null) {
+            tag = "error";
+        } else if (res) {
+            tag = "true";
+        } else {
+            tag = "false";
+        }
+        return tag;
+    }
+}
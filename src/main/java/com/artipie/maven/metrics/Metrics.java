@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metrics;
+
+import java.time.Duration;
+
+/**
+ * Metrics of maven adapter: counters and timers identified by name and tags. Tags are
+ * given as key-value pairs: {@code "route", "upload", "status", "201"}. Implementations
+ * are expected to be thread-safe and cheap, they are called on every request.
+ * @since 0.12
+ */
+public interface Metrics {
+
+    /**
+     * Metrics are not recorded.
+     */
+    Metrics NOP = new Nop();
+
+    /**
+     * Increment counter.
+     * @param name Counter name
+     * @param amount Amount to add
+     * @param tags Tags as key-value pairs
+     */
+    void count(String name, long amount, String... tags);
+
+    /**
+     * Record duration to timer.
+     * @param name Timer name
+     * @param duration Duration
+     * @param tags Tags as key-value pairs
+     */
+    void time(String name, Duration duration, String... tags);
+
+    /**
+     * Metrics which are not recorded.
+     * @since 0.12
+     */
+    final class Nop implements Metrics {
+
+        @Override
+        public void count(final String name, final long amount, final String... tags) {
+            // metrics are not recorded
+        }
+
+        @Override
+        public void time(final String name, final Duration duration, final String... tags) {
+            // metrics are not recorded
+        }
+    }
+}
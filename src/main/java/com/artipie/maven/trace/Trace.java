@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.trace;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-process trace of single request: spans with names and start and end times of request
+ * phases and storage calls. Spans are recorded without parent links, the tree is built on
+ * rendering: span is nested into the shortest span which encloses it in time. Recording is
+ * cheap: span is a small object added to concurrent queue, details are formatted only on
+ * rendering. Number of recorded spans is limited, extra spans are only counted.
+ * @since 0.12
+ */
+public final class Trace {
+
+    /**
+     * Default max number of recorded spans.
+     */
+    private static final int MAX = 1_000;
+
+    /**
+     * Trace name.
+     */
+    private final String name;
+
+    /**
+     * Max number of recorded spans.
+     */
+    private final int max;
+
+    /**
+     * Trace start in nanoseconds.
+     */
+    private final long start;
+
+    /**
+     * Recorded spans.
+     */
+    private final Queue<Span> spans;
+
+    /**
+     * Number of spans.
+     */
+    private final AtomicInteger count;
+
+    /**
+     * Ctor.
+     * @param name Trace name, e.g. request line
+     */
+    public Trace(final String name) {
+        this(name, Trace.MAX);
+    }
+
+    /**
+     * Ctor.
+     * @param name Trace name, e.g. request line
+     * @param max Max number of recorded spans
+     */
+    public Trace(final String name, final int max) {
+        this.name = name;
+        this.max = max;
+        this.start = System.nanoTime();
+        this.spans = new ConcurrentLinkedQueue<>();
+        this.count = new AtomicInteger();
+    }
+
+    /**
+     * Perform action in span, span ends when action completes.
+     * @param span Span name, e.g. {@code validate}
+     * @param detail Span detail, e.g. storage key, its string value is used on rendering
+     * @param action Action
+     * @param <T> Action result type
+     * @return Action result
+     */
+    public <T> CompletionStage<T> span(final String span, final Object detail,
+        final Supplier<? extends CompletionStage<T>> action) {
+        final long begin = System.nanoTime();
+        return action.get().whenComplete(
+            (res, err) -> {
+                if (this.count.incrementAndGet() <= this.max) {
+                    this.spans.add(new Span(span, detail, begin, System.nanoTime(), err != null));
+                }
+            }
+        );
+    }
+
+    /**
+     * Time passed since the trace start.
+     * @return Elapsed time
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(System.nanoTime() - this.start);
+    }
+
+    /**
+     * Names of recorded spans in order of start.
+     * @return Span names
+     */
+    public List<String> names() {
+        return this.sorted().stream().map(span -> span.name).collect(Collectors.toList());
+    }
+
+    /**
+     * Render trace as tree of spans, one span per line with its start offset from the trace
+     * start and duration in milliseconds, nested spans are indented.
+     * @return Span tree
+     */
+    public String tree() {
+        final StringBuilder out = new StringBuilder(
+            String.format("%s: %d ms", this.name, this.elapsed().toMillis())
+        );
+        final Deque<Span> parents = new ArrayDeque<>();
+        for (final Span span : this.sorted()) {
+            while (!parents.isEmpty() && !parents.peek().encloses(span)) {
+                parents.pop();
+            }
+            out.append('\n').append("  ".repeat(parents.size() + 1))
+                .append(span.line(this.start));
+            parents.push(span);
+        }
+        if (this.count.get() > this.max) {
+            out.append(
+                String.format("\n  ... %d more spans", this.count.get() - this.max)
+            );
+        }
+        return out.toString();
+    }
+
+    /**
+     * Recorded spans sorted by start, enclosing spans first.
+     * @return Spans
+     */
+    private List<Span> sorted() {
+        return this.spans.stream().sorted(
+            Comparator.<Span>comparingLong(span -> span.begin)
+                .thenComparing(Comparator.<Span>comparingLong(span -> span.end).reversed())
+        ).collect(Collectors.toList());
+    }
+
+    /**
+     * Recorded span.
+     * @since 0.12
+     */
+    private static final class Span {
+
+        /**
+         * Name.
+         */
+        private final String name;
+
+        /**
+         * Detail.
+         */
+        private final Object detail;
+
+        /**
+         * Start in nanoseconds.
+         */
+        private final long begin;
+
+        /**
+         * End in nanoseconds.
+         */
+        private final long end;
+
+        /**
+         * Did the span fail.
+         */
+        private final boolean failed;
+
+        /**
+         * Ctor.
+         * @param name Name
+         * @param detail Detail
+         * @param begin Start in nanoseconds
+         * @param end End in nanoseconds
+         * @param failed Did the span fail
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Span(final String name, final Object detail, final long begin, final long end,
+            final boolean failed) {
+            this.name = name;
+            this.detail = detail;
+            this.begin = begin;
+            this.end = end;
+            this.failed = failed;
+        }
+
+        /**
+         * Render span line: start offset, name, detail, duration and failure mark.
+         * @param origin Trace start in nanoseconds
+         * @return Span line
+         */
+        String line(final long origin) {
+            String line = String.format(
+                "+%d ms %s %s: %d ms",
+                TimeUnit.NANOSECONDS.toMillis(this.begin - origin), this.name, this.detail,
+                TimeUnit.NANOSECONDS.toMillis(this.end - this.begin)
+            );
+            if (this.failed) {
+                line = String.format("%s, failed", line);
+            }
+            return line;
+        }
+
+        /**
+         * Does this span enclose other span in time.
+         * @param other Other span
+         * @return True if other span starts and ends within this span
+         */
+        boolean encloses(final Span other) {
+            return this.begin <= other.begin && other.end <= this.end;
+        }
+    }
+}
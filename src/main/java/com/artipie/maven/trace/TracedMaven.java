@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.trace;
+
+import com.artipie.asto.Key;
+import com.artipie.maven.Maven;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * {@link Maven} which records metadata {@code update} phase of the deploy as span of the
+ * {@link Trace}.
+ * @since 0.12
+ */
+public final class TracedMaven implements Maven {
+
+    /**
+     * Origin.
+     */
+    private final Maven origin;
+
+    /**
+     * Trace.
+     */
+    private final Trace trace;
+
+    /**
+     * Ctor.
+     * @param origin Origin
+     * @param trace Trace
+     */
+    public TracedMaven(final Maven origin, final Trace trace) {
+        this.origin = origin;
+        this.trace = trace;
+    }
+
+    @Override
+    public CompletionStage<Void> update(final Key upload, final Key artifact) {
+        return this.trace.span("update", upload, () -> this.origin.update(upload, artifact));
+    }
+}
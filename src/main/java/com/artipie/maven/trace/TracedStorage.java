@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.trace;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Storage which records its calls as spans of the {@link Trace}, span name is
+ * {@code storage.<operation>} and detail is the key.
+ * @since 0.12
+ */
+public final class TracedStorage implements Storage {
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Trace.
+     */
+    private final Trace trace;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param trace Trace
+     */
+    public TracedStorage(final Storage origin, final Trace trace) {
+        this.origin = origin;
+        this.trace = trace;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.trace.span("storage.exists", key, () -> this.origin.exists(key))
+            .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.trace.span("storage.list", prefix, () -> this.origin.list(prefix))
+            .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.trace.span("storage.save", key, () -> this.origin.save(key, content))
+            .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.trace.span(
+            "storage.move", source, () -> this.origin.move(source, destination)
+        ).toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        return this.trace.span("storage.size", key, () -> this.origin.size(key))
+            .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.trace.span("storage.value", key, () -> this.origin.value(key))
+            .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.trace.span("storage.delete", key, () -> this.origin.delete(key))
+            .toCompletableFuture();
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.trace.span(
+            "storage.exclusively", key,
+            () -> this.origin.exclusively(
+                key, storage -> operation.apply(new TracedStorage(storage, this.trace))
+            )
+        );
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven;
+
+import com.artipie.asto.Storage;
+import com.artipie.maven.metrics.MeteredStorage;
+import com.artipie.maven.metrics.Metrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Storage which counts operations of the origin storage by operation names and key
+ * prefixes, see {@link MeteredStorage}. To count operations of single request, wrap
+ * repository storage with new instance for the request.
+ * @since 0.12
+ */
+public final class CountingStorage extends Storage.Wrap {
+
+    /**
+     * Operations counters by operation name and key prefix.
+     */
+    private final Map<List<String>, AtomicLong> counters;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     */
+    public CountingStorage(final Storage origin) {
+        this(origin, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param counters Operations counters by operation name and key prefix
+     */
+    private CountingStorage(final Storage origin, final Map<List<String>, AtomicLong> counters) {
+        super(new MeteredStorage(origin, new Tally(counters)));
+        this.counters = counters;
+    }
+
+    /**
+     * Total number of operations.
+     * @return Operations count
+     */
+    public long total() {
+        return this.counters.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Number of operations by name, e.g. {@code list}.
+     * @param name Operation name
+     * @return Operations count
+     */
+    public long count(final String name) {
+        return this.counts().getOrDefault(name, 0L);
+    }
+
+    /**
+     * Numbers of operations by names.
+     * @return Operations counts
+     */
+    public Map<String, Long> counts() {
+        return this.grouped(key -> key.get(0));
+    }
+
+    /**
+     * Numbers of operations by key prefixes: the first parts of keys.
+     * @return Operations counts
+     */
+    public Map<String, Long> prefixes() {
+        return this.grouped(key -> key.get(1));
+    }
+
+    /**
+     * Sum counters grouped by part of counter key.
+     * @param part Part of counter key: operation name or prefix
+     * @return Operations counts
+     */
+    private Map<String, Long> grouped(final Function<List<String>, String> part) {
+        return this.counters.entrySet().stream().collect(
+            Collectors.groupingBy(
+                entry -> part.apply(entry.getKey()), TreeMap::new,
+                Collectors.summingLong(entry -> entry.getValue().get())
+            )
+        );
+    }
+
+    /**
+     * Metrics which sum storage operations counters.
+     * @since 0.12
+     */
+    private static final class Tally implements Metrics {
+
+        /**
+         * Operations counters by operation name and key prefix.
+         */
+        private final Map<List<String>, AtomicLong> counters;
+
+        /**
+         * Ctor.
+         * @param counters Operations counters by operation name and key prefix
+         */
+        Tally(final Map<List<String>, AtomicLong> counters) {
+            this.counters = counters;
+        }
+
+        @Override
+        public void count(final String name, final long amount, final String... tags) {
+            this.counters.computeIfAbsent(List.of(tags[1], tags[3]), key -> new AtomicLong())
+                .addAndGet(amount);
+        }
+
+        @Override
+        public void time(final String name, final Duration duration, final String... tags) {
+            // storage operations are not timed
+        }
+    }
+}
@@ -0,0 +1,482 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.cache.FromStorageCache;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.client.auth.Authenticator;
+import com.artipie.http.client.jetty.JettyClientSlices;
+import com.artipie.maven.http.MavenProxySlice;
+import com.artipie.maven.http.MavenSlice;
+import com.artipie.vertx.VertxSliceServer;
+import com.jcabi.log.Logger;
+import io.vertx.reactivex.core.Vertx;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Publisher;
+
+/**
+ * Load test of {@link MavenSlice} and {@link MavenProxySlice} on embedded server without
+ * network: concurrent clients run configured mix of release deploys and metadata reads
+ * on hosted repository, artifact GET and HEAD requests on proxy of local fake upstream.
+ * Throughput, latency percentiles and storage operations per request are logged.
+ * <p>
+ * Load is configured with system properties: {@code load.duration} in seconds, the test
+ * runs only when it's set, {@code load.threads} (8), {@code load.mix} with operations weights
+ * ({@code deploy:1,metadata:4,get:10,head:5}) and {@code load.storage}: {@code memory}
+ * or {@code fs} for file storage in temp directory. Run it with
+ * {@code mvn verify -Dit.test=MavenLoadIT -Dload.duration=60}.
+ * </p>
+ * @since 0.12
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class MavenLoadIT {
+
+    /**
+     * Vertx instance.
+     */
+    private static final Vertx VERTX = Vertx.vertx();
+
+    /**
+     * Number of artifacts in repositories.
+     */
+    private static final int ARTIFACTS = 20;
+
+    /**
+     * Size of artifact jars.
+     */
+    private static final int JAR = 64 * 1024;
+
+    /**
+     * Temporary directory.
+     * @checkstyle VisibilityModifierCheck (5 lines)
+     */
+    @TempDir
+    Path tmp;
+
+    /**
+     * HTTP client of the load.
+     */
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    /**
+     * Versions of deployed releases.
+     */
+    private final AtomicInteger versions = new AtomicInteger();
+
+    /**
+     * Number of requests to hosted repository.
+     */
+    private final AtomicLong hosted = new AtomicLong();
+
+    /**
+     * Number of requests to proxy.
+     */
+    private final AtomicLong proxied = new AtomicLong();
+
+    @AfterAll
+    static void close() {
+        MavenLoadIT.VERTX.close();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "load.duration", matches = "\\d+")
+    void servesMixedLoad() throws Exception {
+        final Duration duration = Duration.ofSeconds(Long.getLong("load.duration"));
+        final int threads = Integer.getInteger("load.threads", 8);
+        final List<String> mix = MavenLoadIT.mix(
+            System.getProperty("load.mix", "deploy:1,metadata:4,get:10,head:5")
+        );
+        final Storage remote = new InMemoryStorage();
+        final CountingStorage repo = new CountingStorage(this.storage("repo"));
+        final CountingStorage cache = new CountingStorage(this.storage("cache"));
+        MavenLoadIT.seed(remote);
+        MavenLoadIT.seed(repo);
+        final long seeded = repo.total();
+        final JettyClientSlices client = new JettyClientSlices();
+        client.start();
+        final VertxSliceServer upstream =
+            new VertxSliceServer(MavenLoadIT.VERTX, new Chunked(new MavenSlice(remote)));
+        final VertxSliceServer local =
+            new VertxSliceServer(MavenLoadIT.VERTX, new MavenSlice(repo));
+        final VertxSliceServer proxy = new VertxSliceServer(
+            MavenLoadIT.VERTX,
+            new MavenProxySlice(
+                client,
+                URI.create(String.format("http://localhost:%d", upstream.start())),
+                Authenticator.ANONYMOUS,
+                new FromStorageCache(cache)
+            )
+        );
+        final String hrepo = String.format("http://localhost:%d", local.start());
+        final String hproxy = String.format("http://localhost:%d", proxy.start());
+        final Map<String, Stats> stats = new LinkedHashMap<>();
+        mix.stream().distinct().forEach(op -> stats.put(op, new Stats()));
+        final long deadline = System.nanoTime() + duration.toNanos();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int thread = 0; thread < threads; thread += 1) {
+            pool.submit(
+                () -> {
+                    while (System.nanoTime() < deadline) {
+                        final String op = mix.get(ThreadLocalRandom.current().nextInt(mix.size()));
+                        final long start = System.nanoTime();
+                        boolean success;
+                        try {
+                            success = this.perform(op, hrepo, hproxy);
+                        } catch (final Exception err) {
+                            Logger.warn(this, "%s failed: %[exception]s", op, err);
+                            success = false;
+                        }
+                        stats.get(op).add(System.nanoTime() - start, success);
+                    }
+                    return null;
+                }
+            );
+        }
+        pool.shutdown();
+        pool.awaitTermination(
+            duration.plus(Duration.ofMinutes(1)).toMillis(), TimeUnit.MILLISECONDS
+        );
+        proxy.stop();
+        local.stop();
+        upstream.stop();
+        client.stop();
+        for (final Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Logger.info(this, "%-8s %s", entry.getKey(), entry.getValue().report(duration));
+        }
+        Logger.info(
+            this, "Hosted storage: %d ops for %d requests, %.2f per request %s %s",
+            repo.total() - seeded, this.hosted.get(),
+            (double) (repo.total() - seeded) / Math.max(this.hosted.get(), 1), repo.counts(),
+            repo.prefixes()
+        );
+        Logger.info(
+            this, "Proxy cache storage: %d ops for %d requests, %.2f per request %s %s",
+            cache.total(), this.proxied.get(),
+            (double) cache.total() / Math.max(this.proxied.get(), 1), cache.counts(),
+            cache.prefixes()
+        );
+        for (final Map.Entry<String, Stats> entry : stats.entrySet()) {
+            MatcherAssert.assertThat(
+                String.format("%s requests failed", entry.getKey()),
+                entry.getValue().errors.get(),
+                new IsEqual<>(0L)
+            );
+        }
+    }
+
+    /**
+     * Perform load operation.
+     * @param op Operation name
+     * @param repo Hosted repository URL
+     * @param proxy Proxy repository URL
+     * @return True if successful
+     * @throws Exception On error
+     */
+    private boolean perform(final String op, final String repo, final String proxy)
+        throws Exception {
+        final int idx = ThreadLocalRandom.current().nextInt(MavenLoadIT.ARTIFACTS);
+        final boolean res;
+        if ("deploy".equals(op)) {
+            res = this.deploy(repo, idx);
+        } else if ("metadata".equals(op)) {
+            res = this.send(
+                this.hosted, "GET",
+                String.format("%s/com/load/lib%d/maven-metadata.xml", repo, idx), new byte[0]
+            ) == 200;
+        } else if ("get".equals(op) || "head".equals(op)) {
+            res = this.send(
+                this.proxied, op.toUpperCase(),
+                String.format("%s/com/load/lib%d/1.0/lib%d-1.0.jar", proxy, idx, idx),
+                new byte[0]
+            ) == 200;
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown operation %s", op));
+        }
+        return res;
+    }
+
+    /**
+     * Deploy new release of the artifact as maven does: jar, POM, metadata and their
+     * checksums, metadata checksum completes the deploy.
+     * @param repo Hosted repository URL
+     * @param idx Artifact index
+     * @return True if successful
+     * @throws Exception On error
+     */
+    private boolean deploy(final String repo, final int idx) throws Exception {
+        final String version = String.format("2.%d", this.versions.incrementAndGet());
+        final Map<String, byte[]> files = new LinkedHashMap<>();
+        MavenLoadIT.artifact(files, idx, version);
+        final String meta = new MetadataXml("com.load", String.format("lib%d", idx)).get(
+            new MetadataXml.VersionTags(version, version, Arrays.asList("1.0", version))
+        );
+        final String path = String.format("com/load/lib%d/maven-metadata.xml", idx);
+        files.put(path, meta.getBytes());
+        files.put(String.format("%s.sha1", path), DigestUtils.sha1Hex(meta).getBytes());
+        boolean res = true;
+        for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+            final int status = this.send(
+                this.hosted, "PUT", String.format("%s/%s", repo, file.getKey()), file.getValue()
+            );
+            res &= status == 201;
+        }
+        return res;
+    }
+
+    /**
+     * Send request.
+     * @param counter Requests counter
+     * @param method Request method
+     * @param uri Request URI
+     * @param body Request body
+     * @return Response status
+     * @throws Exception On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private int send(final AtomicLong counter, final String method, final String uri,
+        final byte[] body) throws Exception {
+        counter.incrementAndGet();
+        final int st = this.http.send(
+            HttpRequest.newBuilder(URI.create(uri))
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(),
+            HttpResponse.BodyHandlers.discarding()
+        ).statusCode();
+        return st;
+    }
+
+    /**
+     * Create storage configured with {@code load.storage} property.
+     * @param name Storage name
+     * @return Storage
+     */
+    private Storage storage(final String name) {
+        final Storage res;
+        if ("fs".equals(System.getProperty("load.storage", "memory"))) {
+            res = new FileStorage(this.tmp.resolve(name));
+        } else {
+            res = new InMemoryStorage();
+        }
+        return res;
+    }
+
+    /**
+     * Save artifacts with version 1.0 and their metadata to the storage.
+     * @param storage Storage
+     */
+    private static void seed(final Storage storage) {
+        for (int idx = 0; idx < MavenLoadIT.ARTIFACTS; idx += 1) {
+            final Map<String, byte[]> files = new LinkedHashMap<>();
+            MavenLoadIT.artifact(files, idx, "1.0");
+            files.forEach(
+                (path, data) -> storage.save(new Key.From(path), new Content.From(data)).join()
+            );
+            new MetadataXml("com.load", String.format("lib%d", idx)).addXmlToStorage(
+                storage, new Key.From(String.format("com/load/lib%d/maven-metadata.xml", idx)),
+                new MetadataXml.VersionTags("1.0", "1.0", Arrays.asList("1.0"))
+            );
+        }
+    }
+
+    /**
+     * Artifact files: jar, POM and their checksums.
+     * @param files Files by paths to add to
+     * @param idx Artifact index
+     * @param version Version
+     */
+    private static void artifact(final Map<String, byte[]> files, final int idx,
+        final String version) {
+        final String base = String.format("com/load/lib%d/%s/lib%d-%s", idx, version, idx, version);
+        final byte[] jar = new byte[MavenLoadIT.JAR];
+        new Random(idx).nextBytes(jar);
+        final byte[] pom = String.format(
+            String.join(
+                "",
+                "<project><groupId>com.load</groupId><artifactId>lib%d</artifactId>",
+                "<version>%s</version></project>"
+            ),
+            idx, version
+        ).getBytes();
+        files.put(String.format("%s.jar", base), jar);
+        files.put(String.format("%s.jar.sha1", base), DigestUtils.sha1Hex(jar).getBytes());
+        files.put(String.format("%s.pom", base), pom);
+        files.put(String.format("%s.pom.sha1", base), DigestUtils.sha1Hex(pom).getBytes());
+    }
+
+    /**
+     * Operations by weights from mix configuration.
+     * @param config Mix configuration, e.g. {@code deploy:1,get:10}
+     * @return Operations, each operation is repeated by its weight
+     */
+    private static List<String> mix(final String config) {
+        final List<String> res = new ArrayList<>(0);
+        for (final String item : config.split(",")) {
+            final String[] parts = item.trim().split(":");
+            for (int num = 0; num < Integer.parseInt(parts[1]); num += 1) {
+                res.add(parts[0]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Latencies and errors of operation.
+     * @since 0.12
+     */
+    private static final class Stats {
+
+        /**
+         * Latencies in nanoseconds.
+         */
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Number of failed operations.
+         */
+        private final AtomicLong errors = new AtomicLong();
+
+        /**
+         * Add operation result.
+         * @param latency Latency in nanoseconds
+         * @param success True if successful
+         */
+        void add(final long latency, final boolean success) {
+            this.latencies.add(latency);
+            if (!success) {
+                this.errors.incrementAndGet();
+            }
+        }
+
+        /**
+         * Report of throughput, latency percentiles and errors.
+         * @param duration Load duration
+         * @return Report
+         */
+        String report(final Duration duration) {
+            final long[] sorted = this.latencies.stream().mapToLong(Long::longValue).sorted()
+                .toArray();
+            return String.format(
+                "%7d ops %9.1f ops/s p50 %8.2f ms p95 %8.2f ms p99 %8.2f ms errors %d",
+                sorted.length, sorted.length / (duration.toMillis() / 1000.0),
+                Stats.percentile(sorted, 0.5), Stats.percentile(sorted, 0.95),
+                Stats.percentile(sorted, 0.99), this.errors.get()
+            );
+        }
+
+        /**
+         * Latency percentile in milliseconds.
+         * @param sorted Sorted latencies in nanoseconds
+         * @param pct Percentile
+         * @return Latency
+         */
+        private static double percentile(final long[] sorted, final double pct) {
+            final double res;
+            if (sorted.length == 0) {
+                res = 0;
+            } else {
+                res = sorted[(int) Math.ceil(sorted.length * pct) - 1] / 1_000_000.0;
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Slice without {@code Content-Length} response header: embedded server always sends
+     * chunked body, and HTTP client rejects responses with both headers.
+     * @since 0.12
+     */
+    private static final class Chunked implements Slice {
+
+        /**
+         * Origin slice.
+         */
+        private final Slice origin;
+
+        /**
+         * Ctor.
+         * @param origin Origin slice
+         */
+        Chunked(final Slice origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public Response response(final String line,
+            final Iterable<Map.Entry<String, String>> headers,
+            final Publisher<ByteBuffer> body) {
+            final Response response = this.origin.response(line, headers, body);
+            return connection -> response.send(
+                (status, rsheaders, rsbody) -> connection.accept(
+                    status,
+                    new Headers.From(
+                        StreamSupport.stream(rsheaders.spliterator(), false)
+                            .filter(
+                                header -> !"Content-Length".equalsIgnoreCase(header.getKey())
+                            ).collect(Collectors.toList())
+                    ),
+                    rsbody
+                )
+            );
+        }
+    }
+}
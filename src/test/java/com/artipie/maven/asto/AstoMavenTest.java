@@ -38,9 +38,14 @@ import com.jcabi.matchers.XhtmlMatchers;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.cactoos.list.ListOf;
 import org.cactoos.scalar.Unchecked;
@@ -49,6 +54,8 @@ import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.AllOf;
 import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -182,6 +189,47 @@ final class AstoMavenTest {
         );
     }
 
+    @Test
+    void keepsAllVersionsOfConcurrentDeploys() {
+        final int count = 8;
+        final List<String> versions = IntStream.rangeClosed(1, count)
+            .mapToObj(num -> String.format("%d.0", num))
+            .collect(Collectors.toList());
+        for (final String version : versions) {
+            new MetadataXml("com.test", "logger").addXmlToStorage(
+                this.storage,
+                new Key.From(
+                    AstoMavenTest.LGR_UPLOAD, version, PutMetadataSlice.SUB_META,
+                    "maven-metadata.xml"
+                ),
+                new MetadataXml.VersionTags(version, version, new ListOf<>(version))
+            );
+            this.storage.save(
+                new Key.From(
+                    AstoMavenTest.LGR_UPLOAD, version, String.format("logger-%s.jar", version)
+                ),
+                Content.EMPTY
+            ).join();
+        }
+        CompletableFuture.allOf(
+            versions.stream().map(
+                version -> CompletableFuture.supplyAsync(
+                    () -> new AstoMaven(this.storage).update(
+                        new Key.From(AstoMavenTest.LGR_UPLOAD, version), AstoMavenTest.LGR
+                    )
+                ).thenCompose(Function.identity())
+            ).toArray(CompletableFuture[]::new)
+        ).join();
+        MatcherAssert.assertThat(
+            new XMLDocument(
+                this.storage.value(new Key.From(AstoMavenTest.LGR, "maven-metadata.xml"))
+                    .thenCompose(content -> new PublisherAs(content).string(StandardCharsets.UTF_8))
+                    .join()
+            ).xpath("/metadata/versioning/versions/version/text()"),
+            Matchers.containsInAnyOrder(versions.toArray())
+        );
+    }
+
     @Test
     void addsMetadataChecksums() {
         final String version = "0.1";
@@ -254,6 +302,109 @@ final class AstoMavenTest {
         );
     }
 
+    @Test
+    void stampsMetadataWithLeaseFence() {
+        final String version = "1.0";
+        new TestResource("maven-metadata.xml.example").saveTo(
+            this.storage,
+            new Key.From(
+                AstoMavenTest.LGR_UPLOAD, version, PutMetadataSlice.SUB_META, "maven-metadata.xml"
+            )
+        );
+        new AstoMaven(this.storage).update(
+            new Key.From(AstoMavenTest.LGR_UPLOAD, version), AstoMavenTest.LGR
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new XMLDocument(
+                this.storage.value(new Key.From(AstoMavenTest.LGR, "maven-metadata.xml"))
+                    .thenCompose(content -> new PublisherAs(content).string(StandardCharsets.UTF_8))
+                    .join()
+            ),
+            XhtmlMatchers.hasXPath("/metadata/processing-instruction('artipie-fence')[. = '1']")
+        );
+    }
+
+    @Test
+    void refusesToOverwriteMetadataWrittenWithGreaterFence() {
+        final String version = "1.0";
+        this.storage.save(
+            new Key.From(AstoMavenTest.LGR, "maven-metadata.xml"),
+            new Content.From(
+                String.join(
+                    "",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                    "<metadata><groupId>com.test</groupId><artifactId>logger</artifactId>",
+                    "<?artipie-fence 5?></metadata>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).join();
+        new TestResource("maven-metadata.xml.example").saveTo(
+            this.storage,
+            new Key.From(
+                AstoMavenTest.LGR_UPLOAD, version, PutMetadataSlice.SUB_META, "maven-metadata.xml"
+            )
+        );
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> new AstoMaven(this.storage).update(
+                    new Key.From(AstoMavenTest.LGR_UPLOAD, version), AstoMavenTest.LGR
+                ).toCompletableFuture().join()
+            ).getCause(),
+            new IsInstanceOf(IllegalStateException.class)
+        );
+    }
+
+    @Test
+    void mergesPluginIntoGroupMetadata() {
+        final String version = "1.0";
+        this.storage.save(
+            new Key.From("com/test/maven-metadata.xml"),
+            new Content.From(
+                String.join(
+                    "",
+                    "<metadata><plugins><plugin><name>Other</name><prefix>other</prefix>",
+                    "<artifactId>other-maven-plugin</artifactId></plugin></plugins></metadata>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).join();
+        new TestResource("maven-metadata.xml.example").saveTo(
+            this.storage,
+            new Key.From(
+                AstoMavenTest.LGR_UPLOAD, version, PutMetadataSlice.SUB_META, "maven-metadata.xml"
+            )
+        );
+        this.storage.save(
+            new Key.From(AstoMavenTest.LGR_UPLOAD, version, "logger-1.0.pom"),
+            new Content.From(
+                String.join(
+                    "",
+                    "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+                    "<groupId>com.test</groupId><artifactId>logger-maven-plugin</artifactId>",
+                    "<packaging>maven-plugin</packaging><name>Logger plugin</name></project>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        ).join();
+        new AstoMaven(this.storage).update(
+            new Key.From(AstoMavenTest.LGR_UPLOAD, version), AstoMavenTest.LGR
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new XMLDocument(
+                this.storage.value(new Key.From("com/test/maven-metadata.xml"))
+                    .thenCompose(content -> new PublisherAs(content).string(StandardCharsets.UTF_8))
+                    .join()
+            ),
+            new AllOf<>(
+                new ListOf<Matcher<? super XML>>(
+                    // @checkstyle LineLengthCheck (20 lines)
+                    XhtmlMatchers.hasXPath("/metadata/plugins[count(plugin) = 2]"),
+                    XhtmlMatchers.hasXPath("/metadata/plugins/plugin[prefix = 'other']"),
+                    XhtmlMatchers.hasXPath("/metadata/plugins/plugin[prefix = 'logger' and artifactId = 'logger-maven-plugin' and name = 'Logger plugin']")
+                )
+            )
+        );
+    }
+
     @Test
     void generatesWithSnapshotMetadata() throws Exception {
         final String snapshot = "1.0-SNAPSHOT";
@@ -291,7 +442,27 @@ final class AstoMavenTest {
         MatcherAssert.assertThat(
             "Artifacts were not moved to the correct location",
             this.storage.list(new Key.From(AstoMavenTest.ASTO, snapshot)).join().size(),
-            new IsEqual<>(12)
+            new IsEqual<>(17)
+        );
+        MatcherAssert.assertThat(
+            "Snapshot metadata is not correct",
+            new XMLDocument(
+                this.storage.value(
+                    new Key.From(AstoMavenTest.ASTO, snapshot, "maven-metadata.xml")
+                ).thenCompose(content -> new PublisherAs(content).string(StandardCharsets.UTF_8))
+                    .join()
+            ),
+            new AllOf<>(
+                new ListOf<Matcher<? super XML>>(
+                    // @checkstyle LineLengthCheck (20 lines)
+                    XhtmlMatchers.hasXPath("/metadata/groupId[text() = 'com.artipie']"),
+                    XhtmlMatchers.hasXPath("/metadata/artifactId[text() = 'asto']"),
+                    XhtmlMatchers.hasXPath("/metadata/version[text() = '1.0-SNAPSHOT']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/timestamp[text() = '20200520.124336']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/buildNumber[text() = '6']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions/snapshotVersion[extension = 'pom' and value = '1.0-20200520.124336-6']")
+                )
+            )
         );
         MatcherAssert.assertThat(
             "Upload directory was not cleaned up",
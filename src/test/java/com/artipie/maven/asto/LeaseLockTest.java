@@ -0,0 +1,282 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.maven.metrics.MicrometerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LeaseLock}.
+ * @since 0.12
+ */
+final class LeaseLockTest {
+
+    /**
+     * Lease period.
+     */
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    /**
+     * Allowed clock skew.
+     */
+    private static final Duration SKEW = Duration.ofSeconds(10);
+
+    /**
+     * Start time.
+     */
+    private static final Instant START = Instant.parse("2021-04-01T10:00:00Z");
+
+    /**
+     * Locked key.
+     */
+    private static final Key TARGET = new Key.From("com/test/logger");
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void issuesGrowingFencingTokens() {
+        final Lease first = this.lock("first", Duration.ZERO).acquire()
+            .toCompletableFuture().join();
+        first.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.lock("second", Duration.ZERO).acquire().toCompletableFuture().join().fence(),
+            new IsEqual<>(first.fence() + 1)
+        );
+    }
+
+    @Test
+    void doesNotTakeOverLeaseWithinClockSkew() {
+        this.lock("first", Duration.ZERO).acquire().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> this.lock("ahead", LeaseLockTest.TTL.plusSeconds(5)).acquire()
+                    .toCompletableFuture().join()
+            ).getCause(),
+            new IsInstanceOf(IllegalStateException.class)
+        );
+    }
+
+    @Test
+    void takesOverExpiredLease() {
+        final Lease stale = this.lock("stale", Duration.ZERO).acquire()
+            .toCompletableFuture().join();
+        final Lease fresh = this.lock("fresh", LeaseLockTest.TTL.plus(LeaseLockTest.SKEW))
+            .acquire().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Fresh lease has greater fencing token",
+            fresh.fence(),
+            new IsEqual<>(stale.fence() + 1)
+        );
+        MatcherAssert.assertThat(
+            "Stale lease cannot be renewed",
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> stale.renew().toCompletableFuture().join()
+            ).getCause(),
+            new IsInstanceOf(IllegalStateException.class)
+        );
+    }
+
+    @Test
+    void releasesLeaseAfterAction() {
+        this.lock("first", Duration.ZERO)
+            .perform(lease -> CompletableFuture.allOf())
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.lock("second", Duration.ZERO).acquire().toCompletableFuture().join().fence(),
+            new IsEqual<>(2L)
+        );
+    }
+
+    @Test
+    void recordsWaitTime() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        this.lock("first", Duration.ZERO).acquire().toCompletableFuture().join();
+        final LeaseLock second = new LeaseLock(
+            this.storage, LeaseLockTest.TARGET, LeaseLockTest.TTL, LeaseLockTest.SKEW,
+            Clock.fixed(LeaseLockTest.START, ZoneOffset.UTC), "second", Duration.ZERO,
+            new MicrometerMetrics(registry)
+        );
+        Assertions.assertThrows(
+            CompletionException.class, () -> second.acquire().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            registry.get("maven.lock.wait").tag("result", "failed").timer().count(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void waitsUntilHolderLeaseExpires() {
+        final Duration ttl = Duration.ofSeconds(3);
+        new LeaseLock(this.storage, LeaseLockTest.TARGET, ttl, Duration.ZERO, Clock.systemUTC())
+            .acquire().toCompletableFuture().join();
+        final long start = System.nanoTime();
+        final Lease lease = new LeaseLock(
+            this.storage, LeaseLockTest.TARGET, ttl, Duration.ZERO, Clock.systemUTC()
+        ).acquire().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Lease was taken over after holder lease expired",
+            lease.fence(),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Contender waited for holder lease",
+            Duration.ofNanos(System.nanoTime() - start),
+            Matchers.greaterThanOrEqualTo(ttl.minusMillis(100))
+        );
+    }
+
+    @Test
+    void ignoresProposalReleasedWhileChecked() {
+        MatcherAssert.assertThat(
+            new LeaseLock(
+                new Released(this.storage, new Key.From(".artipie-leases/com/test/logger/gone")),
+                LeaseLockTest.TARGET, LeaseLockTest.TTL, LeaseLockTest.SKEW,
+                Clock.fixed(LeaseLockTest.START, ZoneOffset.UTC), "owner", Duration.ZERO
+            ).acquire().toCompletableFuture().join().fence(),
+            new IsEqual<>(1L)
+        );
+    }
+
+    /**
+     * Lease lock with single acquire attempt and clock shifted from start time.
+     * @param owner Owner
+     * @param shift Clock shift
+     * @return Lease lock
+     */
+    private LeaseLock lock(final String owner, final Duration shift) {
+        return new LeaseLock(
+            this.storage, LeaseLockTest.TARGET, LeaseLockTest.TTL, LeaseLockTest.SKEW,
+            Clock.fixed(LeaseLockTest.START.plus(shift), ZoneOffset.UTC), owner, Duration.ZERO
+        );
+    }
+
+    /**
+     * Storage which lists a lease proposal released right after listing: the key is listed
+     * but its value is not found.
+     * @since 0.12
+     */
+    private static final class Released implements Storage {
+
+        /**
+         * Origin storage.
+         */
+        private final Storage origin;
+
+        /**
+         * Released proposal key.
+         */
+        private final Key released;
+
+        /**
+         * Ctor.
+         * @param origin Origin storage
+         * @param released Released proposal key
+         */
+        Released(final Storage origin, final Key released) {
+            this.origin = origin;
+            this.released = released;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(final Key key) {
+            return this.origin.exists(key);
+        }
+
+        @Override
+        public CompletableFuture<Collection<Key>> list(final Key prefix) {
+            return this.origin.list(prefix).thenApply(
+                keys -> {
+                    final List<Key> res = new ArrayList<>(keys);
+                    res.add(this.released);
+                    return res;
+                }
+            );
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            return this.origin.save(key, content);
+        }
+
+        @Override
+        public CompletableFuture<Void> move(final Key source, final Key destination) {
+            return this.origin.move(source, destination);
+        }
+
+        @Override
+        public CompletableFuture<Long> size(final Key key) {
+            return this.origin.size(key);
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            return this.origin.value(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(final Key key) {
+            return this.origin.delete(key);
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(final Key key,
+            final Function<Storage, CompletionStage<T>> operation) {
+            return this.origin.exclusively(key, operation);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link Reindex}.
+ * @since 0.12
+ */
+final class ReindexTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        new ListOf<>(
+            "com/test/logger/1.0/logger-1.0.jar",
+            "com/test/logger/1.0/logger-1.0.pom",
+            "com/test/logger/1.1/logger-1.1.pom",
+            "com/test/logger/2.0-SNAPSHOT/logger-2.0-20210401.101010-1.pom",
+            "com/test/logger/2.0-SNAPSHOT/logger-2.0-20210402.101010-2.pom",
+            "org/example/tool/0.1/tool-0.1.pom",
+            ".upload/org/example/tool/0.2/tool-0.2.pom"
+        ).forEach(name -> this.storage.save(new Key.From(name), Content.EMPTY).join());
+        this.storage.save(
+            new Key.From("com/test/logger/maven-metadata.xml.sha1"),
+            new Content.From("outdated".getBytes(StandardCharsets.UTF_8))
+        ).join();
+    }
+
+    @Test
+    void rebuildsMetadata() {
+        final Reindex.Progress progress = new Reindex(this.storage).run()
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Reindexes all artifacts",
+            progress.done(),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Generates package metadata",
+            this.metadata("com/test/logger/maven-metadata.xml"),
+            Matchers.allOf(
+                XhtmlMatchers.hasXPath("/metadata/groupId[text() = 'com.test']"),
+                XhtmlMatchers.hasXPath("/metadata/artifactId[text() = 'logger']"),
+                XhtmlMatchers.hasXPath("/metadata/versioning/versions[count(version) = 3]"),
+                XhtmlMatchers.hasXPath("/metadata/versioning/release[text() = '1.1']")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Generates snapshot metadata",
+            this.metadata("com/test/logger/2.0-SNAPSHOT/maven-metadata.xml"),
+            XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/buildNumber[text() = '2']")
+        );
+        MatcherAssert.assertThat(
+            "Generates checksums and removes checkpoint",
+            this.storage.exists(new Key.From("org/example/tool/maven-metadata.xml.sha1")).join()
+                && !this.storage.exists(Reindex.CHECKPOINT).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "com/test/logger/maven-metadata.xml,sha1",
+        "com/test/logger/maven-metadata.xml,md5",
+        "com/test/logger/maven-metadata.xml,sha256",
+        "com/test/logger/maven-metadata.xml,sha512",
+        "com/test/logger/2.0-SNAPSHOT/maven-metadata.xml,sha1",
+        "com/test/logger/2.0-SNAPSHOT/maven-metadata.xml,md5"
+    })
+    void rewritesChecksumsOfRegeneratedMetadata(final String meta, final String alg) {
+        new Reindex(this.storage).run().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.value(String.format("%s.%s", meta, alg)),
+            new IsEqual<>(
+                new DigestUtils(alg.replace("sha", "SHA-").replace("md5", "MD5"))
+                    .digestAsHex(this.value(meta))
+            )
+        );
+    }
+
+    @Test
+    void keepsCheckpointBeforeFailedArtifact() {
+        this.storage.save(new Key.From("net/sample/lib/1.0/lib-1.0.pom"), Content.EMPTY).join();
+        final Key failing = new Key.From("net/sample/lib");
+        new LeaseLock(this.storage, failing).acquire().toCompletableFuture().join();
+        final Reindex.Progress progress = new Reindex(
+            this.storage,
+            key -> new LeaseLock(
+                this.storage, key, Duration.ofMinutes(2), Duration.ZERO, Clock.systemUTC(),
+                "reindex", Duration.ZERO
+            ),
+            1,
+            new Reindex.Progress()
+        ).run().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Failed artifact is reported",
+            progress.failed(),
+            Matchers.contains(failing.string())
+        );
+        MatcherAssert.assertThat(
+            "Artifacts after failed one are reindexed",
+            this.storage.exists(new Key.From("org/example/tool/maven-metadata.xml")).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Checkpoint stops before failed artifact",
+            this.value(Reindex.CHECKPOINT.string()),
+            new IsEqual<>("com/test/logger")
+        );
+    }
+
+    @Test
+    void continuesFromCheckpoint() {
+        this.storage.save(
+            Reindex.CHECKPOINT,
+            new Content.From("com/test/logger".getBytes(StandardCharsets.UTF_8))
+        ).join();
+        new Reindex(this.storage).run().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.exists(new Key.From("com/test/logger/maven-metadata.xml")).join()
+                || !this.storage.exists(new Key.From("org/example/tool/maven-metadata.xml"))
+                .join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    private XMLDocument metadata(final String key) {
+        return new XMLDocument(this.value(key));
+    }
+
+    private String value(final String key) {
+        return this.storage.value(new Key.From(key))
+            .thenCompose(pub -> new PublisherAs(pub).string(StandardCharsets.UTF_8))
+            .join();
+    }
+}
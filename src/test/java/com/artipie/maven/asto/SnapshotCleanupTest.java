@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.maven.CountingStorage;
+import com.artipie.maven.metadata.SnapshotMetadata;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SnapshotCleanup}.
+ * @since 0.12
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class SnapshotCleanupTest {
+
+    /**
+     * Snapshot version key.
+     */
+    private static final Key VERSION = new Key.From("com/test/logger/1.0-SNAPSHOT");
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        final List<String> files = new ListOf<>(
+            "logger-1.0-20210401.101010-1.jar",
+            "logger-1.0-20210401.101010-1.jar.sha1",
+            "logger-1.0-20210401.101010-1-sources.jar",
+            "logger-1.0-20210402.101010-2.jar",
+            "logger-1.0-20210402.101010-2.pom",
+            "logger-1.0-20210403.101010-3.jar",
+            "logger-1.0-20210403.101010-3.pom"
+        );
+        files.forEach(
+            name -> this.storage.save(
+                new Key.From(SnapshotCleanupTest.VERSION, name), Content.EMPTY
+            ).join()
+        );
+        new SnapshotMetadata("com.test", "logger", "1.0-SNAPSHOT").builds(files)
+            .save(this.storage, SnapshotCleanupTest.VERSION).toCompletableFuture().join();
+    }
+
+    @Test
+    void keepsLastBuilds() {
+        MatcherAssert.assertThat(
+            "Pruned builds count",
+            new SnapshotCleanup(this.storage, new SnapshotRetention.LastBuilds(2))
+                .clean(SnapshotCleanupTest.VERSION).toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Files of the pruned build are removed",
+            this.files(),
+            Matchers.containsInAnyOrder(
+                "logger-1.0-20210402.101010-2.jar",
+                "logger-1.0-20210402.101010-2.pom",
+                "logger-1.0-20210403.101010-3.jar",
+                "logger-1.0-20210403.101010-3.pom",
+                "maven-metadata.xml",
+                "maven-metadata.xml.md5",
+                "maven-metadata.xml.sha1",
+                "maven-metadata.xml.sha256",
+                "maven-metadata.xml.sha512"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Metadata does not refer pruned build",
+            new XMLDocument(
+                this.storage.value(new Key.From(SnapshotCleanupTest.VERSION, "maven-metadata.xml"))
+                    .thenCompose(pub -> new PublisherAs(pub).string(StandardCharsets.UTF_8))
+                    .join()
+            ),
+            Matchers.allOf(
+                XhtmlMatchers.hasXPath(
+                    "/metadata/versioning/snapshotVersions[count(snapshotVersion) = 2]"
+                ),
+                XhtmlMatchers.hasXPath(
+                    "/metadata/versioning/snapshot/buildNumber[text() = '3']"
+                )
+            )
+        );
+    }
+
+    @Test
+    void prunesGivenBuildsWithoutListing() {
+        final CountingStorage storage = new CountingStorage(this.storage);
+        MatcherAssert.assertThat(
+            "Pruned builds count",
+            new SnapshotCleanup(storage, new SnapshotRetention.LastBuilds(1)).clean(
+                SnapshotCleanupTest.VERSION,
+                new ListOf<>(
+                    "logger-1.0-20210401.101010-1.jar",
+                    "logger-1.0-20210402.101010-2.jar",
+                    "logger-1.0-20210403.101010-3.jar"
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Version was not listed",
+            storage.count("list"),
+            new IsEqual<>(0L)
+        );
+        MatcherAssert.assertThat(
+            "Files and checksums of given builds are removed",
+            this.files().stream().filter(name -> !name.startsWith("maven-metadata"))
+                .collect(Collectors.toList()),
+            Matchers.containsInAnyOrder(
+                "logger-1.0-20210401.101010-1-sources.jar",
+                "logger-1.0-20210402.101010-2.pom",
+                "logger-1.0-20210403.101010-3.jar",
+                "logger-1.0-20210403.101010-3.pom"
+            )
+        );
+    }
+
+    @Test
+    void neverPrunesLatestBuild() {
+        new SnapshotCleanup(
+            this.storage,
+            new SnapshotRetention.NewerThan(
+                Duration.ofDays(1),
+                Clock.fixed(Instant.parse("2021-05-01T00:00:00Z"), ZoneOffset.UTC)
+            )
+        ).clean(SnapshotCleanupTest.VERSION).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.files().stream().filter(name -> !name.startsWith("maven-metadata"))
+                .collect(Collectors.toList()),
+            Matchers.containsInAnyOrder(
+                "logger-1.0-20210403.101010-3.jar",
+                "logger-1.0-20210403.101010-3.pom"
+            )
+        );
+    }
+
+    @Test
+    void sweepsSnapshotVersions() {
+        this.storage.save(
+            new Key.From(".upload/com/test/logger/1.0-SNAPSHOT/maven-metadata.xml"),
+            Content.EMPTY
+        ).join();
+        MatcherAssert.assertThat(
+            new SnapshotCleanup(
+                this.storage,
+                new SnapshotRetention.Either(
+                    new SnapshotRetention.LastBuilds(1),
+                    new SnapshotRetention.NewerThan(
+                        Duration.ofDays(1),
+                        Clock.fixed(Instant.parse("2021-04-02T12:00:00Z"), ZoneOffset.UTC)
+                    )
+                ),
+                key -> new LeaseLock(this.storage, key),
+                Duration.ZERO
+            ).sweep(Key.ROOT).toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+    }
+
+    private List<String> files() {
+        return this.storage.list(SnapshotCleanupTest.VERSION).join().stream()
+            .map(key -> new KeyLastPart(key).get())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CacheWarmup}.
+ * @since 0.12
+ */
+final class CacheWarmupTest {
+
+    @Test
+    void requestsPomsAndArtifactsOfCoordinates() throws Exception {
+        final List<String> requested = new CopyOnWriteArrayList<>();
+        final CacheWarmup warmup = new CacheWarmup(
+            (line, headers, body) -> {
+                requested.add(new RequestLineFrom(line).uri().getPath());
+                return StandardRs.EMPTY;
+            },
+            2, 0
+        );
+        warmup.run(
+            Arrays.asList(
+                "# dependencies",
+                "com.test:lib:1.0",
+                "",
+                "[INFO]    org.dep:dep:jar:tests:2.0:test -- module dep",
+                "org.parent:parent:pom:3.0",
+                "org.plugin:plugin:maven-plugin:4.0"
+            )
+        ).toCompletableFuture().get(1, TimeUnit.MINUTES);
+        MatcherAssert.assertThat(
+            requested,
+            Matchers.containsInAnyOrder(
+                "/com/test/lib/1.0/lib-1.0.pom",
+                "/com/test/lib/1.0/lib-1.0.jar",
+                "/org/dep/dep/2.0/dep-2.0.pom",
+                "/org/dep/dep/2.0/dep-2.0-tests.jar",
+                "/org/parent/parent/3.0/parent-3.0.pom",
+                "/org/plugin/plugin/4.0/plugin-4.0.pom",
+                "/org/plugin/plugin/4.0/plugin-4.0.jar"
+            )
+        );
+        MatcherAssert.assertThat(warmup.loaded(), new IsEqual<>(7L));
+    }
+
+    @Test
+    void requestsDependenciesOfDependencyListLog() throws Exception {
+        final List<String> requested = new CopyOnWriteArrayList<>();
+        final CacheWarmup warmup = new CacheWarmup(
+            (line, headers, body) -> {
+                requested.add(new RequestLineFrom(line).uri().getPath());
+                return StandardRs.EMPTY;
+            }
+        );
+        warmup.run(
+            Files.readAllLines(
+                Paths.get(
+                    Thread.currentThread().getContextClassLoader()
+                        .getResource("warmup/dependency-list.log").toURI()
+                )
+            )
+        ).toCompletableFuture().get(1, TimeUnit.MINUTES);
+        MatcherAssert.assertThat(
+            "Dependencies were requested",
+            requested,
+            Matchers.hasItems(
+                "/io/netty/netty-handler/4.1.49.Final/netty-handler-4.1.49.Final.pom",
+                "/io/netty/netty-handler/4.1.49.Final/netty-handler-4.1.49.Final.jar",
+                "/org/cactoos/cactoos/0.46/cactoos-0.46.jar"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Only dependencies were requested",
+            requested,
+            Matchers.hasSize(26)
+        );
+        MatcherAssert.assertThat("All items were loaded", warmup.loaded(), new IsEqual<>(26L));
+        MatcherAssert.assertThat("No item failed", warmup.failed(), new IsEqual<>(0L));
+    }
+
+    @Test
+    void skipsLinesWhichAreNotCoordinates() throws Exception {
+        final List<String> requested = new CopyOnWriteArrayList<>();
+        new CacheWarmup(
+            (line, headers, body) -> {
+                requested.add(new RequestLineFrom(line).uri().getPath());
+                return StandardRs.EMPTY;
+            }
+        ).run(
+            Arrays.asList(
+                "com.test:lib",
+                "[INFO] --- maven-dependency-plugin:3.1.2:list (default-cli) @ app ---",
+                "[INFO] The following files have been resolved:",
+                "[INFO]    none",
+                "[INFO] BUILD SUCCESS",
+                "[INFO] Finished at: 2021-04-20T12:00:00Z",
+                "[INFO]    com.test:lib:jar:1.0:compile"
+            )
+        ).toCompletableFuture().get(1, TimeUnit.MINUTES);
+        MatcherAssert.assertThat(
+            requested,
+            Matchers.containsInAnyOrder(
+                "/com/test/lib/1.0/lib-1.0.pom",
+                "/com/test/lib/1.0/lib-1.0.jar"
+            )
+        );
+    }
+
+    @Test
+    void retriesFailedItemsWithBackoff() throws Exception {
+        final Map<String, List<Long>> attempts = new ConcurrentHashMap<>();
+        final CacheWarmup warmup = new CacheWarmup(
+            (line, headers, body) -> {
+                final String path = new RequestLineFrom(line).uri().getPath();
+                final List<Long> times = attempts.computeIfAbsent(
+                    path, key -> new CopyOnWriteArrayList<>()
+                );
+                times.add(System.nanoTime());
+                final Response res;
+                if (path.contains("missing") || path.endsWith(".jar") && times.size() < 3) {
+                    res = new RsWithStatus(RsStatus.NOT_FOUND);
+                } else {
+                    res = StandardRs.EMPTY;
+                }
+                return res;
+            },
+            4, 2, Duration.ofMillis(50)
+        );
+        warmup.run(Arrays.asList("com.test:lib:1.0", "com.test:missing:pom:1.0"))
+            .toCompletableFuture().get(1, TimeUnit.MINUTES);
+        MatcherAssert.assertThat("Items were loaded", warmup.loaded(), new IsEqual<>(2L));
+        MatcherAssert.assertThat("Missing item failed", warmup.failed(), new IsEqual<>(1L));
+        final List<Long> missing = attempts.get("/com/test/missing/1.0/missing-1.0.pom");
+        MatcherAssert.assertThat("Missing item was retried", missing.size(), new IsEqual<>(3));
+        MatcherAssert.assertThat(
+            "First retry was delayed",
+            TimeUnit.NANOSECONDS.toMillis(missing.get(1) - missing.get(0)),
+            Matchers.greaterThanOrEqualTo(50L)
+        );
+        MatcherAssert.assertThat(
+            "Second retry delay was doubled",
+            TimeUnit.NANOSECONDS.toMillis(missing.get(2) - missing.get(1)),
+            Matchers.greaterThanOrEqualTo(100L)
+        );
+    }
+}
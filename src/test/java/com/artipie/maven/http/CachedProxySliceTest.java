@@ -25,20 +25,58 @@ package com.artipie.maven.http;
 
 import com.artipie.asto.Content;
 import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.cache.FromStorageCache;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Header;
+import com.artipie.http.hm.IsHeader;
 import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasHeaders;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.hm.SliceHasResponse;
 import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RequestLineFrom;
 import com.artipie.http.rq.RqMethod;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
 import com.artipie.http.slice.SliceSimple;
+import com.artipie.maven.CountingStorage;
+import com.artipie.maven.metrics.MicrometerMetrics;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -49,6 +87,11 @@ import org.junit.jupiter.api.Test;
  */
 final class CachedProxySliceTest {
 
+    /**
+     * Remote checksum files paths.
+     */
+    private static final String CHECKSUMS = ".*\\.(sha1|sha256)$";
+
     @Test
     void loadsCachedContent() {
         final byte[] data = "cache".getBytes();
@@ -70,21 +113,56 @@ final class CachedProxySliceTest {
     }
 
     @Test
-    void returnsNotFoundOnRemoteError() {
+    void passesRemoteErrorOnMiss() {
         MatcherAssert.assertThat(
             new CachedProxySlice(
                 new SliceSimple(new RsWithStatus(RsStatus.INTERNAL_ERROR)),
                 (key, supplier, control) -> supplier.get()
             ),
             new SliceHasResponse(
-                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RsHasStatus(RsStatus.INTERNAL_ERROR),
                 new RequestLine(RqMethod.GET, "/any")
             )
         );
     }
 
     @Test
-    void returnsNotFoundOnRemoteAndCacheError() {
+    void returnsUnavailableOnMissWhileUpstreamIsUnavailable() {
+        final Storage storage = new InMemoryStorage();
+        MatcherAssert.assertThat(
+            "Upstream status was returned",
+            new CachedProxySlice(
+                new SliceSimple(new RsWithStatus(RsStatus.UNAVAILABLE)),
+                new FromStorageCache(storage)
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.UNAVAILABLE),
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Nothing was cached",
+            storage.exists(new Key.From("com/test/lib/1.0/lib-1.0.jar")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void returnsNotFoundOnRemoteNotFound() {
+        MatcherAssert.assertThat(
+            new CachedProxySlice(
+                new SliceSimple(StandardRs.NOT_FOUND),
+                new FromStorageCache(new InMemoryStorage())
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+    }
+
+    @Test
+    void returnsUnavailableOnRemoteAndCacheError() {
         MatcherAssert.assertThat(
             new CachedProxySlice(
                 new SliceSimple(new RsWithStatus(RsStatus.INTERNAL_ERROR)),
@@ -92,12 +170,730 @@ final class CachedProxySliceTest {
                     -> new FailedCompletionStage<>(new RuntimeException("Any error"))
             ),
             new SliceHasResponse(
-                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RsHasStatus(RsStatus.UNAVAILABLE),
                 new RequestLine(RqMethod.GET, "/abc")
             )
         );
     }
 
+    @Test
+    void doesNotServeInternalData() {
+        final Storage storage = new InMemoryStorage();
+        final String path = ".artipie-headers/com/test/lib/1.0/lib-1.0.jar";
+        storage.save(new Key.From(path), new Content.From("headers".getBytes())).join();
+        final AtomicInteger requests = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Internal data was not found",
+            new CachedProxySlice(
+                (line, headers, body) -> {
+                    requests.incrementAndGet();
+                    return StandardRs.OK;
+                },
+                new FromStorageCache(storage)
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, String.format("/%s", path))
+            )
+        );
+        MatcherAssert.assertThat("Remote was not requested", requests.get(), new IsEqual<>(0));
+    }
+
+    @Test
+    void servesCachedReleaseWithoutRemoteRequests() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] data = "cached jar".getBytes();
+        final Key key = new Key.From("com/test/lib/1.0/lib-1.0.jar");
+        storage.save(key, new Content.From(data)).join();
+        final AtomicInteger requests = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Cached content was returned",
+            new CachedProxySlice(
+                (line, headers, body) -> {
+                    requests.incrementAndGet();
+                    return StandardRs.NOT_FOUND;
+                },
+                new FromStorageCache(storage)
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody(data)),
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Remote was not requested",
+            requests.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void countsCacheHitsAndMisses() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final byte[] data = "jar".getBytes();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> new RsWithHeaders(
+                new RsWithBody(StandardRs.OK, data),
+                new Header("X-Checksum-Sha1", DigestUtils.sha1Hex(data))
+            ),
+            new FromStorageCache(new InMemoryStorage()), Duration.ZERO, DetachedFills.NONE,
+            Prefetch.NONE, new Outage(), new MicrometerMetrics(registry)
+        );
+        CachedProxySliceTest.get(slice).join();
+        CachedProxySliceTest.get(slice).join();
+        MatcherAssert.assertThat(
+            "Miss was counted",
+            registry.get("maven.proxy.cache").tag("result", "miss").counter().count(),
+            new IsEqual<>(1.0)
+        );
+        MatcherAssert.assertThat(
+            "Hit was counted",
+            registry.get("maven.proxy.cache").tag("result", "hit").counter().count(),
+            new IsEqual<>(1.0)
+        );
+    }
+
+    @Test
+    void loadsWithBoundedStorageOperations() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] data = "jar".getBytes();
+        final Slice upstream = (line, headers, body) -> new RsWithHeaders(
+            new RsWithBody(StandardRs.OK, data),
+            new Header("X-Checksum-Sha1", DigestUtils.sha1Hex(data))
+        );
+        final CountingStorage miss = new CountingStorage(storage);
+        CachedProxySliceTest.get(new CachedProxySlice(upstream, new FromStorageCache(miss)))
+            .join();
+        final CountingStorage hit = new CountingStorage(storage);
+        CachedProxySliceTest.get(new CachedProxySlice(upstream, new FromStorageCache(hit)))
+            .join();
+        MatcherAssert.assertThat(
+            String.format("Storage operations on miss %s", miss.counts()),
+            miss.total(), Matchers.lessThanOrEqualTo(7L)
+        );
+        MatcherAssert.assertThat(
+            String.format("Storage operations on hit %s", hit.counts()),
+            hit.total(), Matchers.lessThanOrEqualTo(4L)
+        );
+    }
+
+    @Test
+    void replaysUpstreamHeadersOnHit() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] data = "jar with headers".getBytes();
+        final String sha = DigestUtils.sha1Hex(data);
+        final AtomicInteger requests = new AtomicInteger();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> {
+                final Response res;
+                if (requests.getAndIncrement() == 0) {
+                    res = new RsWithHeaders(
+                        new RsWithBody(ByteBuffer.wrap(data)),
+                        new Headers.From(
+                            new Header("X-Checksum-Sha1", sha),
+                            new Header("ETag", "abc"),
+                            new Header("Server", "upstream")
+                        )
+                    );
+                } else {
+                    res = StandardRs.NOT_FOUND;
+                }
+                return res;
+            },
+            new FromStorageCache(storage)
+        );
+        CachedProxySliceTest.get(slice).join();
+        MatcherAssert.assertThat(
+            slice,
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new IsHeader("X-Checksum-Sha1", sha),
+                        new IsHeader("ETag", "abc"),
+                        new IsHeader("Content-Length", String.valueOf(data.length))
+                    )
+                ),
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+    }
+
+    @Test
+    void servesFreshMetadataWithoutRemoteRequests() {
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        final byte[] data = "<metadata/>".getBytes();
+        storage.save(key, new Content.From(data)).join();
+        new CachedHeaders(new FromStorageCache(storage)).save(key, Headers.EMPTY)
+            .toCompletableFuture().join();
+        final AtomicInteger requests = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Cached metadata was returned",
+            new CachedProxySlice(
+                (line, headers, body) -> {
+                    requests.incrementAndGet();
+                    return StandardRs.NOT_FOUND;
+                },
+                new FromStorageCache(storage),
+                Duration.ofHours(1)
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody(data)),
+                new RequestLine(RqMethod.GET, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Remote was not requested",
+            requests.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void revalidatesExpiredMetadataBeforeServing() {
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        final byte[] fresh = "<metadata>fresh</metadata>".getBytes();
+        storage.save(key, new Content.From("<metadata>stale</metadata>".getBytes())).join();
+        MatcherAssert.assertThat(
+            "Fresh metadata was returned",
+            new CachedProxySlice(
+                (line, headers, body) -> new RsWithBody(ByteBuffer.wrap(fresh)),
+                new FromStorageCache(storage)
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody(fresh)),
+                new RequestLine(RqMethod.GET, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Metadata was replaced in cache",
+            new BlockingStorage(storage).value(key),
+            new IsEqual<>(fresh)
+        );
+    }
+
+    @Test
+    void servesExpiredMetadataWhenRevalidationFails() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] data = "<metadata>cached</metadata>".getBytes();
+        storage.save(new Key.From("com/test/lib/maven-metadata.xml"), new Content.From(data))
+            .join();
+        MatcherAssert.assertThat(
+            new CachedProxySlice(
+                (line, headers, body) -> connection -> new FailedCompletionStage<>(
+                    new IllegalStateException("Refused")
+                ),
+                new FromStorageCache(storage)
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody(data)),
+                new RequestLine(RqMethod.GET, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+    }
+
+    @Test
+    void servesStaleMetadataAndRefreshesItInBackground() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        final byte[] stale = "<metadata>stale</metadata>".getBytes();
+        final byte[] fresh = "<metadata>fresh</metadata>".getBytes();
+        storage.save(key, new Content.From(stale)).join();
+        MatcherAssert.assertThat(
+            "Stale metadata was returned",
+            new CachedProxySlice(
+                (line, headers, body) -> new RsWithBody(ByteBuffer.wrap(fresh)),
+                new FromStorageCache(storage),
+                Duration.ofHours(1),
+                true
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody(stale)),
+                new RequestLine(RqMethod.GET, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (!Arrays.equals(new BlockingStorage(storage).value(key), fresh)
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        MatcherAssert.assertThat(
+            "Metadata was refreshed",
+            new BlockingStorage(storage).value(key),
+            new IsEqual<>(fresh)
+        );
+    }
+
+    @Test
+    void servesExpiredMetadataWhileUpstreamIsDown() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] data = "<metadata>cached</metadata>".getBytes();
+        storage.save(new Key.From("com/test/lib/maven-metadata.xml"), new Content.From(data))
+            .join();
+        final AtomicInteger requests = new AtomicInteger();
+        final Outage outage = new Outage(Duration.ofMinutes(1), Duration.ofMinutes(1));
+        for (int idx = 0; idx < 5; ++idx) {
+            outage.failure();
+        }
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        MatcherAssert.assertThat(
+            "Cached metadata was returned",
+            new CachedProxySlice(
+                new OutageSlice(
+                    (line, headers, body) -> {
+                        requests.incrementAndGet();
+                        return StandardRs.EMPTY;
+                    },
+                    outage
+                ),
+                new FromStorageCache(storage), Duration.ZERO, DetachedFills.NONE,
+                Prefetch.NONE, outage, new MicrometerMetrics(registry)
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody(data)),
+                new RequestLine(RqMethod.GET, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+        MatcherAssert.assertThat("Stale answer was counted", outage.stale(), new IsEqual<>(1L));
+        MatcherAssert.assertThat(
+            "Stale answer was reported",
+            registry.get("maven.proxy.outage").tag("result", "stale").counter().count(),
+            new IsEqual<>(1.0)
+        );
+        MatcherAssert.assertThat("Upstream was not requested", requests.get(), new IsEqual<>(0));
+    }
+
+    @Test
+    void revalidatesStaleMetadataWithConditionalRequest() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        final byte[] data = "<metadata>same</metadata>".getBytes();
+        storage.save(key, new Content.From(data)).join();
+        final CachedHeaders stored = new CachedHeaders(new FromStorageCache(storage));
+        stored.save(key, new Headers.From("ETag", "\"v1\"")).toCompletableFuture().join();
+        final Instant saved = stored.load(key).toCompletableFuture().join().get().saved();
+        final List<String> conditions = new CopyOnWriteArrayList<>();
+        MatcherAssert.assertThat(
+            "Stale metadata was returned",
+            new CachedProxySlice(
+                (line, headers, body) -> {
+                    for (final Map.Entry<String, String> header : headers) {
+                        if ("If-None-Match".equalsIgnoreCase(header.getKey())) {
+                            conditions.add(header.getValue());
+                        }
+                    }
+                    return new RsWithStatus(RsStatus.NOT_MODIFIED);
+                },
+                new FromStorageCache(storage),
+                Duration.ZERO
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody(data)),
+                new RequestLine(RqMethod.GET, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (!stored.load(key).toCompletableFuture().join().get().saved().isAfter(saved)
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        MatcherAssert.assertThat(
+            "Upstream was asked with stored ETag",
+            conditions,
+            Matchers.contains("\"v1\"")
+        );
+        MatcherAssert.assertThat(
+            "Saved time was updated",
+            stored.load(key).toCompletableFuture().join().get().saved(),
+            Matchers.greaterThan(saved)
+        );
+        MatcherAssert.assertThat(
+            "Metadata was kept",
+            new BlockingStorage(storage).value(key),
+            new IsEqual<>(data)
+        );
+    }
+
+    @Test
+    void abortsStreamAndDoesNotCacheContentWithWrongChecksum() {
+        final Storage storage = new InMemoryStorage();
+        final CompletableFuture<Void> read = new CompletableFuture<>();
+        new CachedProxySlice(
+            new SliceSimple(
+                new RsWithHeaders(
+                    new RsWithBody(ByteBuffer.wrap("corrupted".getBytes())),
+                    new Headers.From("X-Checksum-Sha1", "0123456789")
+                )
+            ),
+            new FromStorageCache(storage)
+        ).response(
+            new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar").toString(),
+            Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> new PublisherAs(body).bytes()
+                .thenAccept(bytes -> read.complete(null))
+                .exceptionally(
+                    err -> {
+                        read.completeExceptionally(err);
+                        return null;
+                    }
+                )
+        );
+        MatcherAssert.assertThat(
+            "Client stream was aborted",
+            Assertions.assertThrows(CompletionException.class, read::join).getMessage(),
+            Matchers.containsString("checksum mismatch")
+        );
+        MatcherAssert.assertThat(
+            "Content was not cached",
+            storage.exists(new Key.From("com/test/lib/1.0/lib-1.0.jar")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void streamsMissToClientBeforeUpstreamCompletes() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final PublishProcessor<ByteBuffer> upstream = PublishProcessor.create();
+        final CompletableFuture<byte[]> first = new CompletableFuture<>();
+        new CachedProxySlice(
+            (line, headers, body) -> new RsWithBody(StandardRs.OK, new Content.From(upstream)),
+            new FromStorageCache(storage)
+        ).response(
+            new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar").toString(),
+            Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> {
+                Flowable.fromPublisher(body).firstElement().subscribe(
+                    buf -> {
+                        final byte[] bytes = new byte[buf.remaining()];
+                        buf.get(bytes);
+                        first.complete(bytes);
+                    }
+                );
+                return CompletableFuture.allOf();
+            }
+        );
+        while (!upstream.hasSubscribers()) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        CachedProxySliceTest.emit(upstream, "first");
+        MatcherAssert.assertThat(
+            "First chunk was streamed before upstream completed",
+            first.get(1, TimeUnit.MINUTES),
+            new IsEqual<>("first".getBytes())
+        );
+        MatcherAssert.assertThat(
+            "Incomplete content was not cached",
+            storage.exists(new Key.From("com/test/lib/1.0/lib-1.0.jar")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void verifiesWithRemoteChecksumFileAndCachesIt() {
+        final Storage storage = new InMemoryStorage();
+        final byte[] data = "jar without checksum headers".getBytes();
+        final String sha = DigestUtils.sha1Hex(data);
+        final List<String> requested = new CopyOnWriteArrayList<>();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> {
+                final String path = new RequestLineFrom(line).uri().getPath();
+                requested.add(path);
+                final Response res;
+                if (path.endsWith(".jar.sha1")) {
+                    res = new RsWithBody(
+                        ByteBuffer.wrap(String.format("%s  lib-1.0.jar", sha).getBytes())
+                    );
+                } else {
+                    res = new RsWithBody(ByteBuffer.wrap(data));
+                }
+                return res;
+            },
+            new FromStorageCache(storage)
+        );
+        CachedProxySliceTest.get(slice).join();
+        MatcherAssert.assertThat(
+            "Verified jar was cached",
+            new BlockingStorage(storage).value(new Key.From("com/test/lib/1.0/lib-1.0.jar")),
+            new IsEqual<>(data)
+        );
+        MatcherAssert.assertThat(
+            "Checksum file was served from cache",
+            slice,
+            new SliceHasResponse(
+                new RsHasBody(String.format("%s  lib-1.0.jar", sha).getBytes()),
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar.sha1")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Jar and checksum file were requested once",
+            requested,
+            Matchers.contains(
+                "/com/test/lib/1.0/lib-1.0.jar", "/com/test/lib/1.0/lib-1.0.jar.sha1"
+            )
+        );
+    }
+
+    @Test
+    void doesNotCacheContentWithWrongChecksumFile() {
+        final Storage storage = new InMemoryStorage();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> {
+                final Response res;
+                if (line.contains(".jar.sha1")) {
+                    res = new RsWithBody(
+                        ByteBuffer.wrap(DigestUtils.sha1Hex("other").getBytes())
+                    );
+                } else {
+                    res = new RsWithBody(ByteBuffer.wrap("corrupted".getBytes()));
+                }
+                return res;
+            },
+            new FromStorageCache(storage)
+        );
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> CachedProxySliceTest.get(slice).join()
+        );
+        MatcherAssert.assertThat(
+            storage.exists(new Key.From("com/test/lib/1.0/lib-1.0.jar")).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void continuesFillAfterClientDisconnects() throws Exception {
+        MatcherAssert.assertThat(
+            CachedProxySliceTest.disconnected(new DetachedFills(1)),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void cancelsFillAfterClientDisconnectsWithoutBudget() throws Exception {
+        MatcherAssert.assertThat(
+            CachedProxySliceTest.disconnected(DetachedFills.NONE),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void prefetchesJarAndDependenciesOfPom() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final byte[] pom = String.join(
+            "",
+            "<project><groupId>com.test</groupId><artifactId>lib</artifactId>",
+            "<version>1.0</version><dependencies><dependency><groupId>org.dep</groupId>",
+            "<artifactId>dep</artifactId><version>2.0</version></dependency>",
+            "</dependencies></project>"
+        ).getBytes();
+        final List<String> requested = new CopyOnWriteArrayList<>();
+        final Prefetch prefetch = new Prefetch(2, 1);
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> {
+                final String path = new RequestLineFrom(line).uri().getPath();
+                final Response res;
+                if (path.matches(CachedProxySliceTest.CHECKSUMS)) {
+                    res = StandardRs.NOT_FOUND;
+                } else if (path.endsWith("lib-1.0.pom")) {
+                    requested.add(path);
+                    res = new RsWithBody(ByteBuffer.wrap(pom));
+                } else {
+                    requested.add(path);
+                    res = new RsWithBody(ByteBuffer.wrap(path.getBytes()));
+                }
+                return res;
+            },
+            new FromStorageCache(storage),
+            Duration.ZERO,
+            DetachedFills.NONE,
+            prefetch
+        );
+        slice.response(
+            new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.pom").toString(),
+            Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> new PublisherAs(body).bytes().thenApply(bytes -> null)
+        ).toCompletableFuture().get(1, TimeUnit.MINUTES);
+        while (prefetch.filled() < 2) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        MatcherAssert.assertThat(
+            "Jar and dependency POM were cached",
+            new BlockingStorage(storage).list(Key.ROOT),
+            Matchers.hasItems(
+                new Key.From("com/test/lib/1.0/lib-1.0.jar"),
+                new Key.From("org/dep/dep/2.0/dep-2.0.pom")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Dependencies of dependency were not prefetched beyond depth",
+            requested,
+            Matchers.hasSize(3)
+        );
+    }
+
+    @Test
+    void coalescesConcurrentMisses() throws Exception {
+        final AtomicInteger gets = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Item was returned to all requests",
+            CachedProxySliceTest.concurrent(
+                new RsWithBody(ByteBuffer.wrap("slow remote".getBytes())), gets
+            ),
+            Matchers.everyItem(new IsEqual<>(RsStatus.OK))
+        );
+        MatcherAssert.assertThat("Upstream was requested once", gets.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void sharesUpstreamFailureWithCoalescedMisses() throws Exception {
+        final AtomicInteger gets = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Failure was returned to all requests",
+            CachedProxySliceTest.concurrent(new RsWithStatus(RsStatus.UNAVAILABLE), gets),
+            Matchers.everyItem(new IsEqual<>(RsStatus.UNAVAILABLE))
+        );
+        MatcherAssert.assertThat("Upstream was requested once", gets.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void sharesUpstreamNotFoundWithCoalescedMisses() throws Exception {
+        final AtomicInteger gets = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Not found was returned to all requests",
+            CachedProxySliceTest.concurrent(StandardRs.NOT_FOUND, gets),
+            Matchers.everyItem(new IsEqual<>(RsStatus.NOT_FOUND))
+        );
+        MatcherAssert.assertThat("Upstream was requested once", gets.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void retriesCoalescedMissWhenLeaderDisconnects() throws Exception {
+        final byte[] data = "first second".getBytes();
+        final PublishProcessor<ByteBuffer> slow = PublishProcessor.create();
+        final AtomicInteger gets = new AtomicInteger();
+        final CompletableFuture<Void> requested = new CompletableFuture<>();
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> {
+                final Content content;
+                if (gets.incrementAndGet() == 1) {
+                    content = new Content.From(slow);
+                } else {
+                    content = new Content.From(data);
+                }
+                requested.complete(null);
+                return new RsWithHeaders(
+                    new RsWithBody(StandardRs.OK, content),
+                    new Headers.From("X-Checksum-Sha1", DigestUtils.sha1Hex(data))
+                );
+            },
+            new CoalescingCache(
+                new FromStorageCache(new InMemoryStorage()), new MicrometerMetrics(registry)
+            )
+        );
+        final String line = new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar")
+            .toString();
+        final CompletionStage<Void> leader = slice.response(line, Headers.EMPTY, Content.EMPTY)
+            .send(
+                (status, headers, body) -> Flowable.fromPublisher(body).take(1)
+                    .ignoreElements().to(CompletableInterop.await())
+            );
+        requested.get(1, TimeUnit.MINUTES);
+        final CompletableFuture<byte[]> follower = new CompletableFuture<>();
+        slice.response(line, Headers.EMPTY, Content.EMPTY).send(
+            (status, headers, body) -> new PublisherAs(body).bytes().thenAccept(
+                bytes -> {
+                    if (status == RsStatus.OK) {
+                        follower.complete(bytes);
+                    } else {
+                        follower.completeExceptionally(
+                            new IllegalStateException(status.code())
+                        );
+                    }
+                }
+            ).toCompletableFuture()
+        );
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (registry.find("maven.proxy.coalesced").counters().isEmpty()
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        CachedProxySliceTest.emit(slow, "first");
+        leader.toCompletableFuture().get(1, TimeUnit.MINUTES);
+        MatcherAssert.assertThat(
+            "Follower got the item",
+            follower.get(1, TimeUnit.MINUTES),
+            new IsEqual<>(data)
+        );
+        MatcherAssert.assertThat("Follower requested upstream", gets.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void failsMissAndReleasesLoadWhenUpstreamConnectionFails() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> connection -> {
+                attempts.incrementAndGet();
+                return new FailedCompletionStage<>(new IllegalStateException("Refused"));
+            },
+            new CoalescingCache(new FromStorageCache(new InMemoryStorage()))
+        );
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (attempts.get() < 2 && System.currentTimeMillis() < deadline) {
+            MatcherAssert.assertThat(
+                "Connection failure was answered",
+                CachedProxySliceTest.status(slice, "/com/test/lib/1.0/lib-1.0.jar")
+                    .get(1, TimeUnit.MINUTES),
+                new IsEqual<>(RsStatus.UNAVAILABLE)
+            );
+            Thread.sleep(10);
+        }
+        MatcherAssert.assertThat(
+            "Coalesced load was released",
+            attempts.get(),
+            Matchers.greaterThanOrEqualTo(2)
+        );
+    }
+
+    @Test
+    void releasesRefreshWhenUpstreamConnectionFails() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        storage.save(key, new Content.From("<metadata>stale</metadata>".getBytes())).join();
+        new CachedHeaders(new FromStorageCache(storage))
+            .save(key, new Headers.From("ETag", "\"v1\"")).toCompletableFuture().join();
+        final AtomicInteger attempts = new AtomicInteger();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> connection -> {
+                attempts.incrementAndGet();
+                return new FailedCompletionStage<>(new IllegalStateException("Refused"));
+            },
+            new FromStorageCache(storage),
+            Duration.ZERO,
+            true
+        );
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (attempts.get() < 2 && System.currentTimeMillis() < deadline) {
+            MatcherAssert.assertThat(
+                "Stale metadata was served",
+                CachedProxySliceTest.status(slice, "/com/test/lib/maven-metadata.xml")
+                    .get(1, TimeUnit.MINUTES),
+                new IsEqual<>(RsStatus.OK)
+            );
+            Thread.sleep(10);
+        }
+        MatcherAssert.assertThat(
+            "Failed refresh was released",
+            attempts.get(),
+            Matchers.greaterThanOrEqualTo(2)
+        );
+    }
+
     @Test
     void loadsOriginIfCacheNotFound() {
         final byte[] data = "remote".getBytes();
@@ -115,4 +911,178 @@ final class CachedProxySliceTest {
             )
         );
     }
+
+    /**
+     * Sends GET request to the slice and reads response body.
+     * @param slice Slice
+     * @return Completion of the response
+     */
+    private static CompletableFuture<Void> get(final Slice slice) {
+        final CompletableFuture<Void> res = new CompletableFuture<>();
+        slice.response(
+            new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar").toString(),
+            Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> new PublisherAs(body).bytes()
+                .thenAccept(bytes -> res.complete(null)).toCompletableFuture()
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err != null) {
+                    res.completeExceptionally(err);
+                }
+            }
+        );
+        return res;
+    }
+
+    /**
+     * Five concurrent misses of the item while upstream answers slowly: the first request
+     * reaches upstream, others are sent while it's waiting and are coalesced with it.
+     * @param answer Upstream answer to {@code GET} request of the item
+     * @param gets Counter of upstream {@code GET} requests of the item
+     * @return Response statuses
+     * @throws Exception On error
+     */
+    private static List<RsStatus> concurrent(final Response answer, final AtomicInteger gets)
+        throws Exception {
+        final CompletableFuture<Void> requested = new CompletableFuture<>();
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Slice slice = new CachedProxySlice(
+            (line, headers, body) -> {
+                final RequestLineFrom rql = new RequestLineFrom(line);
+                final Response res;
+                if (rql.uri().getPath().matches(CachedProxySliceTest.CHECKSUMS)) {
+                    res = StandardRs.NOT_FOUND;
+                } else if (rql.method() == RqMethod.GET) {
+                    gets.incrementAndGet();
+                    requested.complete(null);
+                    res = new AsyncResponse(gate.thenApply(nothing -> answer));
+                } else {
+                    res = StandardRs.OK;
+                }
+                return res;
+            },
+            new CoalescingCache(
+                new FromStorageCache(new InMemoryStorage()), new MicrometerMetrics(registry)
+            )
+        );
+        final String path = "/com/test/lib/1.0/lib-1.0.jar";
+        final List<CompletableFuture<RsStatus>> responses = new ArrayList<>(5);
+        responses.add(CachedProxySliceTest.status(slice, path));
+        requested.get(1, TimeUnit.MINUTES);
+        for (int num = 0; num < 4; num += 1) {
+            responses.add(CachedProxySliceTest.status(slice, path));
+        }
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (registry.find("maven.proxy.coalesced").counters().stream()
+            .mapToDouble(Counter::count).sum() < 4
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        gate.complete(null);
+        final List<RsStatus> res = new ArrayList<>(responses.size());
+        for (final CompletableFuture<RsStatus> response : responses) {
+            res.add(response.get(1, TimeUnit.MINUTES));
+        }
+        MatcherAssert.assertThat(
+            "Concurrent misses were coalesced",
+            registry.get("maven.proxy.coalesced").counter().count(),
+            new IsEqual<>(4.0)
+        );
+        return res;
+    }
+
+    /**
+     * Send {@code GET} request to the slice and read response body.
+     * @param slice Slice
+     * @param path Request path
+     * @return Response status
+     */
+    private static CompletableFuture<RsStatus> status(final Slice slice, final String path) {
+        final CompletableFuture<RsStatus> res = new CompletableFuture<>();
+        slice.response(
+            new RequestLine(RqMethod.GET, path).toString(), Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> new PublisherAs(body).bytes()
+                .thenAccept(bytes -> res.complete(status)).toCompletableFuture()
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err != null) {
+                    res.completeExceptionally(err);
+                }
+            }
+        );
+        return res;
+    }
+
+    /**
+     * Emits chunk to upstream once all its subscribers requested it, chunks emitted
+     * before subscribers request them are lost.
+     * @param upstream Upstream processor
+     * @param data Chunk
+     * @throws InterruptedException If interrupted
+     */
+    private static void emit(final PublishProcessor<ByteBuffer> upstream, final String data)
+        throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (!upstream.offer(ByteBuffer.wrap(data.getBytes()))
+            && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * Client reads the first chunk of proxied item and disconnects, upstream sends the rest.
+     * With fills budget the item is awaited in the cache, cache is checked at once otherwise.
+     * @param fills Detached fills budget
+     * @return True if complete item was cached
+     * @throws Exception On error
+     */
+    private static boolean disconnected(final DetachedFills fills) throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final PublishProcessor<ByteBuffer> upstream = PublishProcessor.create();
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        new CachedProxySlice(
+            (line, headers, body) -> new RsWithHeaders(
+                new RsWithBody(StandardRs.OK, new Content.From(upstream)),
+                new Headers.From("X-Checksum-Sha1", DigestUtils.sha1Hex("first second"))
+            ),
+            new FromStorageCache(storage),
+            Duration.ZERO,
+            fills
+        ).response(
+            new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar").toString(),
+            Headers.EMPTY, Content.EMPTY
+        ).send(
+            (status, headers, body) -> {
+                Flowable.fromPublisher(body).firstElement()
+                    .subscribe(buf -> first.complete(null));
+                return CompletableFuture.allOf();
+            }
+        );
+        while (!upstream.hasSubscribers()) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        CachedProxySliceTest.emit(upstream, "first ");
+        first.get(1, TimeUnit.MINUTES);
+        CachedProxySliceTest.emit(upstream, "second");
+        upstream.onComplete();
+        final Key key = new Key.From("com/test/lib/1.0/lib-1.0.jar");
+        final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (fills != DetachedFills.NONE && !storage.exists(key).join()
+            && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        final boolean res = storage.exists(key).join();
+        if (res) {
+            MatcherAssert.assertThat(
+                "Complete item was cached",
+                new BlockingStorage(storage).value(key),
+                new IsEqual<>("first second".getBytes())
+            );
+            MatcherAssert.assertThat("Budget was released", fills.running(), new IsEqual<>(0));
+        }
+        return res;
+    }
 }
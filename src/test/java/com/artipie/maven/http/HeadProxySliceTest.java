@@ -24,8 +24,14 @@
 package com.artipie.maven.http;
 
 import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.cache.FromStorageCache;
 import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.IsHeader;
 import com.artipie.http.hm.RsHasHeaders;
 import com.artipie.http.hm.RsHasStatus;
 import com.artipie.http.hm.SliceHasResponse;
@@ -36,7 +42,10 @@ import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.rs.StandardRs;
 import com.artipie.http.slice.SliceSimple;
+import com.artipie.maven.CountingStorage;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.collection.IsEmptyIterable;
@@ -88,4 +97,144 @@ class HeadProxySliceTest {
         );
     }
 
+    @Test
+    void doesNotServeInternalData() {
+        final Storage storage = new InMemoryStorage();
+        final String path = ".artipie-headers/com/test/lib/1.0/lib-1.0.jar";
+        storage.save(new Key.From(path), new Content.From("headers".getBytes())).join();
+        final AtomicInteger requests = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Internal data was not found",
+            new HeadProxySlice(
+                (line, headers, body) -> {
+                    requests.incrementAndGet();
+                    return StandardRs.OK;
+                },
+                new FromStorageCache(storage),
+                Duration.ofMinutes(1)
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.HEAD, String.format("/%s", path))
+            )
+        );
+        MatcherAssert.assertThat("Remote was not requested", requests.get(), new IsEqual<>(0));
+    }
+
+    @Test
+    void answersCachedItemWithoutRemote() {
+        final Storage storage = new InMemoryStorage();
+        storage.save(
+            new Key.From("com/test/lib/1.0/lib-1.0.jar"), new Content.From("jar".getBytes())
+        ).join();
+        final AtomicInteger requests = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Cached item headers were returned",
+            new HeadProxySlice(
+                (line, headers, body) -> {
+                    requests.incrementAndGet();
+                    return StandardRs.NOT_FOUND;
+                },
+                new FromStorageCache(storage),
+                Duration.ofMinutes(1)
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(
+                    new RsHasStatus(RsStatus.OK),
+                    new RsHasHeaders(
+                        new IsHeader("Content-Length", "3"),
+                        new IsHeader("Content-Type", Matchers.any(String.class)),
+                        new IsHeader("Content-Disposition", Matchers.any(String.class))
+                    )
+                ),
+                new RequestLine(RqMethod.HEAD, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+        MatcherAssert.assertThat("Remote was not requested", requests.get(), new IsEqual<>(0));
+    }
+
+    @Test
+    void answersExpiredMetadataFromRemote() {
+        final Storage storage = new InMemoryStorage();
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        storage.save(key, new Content.From("<metadata/>".getBytes())).join();
+        new CachedHeaders(new FromStorageCache(storage))
+            .save(key, new Headers.From("ETag", "\"v1\"")).toCompletableFuture().join();
+        final AtomicInteger requests = new AtomicInteger();
+        final Slice upstream = (line, headers, body) -> {
+            requests.incrementAndGet();
+            return new RsWithHeaders(StandardRs.OK, new Headers.From("ETag", "\"v2\""));
+        };
+        MatcherAssert.assertThat(
+            "Fresh metadata was answered from cache",
+            new HeadProxySlice(
+                upstream, new FromStorageCache(storage), Duration.ZERO, Duration.ofHours(1)
+            ),
+            new SliceHasResponse(
+                new RsHasHeaders(
+                    new IsHeader("ETag", "\"v1\""), new IsHeader("Content-Length", "11")
+                ),
+                new RequestLine(RqMethod.HEAD, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+        MatcherAssert.assertThat("Remote was not requested", requests.get(), new IsEqual<>(0));
+        MatcherAssert.assertThat(
+            "Expired metadata was answered from remote",
+            new HeadProxySlice(
+                upstream, new FromStorageCache(storage), Duration.ZERO, Duration.ZERO
+            ),
+            new SliceHasResponse(
+                new RsHasHeaders(new IsHeader("ETag", "\"v2\"")),
+                new RequestLine(RqMethod.HEAD, "/com/test/lib/maven-metadata.xml")
+            )
+        );
+        MatcherAssert.assertThat("Remote was requested", requests.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void answersCachedItemWithBoundedStorageOperations() {
+        final Storage storage = new InMemoryStorage();
+        storage.save(
+            new Key.From("com/test/lib/1.0/lib-1.0.jar"), new Content.From("jar".getBytes())
+        ).join();
+        final CountingStorage counting = new CountingStorage(storage);
+        MatcherAssert.assertThat(
+            "Cached item was found",
+            new HeadProxySlice(
+                new SliceSimple(StandardRs.NOT_FOUND), new FromStorageCache(counting),
+                Duration.ofMinutes(1)
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.OK),
+                new RequestLine(RqMethod.HEAD, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+        MatcherAssert.assertThat(
+            String.format("Storage operations %s", counting.counts()),
+            counting.total(), Matchers.lessThanOrEqualTo(3L)
+        );
+    }
+
+    @Test
+    void keepsRemoteAnswerBriefly() {
+        final AtomicInteger requests = new AtomicInteger();
+        final Slice slice = new HeadProxySlice(
+            (line, headers, body) -> {
+                requests.incrementAndGet();
+                return new RsWithHeaders(StandardRs.OK, new Headers.From("ETag", "abc"));
+            },
+            new FromStorageCache(new InMemoryStorage()),
+            Duration.ofMinutes(1)
+        );
+        for (int idx = 0; idx < 3; ++idx) {
+            MatcherAssert.assertThat(
+                slice,
+                new SliceHasResponse(
+                    new RsHasHeaders(new Headers.From("ETag", "abc")),
+                    new RequestLine(RqMethod.HEAD, "/com/test/lib/1.0/lib-1.0.pom")
+                )
+            );
+        }
+        MatcherAssert.assertThat("Remote was requested once", requests.get(), new IsEqual<>(1));
+    }
 }
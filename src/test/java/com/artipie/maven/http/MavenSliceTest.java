@@ -0,0 +1,321 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.KeyLastPart;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.maven.CountingStorage;
+import com.artipie.maven.MetadataXml;
+import com.artipie.maven.asto.SnapshotRetention;
+import com.artipie.maven.metadata.SnapshotMetadata;
+import com.artipie.maven.trace.Trace;
+import com.artipie.maven.trace.TracedStorage;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MavenSlice}: storage operations amplification. Tests fail if a request
+ * makes more storage operations than the bound, update bounds only with a reason.
+ * @since 0.12
+ */
+final class MavenSliceTest {
+
+    /**
+     * Artifact jar path.
+     */
+    private static final String JAR = "com/test/lib/1.0/lib-1.0.jar";
+
+    /**
+     * Snapshot version key.
+     */
+    private static final Key SNAPSHOT = new Key.From("com/test/lib/1.0-SNAPSHOT");
+
+    /**
+     * Repository storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+        MavenSliceTest.files("1.0").forEach(
+            (path, data) -> this.storage.save(
+                new Key.From(path), new Content.From(data.getBytes(StandardCharsets.UTF_8))
+            ).join()
+        );
+        new MetadataXml("com.test", "lib").addXmlToStorage(
+            this.storage, new Key.From("com/test/lib/maven-metadata.xml"),
+            new MetadataXml.VersionTags("1.0", "1.0", Arrays.asList("1.0"))
+        );
+    }
+
+    @Test
+    void doesNotServeInternalData() {
+        final String[] paths = {
+            ".artipie-leases/com/test/lib/maven-metadata.xml",
+            ".upload/com/test/lib/1.1/lib-1.1.jar",
+            "com/test/lib/.meta/lib.pom",
+        };
+        final Slice slice = new MavenSlice(this.storage);
+        for (final String path : paths) {
+            this.storage.save(new Key.From(path), new Content.From("internal".getBytes()))
+                .join();
+            for (final RqMethod method : new RqMethod[] {RqMethod.GET, RqMethod.HEAD}) {
+                MatcherAssert.assertThat(
+                    String.format("%s %s was not found", method, path),
+                    MavenSliceTest.send(slice, method, path, ""),
+                    new IsEqual<>(RsStatus.NOT_FOUND)
+                );
+            }
+        }
+    }
+
+    @Test
+    void getsArtifactWithBoundedStorageOperations() {
+        final CountingStorage counting = new CountingStorage(this.storage);
+        MatcherAssert.assertThat(
+            "Artifact was found",
+            MavenSliceTest.send(new MavenSlice(counting), RqMethod.GET, MavenSliceTest.JAR, ""),
+            new IsEqual<>(RsStatus.OK)
+        );
+        MatcherAssert.assertThat(
+            String.format("Storage operations %s", counting.counts()),
+            counting.total(), Matchers.lessThanOrEqualTo(4L)
+        );
+    }
+
+    @Test
+    void headsArtifactWithBoundedStorageOperations() {
+        final CountingStorage counting = new CountingStorage(this.storage);
+        MatcherAssert.assertThat(
+            "Artifact was found",
+            MavenSliceTest.send(new MavenSlice(counting), RqMethod.HEAD, MavenSliceTest.JAR, ""),
+            new IsEqual<>(RsStatus.OK)
+        );
+        MatcherAssert.assertThat(
+            String.format("Storage operations %s", counting.counts()),
+            counting.total(), Matchers.lessThanOrEqualTo(3L)
+        );
+    }
+
+    @Test
+    void deploysWithBoundedStorageOperations() {
+        final CountingStorage counting = new CountingStorage(this.storage);
+        final Slice slice = new MavenSlice(counting);
+        final Map<String, String> files = MavenSliceTest.files("1.1");
+        final String meta = new MetadataXml("com.test", "lib").get(
+            new MetadataXml.VersionTags("1.1", "1.1", Arrays.asList("1.0", "1.1"))
+        );
+        files.put("com/test/lib/maven-metadata.xml", meta);
+        files.put("com/test/lib/maven-metadata.xml.sha1", DigestUtils.sha1Hex(meta));
+        for (final Map.Entry<String, String> file : files.entrySet()) {
+            MatcherAssert.assertThat(
+                String.format("%s was uploaded", file.getKey()),
+                MavenSliceTest.send(slice, RqMethod.PUT, file.getKey(), file.getValue()),
+                new IsEqual<>(RsStatus.CREATED)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Artifact was deployed",
+            this.storage.exists(new Key.From("com/test/lib/1.1/lib-1.1.jar")).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            String.format("Storage operations %s", counting.counts()),
+            counting.total(), Matchers.lessThanOrEqualTo(74L)
+        );
+        MatcherAssert.assertThat(
+            String.format("List operations %s", counting.counts()),
+            counting.count("list"), Matchers.lessThanOrEqualTo(12L)
+        );
+    }
+
+    @Test
+    void prunesSnapshotBuildsOnDeployWithRetention() {
+        final Key old = new Key.From(MavenSliceTest.SNAPSHOT, "lib-1.0-20210401.101010-1.jar");
+        final Key checksum = new Key.From(String.format("%s.sha1", old.string()));
+        this.storage.save(old, new Content.From("old".getBytes(StandardCharsets.UTF_8))).join();
+        this.storage.save(checksum, Content.EMPTY).join();
+        new SnapshotMetadata("com.test", "lib", "1.0-SNAPSHOT")
+            .builds(Collections.singletonList(new KeyLastPart(old).get()))
+            .save(this.storage, MavenSliceTest.SNAPSHOT).toCompletableFuture().join();
+        final Trace trace = new Trace("deploy");
+        MavenSliceTest.snapshot(
+            new MavenSlice(
+                new TracedStorage(this.storage, trace), Permissions.FREE,
+                Authentication.ANONYMOUS, new SnapshotRetention.LastBuilds(1)
+            )
+        );
+        MatcherAssert.assertThat(
+            "New build was deployed",
+            this.storage.exists(
+                new Key.From(MavenSliceTest.SNAPSHOT, "lib-1.0-20210402.101010-2.jar")
+            ).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Old build was pruned",
+            this.storage.exists(old).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Checksum of old build was pruned",
+            this.storage.exists(checksum).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Snapshot version was not listed",
+            trace.tree(),
+            Matchers.not(
+                Matchers.containsString(
+                    String.format("storage.list %s:", MavenSliceTest.SNAPSHOT.string())
+                )
+            )
+        );
+    }
+
+    @Test
+    void keepsSnapshotBuildsAndSkipsCleanupWithoutRetention() {
+        final Key old = new Key.From(MavenSliceTest.SNAPSHOT, "lib-1.0-20210401.101010-1.jar");
+        this.storage.save(old, new Content.From("old".getBytes(StandardCharsets.UTF_8))).join();
+        final Trace trace = new Trace("deploy");
+        MavenSliceTest.snapshot(new MavenSlice(new TracedStorage(this.storage, trace)));
+        MatcherAssert.assertThat(
+            "Old build was kept",
+            this.storage.exists(old).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Snapshot version was not listed",
+            trace.tree(),
+            Matchers.not(
+                Matchers.containsString(
+                    String.format("storage.list %s:", MavenSliceTest.SNAPSHOT.string())
+                )
+            )
+        );
+    }
+
+    /**
+     * Deploy {@code 1.0-SNAPSHOT} build {@code 2} to the slice.
+     * @param slice Slice
+     */
+    private static void snapshot(final Slice slice) {
+        final String base = "com/test/lib/1.0-SNAPSHOT/lib-1.0-20210402.101010-2";
+        final String jar = "jar 1.0-SNAPSHOT";
+        final String pom = String.join(
+            "",
+            "<project><groupId>com.test</groupId><artifactId>lib</artifactId>",
+            "<version>1.0-SNAPSHOT</version></project>"
+        );
+        final String meta = new MetadataXml("com.test", "lib").get(
+            new MetadataXml.VersionTags("1.0-SNAPSHOT", "1.0", Arrays.asList("1.0", "1.0-SNAPSHOT"))
+        );
+        final Map<String, String> files = new LinkedHashMap<>();
+        files.put(String.format("%s.jar", base), jar);
+        files.put(String.format("%s.jar.sha1", base), DigestUtils.sha1Hex(jar));
+        files.put(String.format("%s.pom", base), pom);
+        files.put(String.format("%s.pom.sha1", base), DigestUtils.sha1Hex(pom));
+        files.put("com/test/lib/maven-metadata.xml", meta);
+        files.put("com/test/lib/maven-metadata.xml.sha1", DigestUtils.sha1Hex(meta));
+        for (final Map.Entry<String, String> file : files.entrySet()) {
+            MatcherAssert.assertThat(
+                String.format("%s was uploaded", file.getKey()),
+                MavenSliceTest.send(slice, RqMethod.PUT, file.getKey(), file.getValue()),
+                new IsEqual<>(RsStatus.CREATED)
+            );
+        }
+    }
+
+    /**
+     * Artifact files: jar, POM and their checksums.
+     * @param version Version
+     * @return Files contents by paths
+     */
+    private static Map<String, String> files(final String version) {
+        final String base = String.format("com/test/lib/%s/lib-%s", version, version);
+        final String jar = String.format("jar %s", version);
+        final String pom = String.format(
+            String.join(
+                "",
+                "<project><groupId>com.test</groupId><artifactId>lib</artifactId>",
+                "<version>%s</version></project>"
+            ),
+            version
+        );
+        final Map<String, String> files = new LinkedHashMap<>();
+        files.put(String.format("%s.jar", base), jar);
+        files.put(String.format("%s.jar.sha1", base), DigestUtils.sha1Hex(jar));
+        files.put(String.format("%s.pom", base), pom);
+        files.put(String.format("%s.pom.sha1", base), DigestUtils.sha1Hex(pom));
+        return files;
+    }
+
+    /**
+     * Send request to the slice and read response body.
+     * @param slice Slice
+     * @param method Request method
+     * @param path Request path
+     * @param body Request body
+     * @return Response status
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static RsStatus send(final Slice slice, final RqMethod method, final String path,
+        final String body) {
+        final CompletableFuture<RsStatus> res = new CompletableFuture<>();
+        slice.response(
+            new RequestLine(method, String.format("/%s", path)).toString(),
+            Headers.EMPTY, new Content.From(body.getBytes(StandardCharsets.UTF_8))
+        ).send(
+            (status, headers, rsbody) -> {
+                res.complete(status);
+                return Flowable.fromPublisher(rsbody).ignoreElements()
+                    .to(CompletableInterop.await());
+            }
+        ).toCompletableFuture().join();
+        return res.join();
+    }
+}
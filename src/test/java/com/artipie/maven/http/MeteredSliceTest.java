@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.http.Headers;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.maven.metrics.MicrometerMetrics;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.Flowable;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MeteredSlice}.
+ * @since 0.12
+ */
+final class MeteredSliceTest {
+
+    @Test
+    void recordsLatencyAndBodySizes() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        new MeteredSlice(
+            (line, headers, body) -> new AsyncResponse(
+                new PublisherAs(body).bytes().thenApply(
+                    bytes -> new RsWithBody(
+                        new RsWithStatus(RsStatus.CREATED),
+                        "created".getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            ),
+            new MicrometerMetrics(registry),
+            "upload"
+        ).response(
+            new RequestLine(RqMethod.PUT, "/com/test/lib/1.0/lib-1.0.jar").toString(),
+            Headers.EMPTY,
+            new Content.From("jar".getBytes(StandardCharsets.UTF_8))
+        ).send(
+            (status, headers, body) -> Flowable.fromPublisher(body).ignoreElements()
+                .to(CompletableInterop.await())
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Latency was recorded",
+            registry.get("maven.request")
+                .tags("route", "upload", "method", "PUT", "status", "201")
+                .timer().count(),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Request body size was counted",
+            registry.get("maven.request.bytes.in").tag("route", "upload").counter().count(),
+            new IsEqual<>(3.0)
+        );
+        MatcherAssert.assertThat(
+            "Response body size was counted",
+            registry.get("maven.request.bytes.out").tag("route", "upload").counter().count(),
+            new IsEqual<>(7.0)
+        );
+    }
+}
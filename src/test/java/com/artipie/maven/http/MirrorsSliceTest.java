@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.hm.RsHasBody;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.slice.SliceSimple;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MirrorsSlice}.
+ * @since 0.12
+ */
+final class MirrorsSliceTest {
+
+    /**
+     * Request line.
+     */
+    private static final RequestLine LINE =
+        new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar");
+
+    @Test
+    void requestsNextMirrorWhenFirstFails() {
+        MatcherAssert.assertThat(
+            new MirrorsSlice(
+                new ListOf<Slice>(
+                    new SliceSimple(new RsWithStatus(RsStatus.INTERNAL_ERROR)),
+                    new SliceSimple(StandardRs.NOT_FOUND),
+                    new SliceSimple(new RsWithBody(ByteBuffer.wrap("third".getBytes())))
+                )
+            ),
+            new SliceHasResponse(
+                Matchers.allOf(new RsHasStatus(RsStatus.OK), new RsHasBody("third".getBytes())),
+                MirrorsSliceTest.LINE
+            )
+        );
+    }
+
+    @Test
+    void returnsLastAnswerWhenNotFound() {
+        MatcherAssert.assertThat(
+            new MirrorsSlice(
+                new ListOf<Slice>(
+                    new SliceSimple(new RsWithStatus(RsStatus.INTERNAL_ERROR)),
+                    new SliceSimple(StandardRs.NOT_FOUND)
+                )
+            ),
+            new SliceHasResponse(new RsHasStatus(RsStatus.NOT_FOUND), MirrorsSliceTest.LINE)
+        );
+    }
+
+    @Test
+    void hedgesSlowMirror() {
+        final Slice slow = (line, headers, body) -> new AsyncResponse(new CompletableFuture<>());
+        final UpstreamHealth first = new UpstreamHealth();
+        for (int idx = 0; idx < 20; ++idx) {
+            first.success(Duration.ofMillis(10));
+        }
+        MatcherAssert.assertThat(
+            "Hedged mirror answered",
+            new MirrorsSlice(
+                new ListOf<Slice>(
+                    slow,
+                    new SliceSimple(new RsWithBody(ByteBuffer.wrap("hedged".getBytes())))
+                ),
+                new ListOf<>(first, new UpstreamHealth())
+            ),
+            new SliceHasResponse(new RsHasBody("hedged".getBytes()), MirrorsSliceTest.LINE)
+        );
+    }
+
+    @Test
+    void skipsMirrorWithOpenCircuit() {
+        final AtomicInteger requests = new AtomicInteger();
+        final List<Slice> mirrors = new ListOf<>(
+            (line, headers, body) -> {
+                requests.incrementAndGet();
+                return new RsWithStatus(RsStatus.UNAVAILABLE);
+            },
+            new SliceSimple(StandardRs.OK)
+        );
+        final Slice slice = new MirrorsSlice(
+            mirrors,
+            new ListOf<>(
+                new UpstreamHealth(Duration.ofMinutes(1), Clock.systemUTC()),
+                new UpstreamHealth()
+            )
+        );
+        for (int idx = 0; idx < 10; ++idx) {
+            MatcherAssert.assertThat(
+                slice,
+                new SliceHasResponse(new RsHasStatus(RsStatus.OK), MirrorsSliceTest.LINE)
+            );
+        }
+        MatcherAssert.assertThat("Unhealthy mirror was skipped", requests.get(), new IsEqual<>(5));
+    }
+
+    @Test
+    void prefersHealthyMirrorOverDegraded() {
+        final AtomicInteger requests = new AtomicInteger();
+        final UpstreamHealth degraded = new UpstreamHealth();
+        for (int idx = 0; idx < 20; ++idx) {
+            degraded.failure();
+            degraded.failure();
+            degraded.success(Duration.ofMillis(1));
+        }
+        MatcherAssert.assertThat(
+            new MirrorsSlice(
+                new ListOf<Slice>(
+                    (line, headers, body) -> {
+                        requests.incrementAndGet();
+                        return StandardRs.OK;
+                    },
+                    new SliceSimple(new RsWithBody(ByteBuffer.wrap("healthy".getBytes())))
+                ),
+                new ListOf<>(degraded, new UpstreamHealth())
+            ),
+            new SliceHasResponse(new RsHasBody("healthy".getBytes()), MirrorsSliceTest.LINE)
+        );
+        MatcherAssert.assertThat(
+            "Degraded mirror was not requested", requests.get(), new IsEqual<>(0)
+        );
+    }
+}
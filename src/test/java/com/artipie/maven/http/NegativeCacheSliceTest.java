@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Key;
+import com.artipie.http.Slice;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.maven.metrics.MicrometerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link NegativeCacheSlice} and {@link NegativeCache}.
+ * @since 0.12
+ */
+final class NegativeCacheSliceTest {
+
+    @Test
+    void answersKnownMissingPathWithoutUpstream() {
+        final AtomicInteger requests = new AtomicInteger();
+        final NegativeCache cache = new NegativeCache(Duration.ofMinutes(1), 10);
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Slice slice = new NegativeCacheSlice(
+            (line, headers, body) -> {
+                requests.incrementAndGet();
+                return StandardRs.NOT_FOUND;
+            },
+            cache,
+            new MicrometerMetrics(registry)
+        );
+        for (int idx = 0; idx < 3; ++idx) {
+            MatcherAssert.assertThat(
+                slice,
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.NOT_FOUND),
+                    new RequestLine(RqMethod.GET, "/com/test/none/1.0/none-1.0.jar")
+                )
+            );
+        }
+        MatcherAssert.assertThat("Upstream requested once", requests.get(), new IsEqual<>(1));
+        MatcherAssert.assertThat("Hits are counted", cache.hits(), new IsEqual<>(2L));
+        MatcherAssert.assertThat(
+            "Hits are reported",
+            registry.get("maven.proxy.negative").tag("result", "hit").counter().count(),
+            new IsEqual<>(2.0)
+        );
+    }
+
+    @Test
+    void doesNotCacheFoundPaths() {
+        final AtomicInteger requests = new AtomicInteger();
+        final Slice slice = new NegativeCacheSlice(
+            (line, headers, body) -> {
+                requests.incrementAndGet();
+                return StandardRs.EMPTY;
+            },
+            new NegativeCache(Duration.ofMinutes(1), 10)
+        );
+        for (int idx = 0; idx < 2; ++idx) {
+            MatcherAssert.assertThat(
+                slice,
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.OK),
+                    new RequestLine(RqMethod.HEAD, "/com/test/lib/1.0/lib-1.0.jar")
+                )
+            );
+        }
+        MatcherAssert.assertThat(requests.get(), new IsEqual<>(2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/com/test/lib/maven-metadata.xml",
+        "/com/test/lib/maven-metadata.xml.sha1",
+        "/com/test/lib/1.0-SNAPSHOT/maven-metadata-local.xml",
+        "/com/test/lib/1.0-SNAPSHOT/lib-1.0-20210401.100000-1.jar"
+    })
+    void doesNotCacheMissingMutablePaths(final String path) {
+        final AtomicInteger requests = new AtomicInteger();
+        final NegativeCache cache = new NegativeCache(Duration.ofMinutes(1), 10);
+        final Slice slice = new NegativeCacheSlice(
+            (line, headers, body) -> {
+                requests.incrementAndGet();
+                return StandardRs.NOT_FOUND;
+            },
+            cache
+        );
+        for (int idx = 0; idx < 2; ++idx) {
+            MatcherAssert.assertThat(
+                slice,
+                new SliceHasResponse(
+                    new RsHasStatus(RsStatus.NOT_FOUND),
+                    new RequestLine(RqMethod.GET, path)
+                )
+            );
+        }
+        MatcherAssert.assertThat("Upstream requested every time", requests.get(), new IsEqual<>(2));
+        MatcherAssert.assertThat("Path was not cached", cache.size(), new IsEqual<>(0));
+    }
+
+    @Test
+    void doesNotKeepPathsWhenDisabled() {
+        final Key key = new Key.From("com/test/none/1.0/none-1.0.jar");
+        NegativeCache.NONE.add(key);
+        MatcherAssert.assertThat(
+            "Path is not missing",
+            NegativeCache.NONE.missing(key),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat("Path is not kept", NegativeCache.NONE.size(), new IsEqual<>(0));
+    }
+
+    @Test
+    void expiresAndEvictsPaths() {
+        final Instant now = Instant.parse("2021-04-01T10:00:00Z");
+        final NegativeCache cache = new NegativeCache(
+            Duration.ofMinutes(1), 2, Clock.fixed(now, ZoneOffset.UTC)
+        );
+        final Key first = new Key.From("a");
+        cache.add(first);
+        cache.add(new Key.From("b"));
+        cache.add(new Key.From("c"));
+        MatcherAssert.assertThat("Eldest path evicted", cache.missing(first), new IsEqual<>(false));
+        MatcherAssert.assertThat("Size is bounded", cache.size(), new IsEqual<>(2));
+        final NegativeCache expiring = new NegativeCache(
+            Duration.ZERO, 2, Clock.fixed(now, ZoneOffset.UTC)
+        );
+        expiring.add(first);
+        MatcherAssert.assertThat("Path expires", expiring.missing(first), new IsEqual<>(false));
+        MatcherAssert.assertThat("Expired path removed", expiring.size(), new IsEqual<>(0));
+    }
+}
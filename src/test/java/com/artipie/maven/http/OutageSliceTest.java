@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.maven.metrics.MicrometerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link OutageSlice} and {@link Outage}.
+ * @since 0.12
+ */
+final class OutageSliceTest {
+
+    @Test
+    void answersUnavailableWhenUpstreamTimesOut() {
+        MatcherAssert.assertThat(
+            new OutageSlice(
+                (line, headers, body) -> new AsyncResponse(new CompletableFuture<>()),
+                new Outage(Duration.ofMillis(100), Duration.ofMinutes(1))
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.UNAVAILABLE),
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.pom")
+            )
+        );
+    }
+
+    @Test
+    void failsFastWhenUpstreamIsDown() {
+        final AtomicInteger requests = new AtomicInteger();
+        final Outage outage = new Outage(Duration.ofMinutes(1), Duration.ofMinutes(1));
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Slice slice = new OutageSlice(
+            (line, headers, body) -> {
+                requests.incrementAndGet();
+                return new RsWithStatus(RsStatus.INTERNAL_ERROR);
+            },
+            outage,
+            new MicrometerMetrics(registry)
+        );
+        for (int idx = 0; idx < 5; ++idx) {
+            slice.response(
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar").toString(),
+                Headers.EMPTY, Content.EMPTY
+            ).send((status, headers, body) -> CompletableFuture.allOf())
+                .toCompletableFuture().join();
+        }
+        MatcherAssert.assertThat(
+            "Request was rejected",
+            slice,
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.UNAVAILABLE),
+                new RequestLine(RqMethod.GET, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+        MatcherAssert.assertThat("Upstream is down", outage.down(), new IsEqual<>(true));
+        MatcherAssert.assertThat("Upstream was tried 5 times", requests.get(), new IsEqual<>(5));
+        MatcherAssert.assertThat("Rejection was counted", outage.rejected(), new IsEqual<>(1L));
+        MatcherAssert.assertThat(
+            "Rejection was reported",
+            registry.get("maven.proxy.outage").tag("result", "rejected").counter().count(),
+            new IsEqual<>(1.0)
+        );
+    }
+
+    @Test
+    void passesUpstreamResponse() {
+        final Outage outage = new Outage();
+        MatcherAssert.assertThat(
+            new OutageSlice(
+                (line, headers, body) -> new RsWithStatus(RsStatus.NOT_FOUND), outage
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.NOT_FOUND),
+                new RequestLine(RqMethod.GET, "/com/test/none/1.0/none-1.0.jar")
+            )
+        );
+        MatcherAssert.assertThat(outage.down(), new IsEqual<>(false));
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.cache.CacheControl;
+import com.artipie.asto.cache.Remote;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.maven.metrics.Metrics;
+import com.artipie.maven.metrics.MicrometerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link QuotaCache}.
+ * @since 0.12
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class QuotaCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final QuotaCache cache = QuotaCacheTest.filled(storage, new Eviction.Lru());
+        MatcherAssert.assertThat(
+            "a evicted",
+            QuotaCacheTest.exists(storage, "a"),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "b kept",
+            QuotaCacheTest.exists(storage, "b"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Evicted bytes",
+            cache.evicted(),
+            new IsEqual<>(4L)
+        );
+    }
+
+    @Test
+    void evictsLeastFrequentlyUsed() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final QuotaCache cache = QuotaCacheTest.filled(storage, new Eviction.Lfu());
+        MatcherAssert.assertThat(
+            "a kept",
+            QuotaCacheTest.exists(storage, "a"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "b evicted",
+            QuotaCacheTest.exists(storage, "b"),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Hit ratio",
+            cache.hitRatio(),
+            new IsEqual<>(0.4)
+        );
+    }
+
+    @Test
+    void reportsHitsMissesAndEvictions() throws Exception {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        QuotaCacheTest.filled(
+            new InMemoryStorage(), new Eviction.Lru(), new MicrometerMetrics(registry)
+        );
+        MatcherAssert.assertThat(
+            "Hits were reported",
+            QuotaCacheTest.counted(registry, "hit"),
+            new IsEqual<>(2.0)
+        );
+        MatcherAssert.assertThat(
+            "Misses were reported",
+            QuotaCacheTest.counted(registry, "miss"),
+            new IsEqual<>(3.0)
+        );
+        MatcherAssert.assertThat(
+            "Eviction was reported",
+            QuotaCacheTest.counted(registry, "evicted"),
+            new IsEqual<>(1.0)
+        );
+    }
+
+    @Test
+    void removesStoredHeadersOfEvictedItem() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        storage.save(CachedHeaders.location(new Key.From("a")), Content.EMPTY).join();
+        QuotaCacheTest.filled(storage, new Eviction.Lru());
+        MatcherAssert.assertThat(
+            storage.exists(CachedHeaders.location(new Key.From("a"))).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotCountPeekReadsAsHits() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        final QuotaCache cache = new QuotaCache(storage, 10, 8, new Eviction.Lru());
+        QuotaCacheTest.load(cache, "a");
+        TimeUnit.MILLISECONDS.sleep(5);
+        QuotaCacheTest.load(cache, "b");
+        TimeUnit.MILLISECONDS.sleep(5);
+        cache.load(new Key.From("a"), Remote.EMPTY, Peek.CONTROL).toCompletableFuture().join();
+        QuotaCacheTest.load(cache, "c");
+        QuotaCacheTest.evicted(cache, 8);
+        MatcherAssert.assertThat(
+            "Peeked item was evicted first",
+            QuotaCacheTest.exists(storage, "a"),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat("Peek was not counted", cache.hitRatio(), new IsEqual<>(0.0));
+    }
+
+    @Test
+    void evictsUntilLowWaterMark() throws Exception {
+        final Storage storage = new InMemoryStorage();
+        for (int num = 0; num < 40; num += 1) {
+            storage.save(
+                new Key.From(String.format("item%02d", num)), new Content.From(new byte[1])
+            ).join();
+        }
+        final QuotaCache cache = new QuotaCache(storage, 30, 20, new Eviction.Lru());
+        cache.index().toCompletableFuture().get(1, TimeUnit.MINUTES);
+        QuotaCacheTest.evicted(cache, 20);
+        MatcherAssert.assertThat("Evicted to low mark", cache.size(), new IsEqual<>(20L));
+        MatcherAssert.assertThat("Only excess was evicted", cache.evicted(), new IsEqual<>(20L));
+        MatcherAssert.assertThat(
+            "Evicted items were removed",
+            storage.list(Key.ROOT).join().size(),
+            new IsEqual<>(20)
+        );
+    }
+
+    /**
+     * Cache with quota 10 and low water mark 8: item {@code a} is loaded and read twice,
+     * then items {@code b} and {@code c} are loaded, 4 bytes each.
+     * @param storage Storage
+     * @param eviction Eviction policy
+     * @return Cache after eviction
+     * @throws Exception On error
+     */
+    private static QuotaCache filled(final Storage storage, final Eviction eviction)
+        throws Exception {
+        return QuotaCacheTest.filled(storage, eviction, Metrics.NOP);
+    }
+
+    /**
+     * Cache with metrics filled as {@link #filled(Storage, Eviction)}.
+     * @param storage Storage
+     * @param eviction Eviction policy
+     * @param metrics Metrics
+     * @return Cache after eviction
+     * @throws Exception On error
+     */
+    private static QuotaCache filled(final Storage storage, final Eviction eviction,
+        final Metrics metrics) throws Exception {
+        final QuotaCache cache = new QuotaCache(storage, 10, 8, eviction, metrics);
+        QuotaCacheTest.load(cache, "a");
+        TimeUnit.MILLISECONDS.sleep(5);
+        cache.load(new Key.From("a"), Remote.EMPTY, CacheControl.Standard.ALWAYS)
+            .toCompletableFuture().join();
+        cache.load(new Key.From("a"), Remote.EMPTY, CacheControl.Standard.ALWAYS)
+            .toCompletableFuture().join();
+        TimeUnit.MILLISECONDS.sleep(5);
+        QuotaCacheTest.load(cache, "b");
+        TimeUnit.MILLISECONDS.sleep(5);
+        QuotaCacheTest.load(cache, "c");
+        QuotaCacheTest.evicted(cache, 8);
+        return cache;
+    }
+
+    /**
+     * Wait for eviction to low water mark.
+     * @param cache Cache
+     * @param low Low water mark
+     * @throws Exception On error
+     */
+    private static void evicted(final QuotaCache cache, final long low) throws Exception {
+        final long start = System.currentTimeMillis();
+        while (cache.size() > low && System.currentTimeMillis() - start < 10_000) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static void load(final QuotaCache cache, final String key) {
+        cache.load(
+            new Key.From(key),
+            () -> CompletableFuture.completedFuture(
+                Optional.of(new Content.From(key.repeat(4).getBytes()))
+            ),
+            CacheControl.Standard.ALWAYS
+        ).toCompletableFuture().join();
+    }
+
+    private static double counted(final MeterRegistry registry, final String result) {
+        return registry.get("maven.proxy.cache").tag("result", result).tag("layer", "quota")
+            .counter().count();
+    }
+
+    private static boolean exists(final Storage storage, final String key) {
+        return storage.exists(new Key.From(key)).join();
+    }
+}
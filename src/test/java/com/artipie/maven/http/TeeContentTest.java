@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link TeeContent}.
+ * @since 0.12
+ */
+final class TeeContentTest {
+
+    /**
+     * Number of origin chunks.
+     */
+    private static final int CHUNKS = 1000;
+
+    /**
+     * Chunks emitted by the origin.
+     */
+    private final AtomicLong emitted = new AtomicLong();
+
+    /**
+     * Was the origin cancelled.
+     */
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    @Test
+    void readsOriginAheadOfCacheDemandWithinPrefetch() {
+        final TeeContent tee = this.tee(new DetachedFills(1));
+        final TestSubscriber<ByteBuffer> cache = tee.cache().test(0);
+        tee.client().test();
+        MatcherAssert.assertThat(
+            "Origin was read up to prefetch",
+            this.emitted.get(),
+            new IsEqual<>(TeeContent.PREFETCH)
+        );
+        cache.request(10);
+        MatcherAssert.assertThat(
+            "Origin was read as cache requested",
+            this.emitted.get(),
+            new IsEqual<>(TeeContent.PREFETCH + 10)
+        );
+    }
+
+    @Test
+    void readsOriginAsCacheRequestsAfterClientDisconnects() {
+        final TeeContent tee = this.tee(new DetachedFills(1));
+        final TestSubscriber<ByteBuffer> cache = tee.cache().test(1);
+        tee.client().test(1).cancel();
+        MatcherAssert.assertThat(
+            "Origin was not read to the end into memory",
+            this.emitted.get(),
+            new IsEqual<>(1 + TeeContent.PREFETCH)
+        );
+        cache.request(Long.MAX_VALUE);
+        cache.assertValueCount(TeeContentTest.CHUNKS).assertComplete();
+    }
+
+    @Test
+    void cancelsOriginWhenCacheIsDroppedAfterClientDisconnects() {
+        final TeeContent tee = this.tee(new DetachedFills(1));
+        final TestSubscriber<ByteBuffer> cache = tee.cache().test(1);
+        tee.client().test(1).cancel();
+        cache.cancel();
+        MatcherAssert.assertThat("Origin was cancelled", this.cancelled.get(), new IsEqual<>(true));
+    }
+
+    @Test
+    void readsOriginForClientWhenCacheIsDropped() {
+        final TeeContent tee = this.tee(DetachedFills.NONE);
+        final TestSubscriber<ByteBuffer> client = tee.client().test(0);
+        tee.drop();
+        client.request(Long.MAX_VALUE);
+        client.assertValueCount(TeeContentTest.CHUNKS).assertComplete();
+    }
+
+    /**
+     * Started tee content of counting origin.
+     * @param fills Detached fills budget
+     * @return Tee content
+     */
+    private TeeContent tee(final DetachedFills fills) {
+        final TeeContent tee = new TeeContent(
+            Flowable.range(0, TeeContentTest.CHUNKS)
+                .map(num -> ByteBuffer.wrap(new byte[]{num.byteValue()}))
+                .doOnNext(buf -> this.emitted.incrementAndGet())
+                .doOnCancel(() -> this.cancelled.set(true)),
+            fills
+        );
+        tee.start();
+        return tee;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.hm.SliceHasResponse;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.maven.trace.Trace;
+import com.artipie.maven.trace.TracedStorage;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link TracedSlice}.
+ * @since 0.12
+ */
+final class TracedSliceTest {
+
+    @Test
+    void reportsSlowRequestTrace() {
+        final List<Trace> slow = new CopyOnWriteArrayList<>();
+        MatcherAssert.assertThat(
+            "Response was returned",
+            new TracedSlice(
+                trace -> (line, headers, body) -> new AsyncResponse(
+                    new TracedStorage(new InMemoryStorage(), trace).save(
+                        new Key.From("com/test/lib/1.0/lib-1.0.jar"),
+                        new Content.From("jar".getBytes())
+                    ).thenApply(nothing -> new RsWithStatus(RsStatus.CREATED))
+                ),
+                Duration.ofNanos(-1),
+                slow::add
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.CREATED),
+                new RequestLine(RqMethod.PUT, "/com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Trace of the request was reported",
+            slow.get(0).tree(),
+            Matchers.allOf(
+                Matchers.startsWith("PUT /com/test/lib/1.0/lib-1.0.jar"),
+                Matchers.containsString("storage.save com/test/lib/1.0/lib-1.0.jar")
+            )
+        );
+    }
+
+    @Test
+    void doesNotReportFastRequests() {
+        final List<Trace> slow = new CopyOnWriteArrayList<>();
+        MatcherAssert.assertThat(
+            "Response was returned",
+            new TracedSlice(
+                trace -> (line, headers, body) -> new RsWithStatus(RsStatus.CREATED),
+                Duration.ofMinutes(1),
+                slow::add
+            ),
+            new SliceHasResponse(
+                new RsHasStatus(RsStatus.CREATED),
+                new RequestLine(RqMethod.PUT, "/com/test/lib/1.0/lib-1.0.pom")
+            )
+        );
+        MatcherAssert.assertThat("Trace was not reported", slow, Matchers.empty());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.http;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link UpstreamHealth}.
+ * @since 0.12
+ */
+final class UpstreamHealthTest {
+
+    /**
+     * Cool down time.
+     */
+    private static final Duration COOLDOWN = Duration.ofSeconds(30);
+
+    @Test
+    void opensCircuitAfterConsecutiveFailures() {
+        final UpstreamHealth health = new UpstreamHealth(
+            UpstreamHealthTest.COOLDOWN, new TestClock()
+        );
+        for (int idx = 0; idx < 4; ++idx) {
+            health.failure();
+        }
+        MatcherAssert.assertThat("Closed before threshold", health.acquire(), new IsEqual<>(true));
+        health.failure();
+        MatcherAssert.assertThat("Open after threshold", health.acquire(), new IsEqual<>(false));
+    }
+
+    @Test
+    void letsSingleProbeThroughHalfOpenCircuit() {
+        final TestClock clock = new TestClock();
+        final UpstreamHealth health = UpstreamHealthTest.tripped(clock);
+        clock.shift(UpstreamHealthTest.COOLDOWN);
+        MatcherAssert.assertThat(
+            "Available when half-open", health.available(), new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat("Probe granted", health.acquire(), new IsEqual<>(true));
+        MatcherAssert.assertThat("Second probe denied", health.acquire(), new IsEqual<>(false));
+        MatcherAssert.assertThat(
+            "Unavailable while probing", health.available(), new IsEqual<>(false)
+        );
+        clock.shift(UpstreamHealthTest.COOLDOWN);
+        MatcherAssert.assertThat("Lost probe is replaced", health.acquire(), new IsEqual<>(true));
+    }
+
+    @Test
+    void closesCircuitWhenProbeSucceeds() {
+        final TestClock clock = new TestClock();
+        final UpstreamHealth health = UpstreamHealthTest.tripped(clock);
+        clock.shift(UpstreamHealthTest.COOLDOWN);
+        health.acquire();
+        health.success(Duration.ofMillis(1));
+        MatcherAssert.assertThat("Closed after probe", health.acquire(), new IsEqual<>(true));
+        MatcherAssert.assertThat("Not limited to probe", health.acquire(), new IsEqual<>(true));
+    }
+
+    @Test
+    void opensCircuitAgainWhenProbeFails() {
+        final TestClock clock = new TestClock();
+        final UpstreamHealth health = UpstreamHealthTest.tripped(clock);
+        clock.shift(UpstreamHealthTest.COOLDOWN);
+        health.acquire();
+        health.failure();
+        MatcherAssert.assertThat("Open after probe", health.available(), new IsEqual<>(false));
+        clock.shift(UpstreamHealthTest.COOLDOWN);
+        MatcherAssert.assertThat("Half-open again", health.acquire(), new IsEqual<>(true));
+    }
+
+    @Test
+    void detectsDegradedUpstream() {
+        final UpstreamHealth health = new UpstreamHealth();
+        for (int idx = 0; idx < 20; ++idx) {
+            health.success(Duration.ofMillis(1));
+            if (idx % 2 == 0) {
+                health.failure();
+            }
+        }
+        MatcherAssert.assertThat("Not degraded", health.degraded(), new IsEqual<>(false));
+        for (int idx = 0; idx < 20; ++idx) {
+            health.failure();
+            health.failure();
+            health.success(Duration.ofMillis(1));
+        }
+        MatcherAssert.assertThat("Degraded", health.degraded(), new IsEqual<>(true));
+        MatcherAssert.assertThat("Still available", health.available(), new IsEqual<>(true));
+    }
+
+    /**
+     * Upstream health with open circuit.
+     * @param clock Clock
+     * @return Health
+     */
+    private static UpstreamHealth tripped(final Clock clock) {
+        final UpstreamHealth health = new UpstreamHealth(UpstreamHealthTest.COOLDOWN, clock);
+        for (int idx = 0; idx < 5; ++idx) {
+            health.failure();
+        }
+        return health;
+    }
+
+    /**
+     * Clock which time is shifted by the test.
+     * @since 0.12
+     */
+    private static final class TestClock extends Clock {
+
+        /**
+         * Current time.
+         */
+        private final AtomicReference<Instant> now;
+
+        /**
+         * Ctor.
+         */
+        TestClock() {
+            this.now = new AtomicReference<>(Instant.parse("2020-01-01T00:00:00Z"));
+        }
+
+        /**
+         * Shift time.
+         * @param duration Time to shift by
+         */
+        void shift(final Duration duration) {
+            this.now.updateAndGet(time -> time.plus(duration));
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.now.get();
+        }
+    }
+}
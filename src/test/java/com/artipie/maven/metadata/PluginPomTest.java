@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metadata;
+
+import com.jcabi.xml.XMLDocument;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Test for {@link PluginPom}.
+ * @since 0.12
+ */
+final class PluginPomTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "maven-jar-plugin,jar",
+        "exec-maven-plugin,exec",
+        "maven-plugin-plugin,plugin",
+        "versions-plugin,versions"
+    })
+    void derivesPrefixFromArtifactId(final String artifact, final String prefix) {
+        MatcherAssert.assertThat(
+            new PluginPom(
+                new XMLDocument(
+                    String.format(
+                        "<project><artifactId>%s</artifactId></project>", artifact
+                    )
+                )
+            ).prefix(),
+            new IsEqual<>(prefix)
+        );
+    }
+
+    @Test
+    void readsConfiguredPrefix() {
+        MatcherAssert.assertThat(
+            new PluginPom(
+                new XMLDocument(
+                    String.join(
+                        "",
+                        "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+                        "<artifactId>some-maven-plugin</artifactId>",
+                        "<packaging>maven-plugin</packaging><build><plugins><plugin>",
+                        "<artifactId>maven-plugin-plugin</artifactId>",
+                        "<configuration><goalPrefix>custom</goalPrefix></configuration>",
+                        "</plugin></plugins></build></project>"
+                    )
+                )
+            ).prefix(),
+            new IsEqual<>("custom")
+        );
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metadata;
+
+import com.artipie.asto.Key;
+import com.jcabi.xml.XMLDocument;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ProjectPom}.
+ * @since 0.12
+ */
+final class ProjectPomTest {
+
+    /**
+     * Test POM.
+     */
+    private static final String POM = String.join(
+        "",
+        "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+        "<parent><groupId>com.test</groupId><artifactId>parent</artifactId>",
+        "<version>2</version></parent>",
+        "<artifactId>lib</artifactId><version>1.0</version>",
+        "<properties><log.version>1.7</log.version></properties>",
+        "<dependencies>",
+        "<dependency><groupId>org.log</groupId><artifactId>log</artifactId>",
+        "<version>${log.version}</version></dependency>",
+        "<dependency><groupId>${project.groupId}</groupId><artifactId>core</artifactId>",
+        "<version>${project.version}</version><scope>runtime</scope></dependency>",
+        "<dependency><groupId>org.junit</groupId><artifactId>junit</artifactId>",
+        "<version>5</version><scope>test</scope></dependency>",
+        "<dependency><groupId>org.opt</groupId><artifactId>opt</artifactId>",
+        "<version>1</version><optional>true</optional></dependency>",
+        "<dependency><groupId>org.managed</groupId><artifactId>managed</artifactId>",
+        "</dependency>",
+        "<dependency><groupId>org.range</groupId><artifactId>range</artifactId>",
+        "<version>[1.0,2.0)</version></dependency>",
+        "</dependencies></project>"
+    );
+
+    @Test
+    void findsArtifactWithInheritedGroup() {
+        MatcherAssert.assertThat(
+            new ProjectPom(new XMLDocument(ProjectPomTest.POM)).artifact(),
+            new IsEqual<>(Optional.of(new Key.From("com/test/lib/1.0/lib-1.0.jar")))
+        );
+    }
+
+    @Test
+    void findsParent() {
+        MatcherAssert.assertThat(
+            new ProjectPom(new XMLDocument(ProjectPomTest.POM)).parent(),
+            new IsEqual<>(Optional.of(new Key.From("com/test/parent/2/parent-2.pom")))
+        );
+    }
+
+    @Test
+    void findsRuntimeDependencies() {
+        MatcherAssert.assertThat(
+            new ProjectPom(new XMLDocument(ProjectPomTest.POM)).dependencies(),
+            Matchers.contains(
+                new Key.From("org/log/log/1.7/log-1.7.pom"),
+                new Key.From("com/test/core/1.0/core-1.0.pom")
+            )
+        );
+    }
+
+    @Test
+    void skipsArtifactOfPomPackaging() {
+        MatcherAssert.assertThat(
+            new ProjectPom(
+                new XMLDocument(
+                    String.join(
+                        "",
+                        "<project><groupId>com.test</groupId><artifactId>bom</artifactId>",
+                        "<version>1</version><packaging>pom</packaging></project>"
+                    )
+                )
+            ).artifact().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metadata;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import org.cactoos.list.ListOf;
+import org.hamcrest.Matcher;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.AllOf;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SnapshotMetadata}.
+ * @since 0.12
+ */
+final class SnapshotMetadataTest {
+
+    @Test
+    void generatesSnapshotVersions() {
+        MatcherAssert.assertThat(
+            this.saved(
+                new SnapshotMetadata("com.test", "logger", "1.0-SNAPSHOT").builds(
+                    new ListOf<>(
+                        "logger-1.0-20210401.101010-1.jar",
+                        "logger-1.0-20210401.101010-1.jar.sha1",
+                        "logger-1.0-20210401.101010-1.pom",
+                        "logger-1.0-20210401.101010-1-sources.jar",
+                        "maven-metadata.xml"
+                    )
+                )
+            ),
+            new AllOf<>(
+                new ListOf<Matcher<? super XML>>(
+                    // @checkstyle LineLengthCheck (20 lines)
+                    XhtmlMatchers.hasXPath("/metadata/version[text() = '1.0-SNAPSHOT']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/timestamp[text() = '20210401.101010']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/buildNumber[text() = '1']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/lastUpdated[text() = '20210401101010']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions[count(snapshotVersion) = 3]"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions/snapshotVersion[extension = 'jar' and not(classifier) and value = '1.0-20210401.101010-1']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions/snapshotVersion[extension = 'jar' and classifier = 'sources']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions/snapshotVersion[extension = 'pom' and updated = '20210401101010']")
+                )
+            )
+        );
+    }
+
+    @Test
+    void mergesNewBuildIntoExistingMetadata() {
+        MatcherAssert.assertThat(
+            this.saved(
+                new SnapshotMetadata("com.test", "logger", "1.0-SNAPSHOT")
+                    .builds(
+                        new ListOf<>(
+                            "logger-1.0-20210401.101010-1.jar",
+                            "logger-1.0-20210401.101010-1-javadoc.jar"
+                        )
+                    )
+                    .builds(new ListOf<>("logger-1.0-20210402.111111-2.jar"))
+            ),
+            new AllOf<>(
+                new ListOf<Matcher<? super XML>>(
+                    // @checkstyle LineLengthCheck (20 lines)
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/timestamp[text() = '20210402.111111']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/buildNumber[text() = '2']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions[count(snapshotVersion) = 2]"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions/snapshotVersion[extension = 'jar' and not(classifier) and value = '1.0-20210402.111111-2']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions/snapshotVersion[classifier = 'javadoc' and value = '1.0-20210401.101010-1']")
+                )
+            )
+        );
+    }
+
+    @Test
+    void removesPrunedBuilds() {
+        MatcherAssert.assertThat(
+            this.saved(
+                new SnapshotMetadata("com.test", "logger", "1.0-SNAPSHOT")
+                    .builds(
+                        new ListOf<>(
+                            "logger-1.0-20210401.101010-1.jar",
+                            "logger-1.0-20210401.101010-1-javadoc.jar",
+                            "logger-1.0-20210402.111111-2.jar"
+                        )
+                    )
+                    .without(new ListOf<>("1.0-20210401.101010-1"))
+            ),
+            new AllOf<>(
+                new ListOf<Matcher<? super XML>>(
+                    // @checkstyle LineLengthCheck (20 lines)
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshot/buildNumber[text() = '2']"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions[count(snapshotVersion) = 1]"),
+                    XhtmlMatchers.hasXPath("/metadata/versioning/snapshotVersions/snapshotVersion[extension = 'jar' and value = '1.0-20210402.111111-2']")
+                )
+            )
+        );
+    }
+
+    private XML saved(final SnapshotMetadata metadata) {
+        final Storage storage = new InMemoryStorage();
+        final Key key = metadata.save(storage, Key.ROOT).toCompletableFuture().join();
+        return new XMLDocument(
+            storage.value(key)
+                .thenCompose(content -> new PublisherAs(content).string(StandardCharsets.UTF_8))
+                .join()
+        );
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metrics;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MeteredStorage}.
+ * @since 0.12
+ */
+final class MeteredStorageTest {
+
+    @Test
+    void countsOperationsByKeyPrefix() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Storage storage = new MeteredStorage(
+            new InMemoryStorage(), new MicrometerMetrics(registry)
+        );
+        final Key key = new Key.From(".upload/com/test/lib/1.0/lib-1.0.jar");
+        storage.save(key, new Content.From("jar".getBytes())).join();
+        storage.exists(key).join();
+        storage.exists(new Key.From("com/test/lib/1.0/lib-1.0.jar")).join();
+        MatcherAssert.assertThat(
+            "Upload operations were counted",
+            registry.get("maven.storage.ops").tags("op", "exists", "prefix", ".upload")
+                .counter().count(),
+            new IsEqual<>(1.0)
+        );
+        MatcherAssert.assertThat(
+            "Repository operations were counted",
+            registry.get("maven.storage.ops").tags("op", "exists", "prefix", "com")
+                .counter().count(),
+            new IsEqual<>(1.0)
+        );
+    }
+
+    @Test
+    void countsOperationsInsideExclusiveOperation() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        new MeteredStorage(new InMemoryStorage(), new MicrometerMetrics(registry)).exclusively(
+            key, storage -> storage.exists(key).thenCompose(
+                exists -> CompletableFuture.allOf()
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            registry.get("maven.storage.ops").tag("op", "exists").counter().count(),
+            new IsEqual<>(1.0)
+        );
+    }
+}
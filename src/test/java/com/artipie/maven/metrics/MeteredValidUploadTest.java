@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metrics;
+
+import com.artipie.asto.Key;
+import com.artipie.maven.ValidUpload;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MeteredValidUpload}.
+ * @since 0.12
+ */
+final class MeteredValidUploadTest {
+
+    @Test
+    void recordsValidateAndReadyPhases() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final ValidUpload upload = new MeteredValidUpload(
+            new ValidUpload.Dummy(false, true), new MicrometerMetrics(registry)
+        );
+        final Key location = new Key.From(".upload/com/test/lib/1.0");
+        MatcherAssert.assertThat(
+            "Origin validation result is returned",
+            upload.validate(location, new Key.From("com/test/lib"))
+                .toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+        upload.ready(location).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Validate phase was recorded",
+            registry.get("maven.deploy.phase")
+                .tags("phase", "validate", "result", "false").timer().count(),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Ready phase was recorded",
+            registry.get("maven.deploy.phase")
+                .tags("phase", "ready", "result", "true").timer().count(),
+            new IsEqual<>(1L)
+        );
+    }
+}
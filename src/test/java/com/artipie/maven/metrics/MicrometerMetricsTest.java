@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MicrometerMetrics}.
+ * @since 0.12
+ */
+final class MicrometerMetricsTest {
+
+    @Test
+    void countsWithTags() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        final Metrics metrics = new MicrometerMetrics(registry);
+        metrics.count("maven.test", 2, "route", "upload");
+        metrics.count("maven.test", 3, "route", "upload");
+        metrics.count("maven.test", 1, "route", "download");
+        MatcherAssert.assertThat(
+            registry.get("maven.test").tag("route", "upload").counter().count(),
+            new IsEqual<>(5.0)
+        );
+    }
+
+    @Test
+    void recordsTimerWithTags() {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        new MicrometerMetrics(registry).time(
+            "maven.test", Duration.ofMillis(250), "phase", "update"
+        );
+        MatcherAssert.assertThat(
+            registry.get("maven.test").tag("phase", "update").timer()
+                .totalTime(TimeUnit.MILLISECONDS),
+            new IsEqual<>(250.0)
+        );
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.maven.trace;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Trace}.
+ * @since 0.12
+ */
+final class TraceTest {
+
+    @Test
+    void nestsStorageCallsIntoPhase() {
+        final Trace trace = new Trace("PUT /com/test/lib/maven-metadata.xml.sha1");
+        final Storage storage = new TracedStorage(new InMemoryStorage(), trace);
+        final Key key = new Key.From("com/test/lib/maven-metadata.xml");
+        trace.span(
+            "update", key,
+            () -> storage.save(key, new Content.From("xml".getBytes()))
+                .thenCompose(nothing -> storage.exists(key))
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Spans were recorded in order of start",
+            trace.names(),
+            Matchers.contains("update", "storage.save", "storage.exists")
+        );
+        MatcherAssert.assertThat(
+            "Storage calls were nested into phase",
+            trace.tree(),
+            Matchers.stringContainsInOrder(
+                List.of(
+                    "\n  +", "update com/test/lib/maven-metadata.xml",
+                    "\n    +", "storage.save com/test/lib/maven-metadata.xml",
+                    "\n    +", "storage.exists com/test/lib/maven-metadata.xml"
+                )
+            )
+        );
+    }
+
+    @Test
+    void limitsRecordedSpans() {
+        final Trace trace = new Trace("PUT /com/test/lib/1.0/lib-1.0.jar", 2);
+        for (int idx = 0; idx < 5; ++idx) {
+            trace.span("phase", idx, () -> CompletableFuture.allOf())
+                .toCompletableFuture().join();
+        }
+        MatcherAssert.assertThat("Spans were limited", trace.names().size(), new IsEqual<>(2));
+        MatcherAssert.assertThat(
+            "Dropped spans were counted",
+            trace.tree(),
+            Matchers.endsWith("... 3 more spans")
+        );
+    }
+
+    @Test
+    void marksFailedSpans() {
+        final Trace trace = new Trace("PUT /com/test/lib/maven-metadata.xml.sha1");
+        new TracedStorage(new InMemoryStorage(), trace)
+            .value(new Key.From("com/test/lib/absent.xml"))
+            .handle((content, err) -> null).join();
+        MatcherAssert.assertThat(trace.tree(), Matchers.endsWith("failed"));
+    }
+}